@@ -6,18 +6,26 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speaktracker.common.tts.MetricsLogger;
+import com.speaktracker.common.tts.PresignedUrlCache;
+import com.speaktracker.common.tts.TtsKeys;
 import sentences.model.*;
 import sentences.service.ClaudeApiKeyProvider;
 import sentences.service.ClaudeApiService;
+import sentences.service.ClaudeResponseCache;
 import sentences.service.ConversationRepository;
+import sentences.service.ConversationSummarizer;
+import sentences.service.ModelRouter;
 import sentences.service.UserProfileRepository;
 import sentences.service.SituationGenerator;
 import sentences.service.TopicScenariosProvider;
 import sentences.service.SQSService;
 import sentences.service.JobStatusService;
 import sentences.service.SentenceAudioService;
+import sentences.service.SentenceGenerator;
+import sentences.service.SentencePoolService;
 import sentences.service.TtsSqsService;
-import sentences.util.TextHashUtil;
+import sentences.util.JsonArrayStreamParser;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
@@ -26,12 +34,15 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -51,11 +62,28 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
     private final String ttsBucket;
     private final int presignedUrlExpiration;
     private final S3Presigner s3Presigner;
+    private final PresignedUrlCache presignedUrls;
+    private final ClaudeResponseCache claudeResponseCache;
+    private final SentencePoolService sentencePoolService;
 
     // 레벨 평가 설정 (요구사항: 최근 10개 conversation)
     private static final int LEVEL_EVAL_CONVERSATION_LIMIT = 10;
-    private static final int LEVEL_EVAL_MAX_USER_MSG_PER_CONV = 10;
-    private static final int LEVEL_EVAL_MAX_CHARS_PER_MSG = 300;
+    // 이 이상 발화가 쌓였고 지표가 뚜렷하면 Claude 없이 판정
+    private static final int LEVEL_EVAL_LOCAL_MIN_MESSAGES = 15;
+
+    // /api/sentences/generate 응답 문장 수 (풀에서 꺼내는 단위)
+    private static final int GENERATE_BATCH_SIZE = 5;
+
+    // 채팅 요청 시 Claude 컨텍스트로 읽어오는 최근 메시지 수
+    private static final int CHAT_CONTEXT_MESSAGES = 20;
+    // 대화 아이템 version 충돌 시 재조회/재시도 횟수
+    private static final int MAX_CONVERSATION_WRITE_ATTEMPTS = 3;
+    // 상태 조회 long-poll (?waitMs=) 상한 / Lambda 타임아웃 전 여유
+    private static final long MAX_LONG_POLL_WAIT_MS = 20_000;
+    private static final long LONG_POLL_SAFETY_MS = 3_000;
+    // API Gateway 통합 타임아웃(29초) / Claude 응답 후 저장·응답 작성 여유
+    private static final long API_GATEWAY_TIMEOUT_MS = 29_000;
+    private static final long CLAUDE_RESPONSE_RESERVE_MS = 2_000;
 
     // Seed(start-only) 대화 TTL (초)
     private static final long DEFAULT_SEED_TTL_SECONDS = 10L * 60; // 10분
@@ -97,7 +125,10 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 .region(Region.AP_NORTHEAST_2)
                 .build();
         }
-        if (jobStatusTable != null || sentenceAudioTable != null) {
+        String responseCacheTable = System.getenv("CLAUDE_RESPONSE_CACHE_TABLE");
+        String sentencePoolTable = System.getenv("SENTENCE_POOL_TABLE");
+        if (jobStatusTable != null || sentenceAudioTable != null || responseCacheTable != null
+            || sentencePoolTable != null) {
             dynamoDbClient = DynamoDbClient.builder()
                 .region(Region.AP_NORTHEAST_2)
                 .build();
@@ -115,6 +146,18 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         this.ttsSqsService = (ttsQueueUrl != null && sqsClient != null) ? new TtsSqsService(sqsClient, ttsQueueUrl) : null;
         this.sentenceAudioService = (sentenceAudioTable != null && dynamoDbClient != null) ? new SentenceAudioService(dynamoDbClient, sentenceAudioTable) : null;
         this.s3Presigner = presigner;
+        this.presignedUrls = presigner != null
+            ? new PresignedUrlCache("SentencesFunction", presignedUrlExpiration, this::presignAudioUrl)
+            : null;
+        this.sentencePoolService = (sentencePoolTable != null && dynamoDbClient != null) ? new SentencePoolService(dynamoDbClient, sentencePoolTable) : null;
+
+        // Claude 응답 캐시 (테이블 미설정 시 컨테이너 내 LRU만 사용)
+        this.claudeResponseCache = new ClaudeResponseCache(
+            dynamoDbClient, responseCacheTable,
+            (int) parseLongEnv("CLAUDE_RESPONSE_CACHE_MAX_ENTRIES", 500),
+            parseLongEnv("CLAUDE_RESPONSE_CACHE_TTL_SECONDS", 7L * 24 * 60 * 60));
+
+        warmUpClaude();
     }
 
     private ClaudeApiService getClaudeApiService() {
@@ -125,12 +168,26 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         synchronized (claudeInitLock) {
             if (claudeApiService == null) {
                 String apiKey = claudeApiKeyProvider.getApiKey(claudeApiKeySecretId);
-                claudeApiService = new ClaudeApiService(apiKey);
+                claudeApiService = new ClaudeApiService(apiKey, claudeResponseCache);
             }
             return claudeApiService;
         }
     }
 
+    /**
+     * 초기화 단계에서 API 키 조회 + Claude 커넥션 사전 연결 (첫 요청의 DNS/TCP/TLS 제거)
+     */
+    private void warmUpClaude() {
+        if (claudeApiKeySecretId == null || claudeApiKeySecretId.isBlank()) {
+            return;
+        }
+        try {
+            getClaudeApiService().warmUp();
+        } catch (Exception e) {
+            System.err.println("Claude warm-up skipped: " + e.getMessage());
+        }
+    }
+
     private long parseLongEnv(String key, long defaultValue) {
         try {
             String raw = System.getenv(key);
@@ -149,6 +206,10 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
 
         context.getLogger().log("Sentences Request - Method: " + httpMethod + ", Path: " + path);
 
+        // Claude 재시도/fallback이 API Gateway·Lambda 타임아웃을 넘지 않도록
+        ClaudeApiService.setDeadline(
+            Math.min(context.getRemainingTimeInMillis(), API_GATEWAY_TIMEOUT_MS) - CLAUDE_RESPONSE_RESERVE_MS);
+
         try {
             // POST /api/sentences/generate - 문장 생성
             if ("POST".equals(httpMethod) && path.endsWith("/generate")) {
@@ -221,52 +282,61 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
 
             context.getLogger().log("Generating sentences - Topic: " + topic + ", Difficulty: " + difficulty);
 
-            // 프롬프트 생성
-            String systemPrompt = buildSystemPrompt(topic, difficulty);
-            // 요청마다 seed를 넣어 다양성/랜덤성을 높임 (저장/히스토리 없이 프롬프트만 강화)
-            String diversitySeed = UUID.randomUUID().toString();
-            String userPrompt = """
-                Generate exactly 5 sentences now with maximum diversity.
-                Seed: %s
-                Requirements:
-                - Keep the difficulty level exactly as specified.
-                - Treat each of the 10 as a different micro-scenario.
-                - Each sentence must have 2+ concrete details (numbers, times, names, item/model, seat/gate, address-like detail, etc.).
-                - Avoid repeating the same opening words or template phrases across the 10 sentences.
-                - Output JSON array only (no extra text).
-                """.formatted(diversitySeed);
-
-            // Claude API 호출
-            String claudeResponse = getClaudeApiService().callClaudeApi(systemPrompt, userPrompt);
-            context.getLogger().log("Claude API response received");
-
-            // JSON 파싱 (Claude가 반환한 문장 배열)
-            List<Sentence> sentences;
-            try {
-                sentences = objectMapper.readValue(
-                    claudeResponse, new TypeReference<List<Sentence>>() {});
-            } catch (Exception parseError) {
-                // Claude가 간혹 JSON 외 텍스트를 섞어 반환하는 경우를 대비해 JSON 배열만 추출 시도
-                String extracted = extractJsonArray(claudeResponse);
-                context.getLogger().log("Claude response JSON parse failed; retrying with extracted JSON array. "
-                    + "originalLen=" + (claudeResponse == null ? 0 : claudeResponse.length())
-                    + ", extractedLen=" + (extracted == null ? 0 : extracted.length())
-                    + ", error=" + parseError.getMessage());
-                sentences = objectMapper.readValue(
-                    extracted, new TypeReference<List<Sentence>>() {});
+            // 사전 생성 풀에서 우선 꺼내고, 부족할 때만 실시간 생성
+            String studentEmail = tryExtractStudentEmail(input);
+            List<SentencePoolService.PoolSentence> pooled = popPooledSentences(topic, difficulty, studentEmail, context);
+
+            List<Sentence> sentences = new ArrayList<>();
+            for (SentencePoolService.PoolSentence p : pooled) {
+                sentences.add(new Sentence(sentences.size() + 1, p.getText(), p.getTranslation(), p.getSituation()));
             }
 
-            // 응답 생성
-            SentenceGenerateResponse response = SentenceGenerateResponse.success(sentences, topic, difficulty);
+            // 오디오 세션을 먼저 만들고 문장이 준비되는 대로 TTS 큐잉 (풀에서 사전 합성된 문장은 바로 COMPLETED)
             String sessionId = UUID.randomUUID().toString();
-            response.setSessionId(sessionId);
-
-            // 문장 생성 직후 오디오 세션 선생성 + TTS 큐잉 (비동기)
+            String voiceId = "Joanna";
             try {
-                enqueueSentenceTtsSession(sessionId, sentences, "Joanna", context);
+                enqueueSentenceTtsSession(sessionId, sentences, pooled, voiceId, context);
             } catch (Exception ttsErr) {
                 context.getLogger().log("Failed to enqueue sentence TTS session: " + ttsErr.getMessage());
             }
+
+            if (sentences.size() < GENERATE_BATCH_SIZE) {
+                MetricsLogger.SENTENCES.putCount("SentencesApi", "SentencePoolMiss");
+                MetricsLogger.SENTENCES.putMetric("SentencesApi", "SentencePoolMissedSentences",
+                    GENERATE_BATCH_SIZE - sentences.size(), "Count");
+                // 스트리밍 생성: 부족분만 요청, 문장 객체가 닫힐 때마다 PENDING 생성 + TTS 큐잉
+                // (1번 문장 합성과 뒤 문장 생성을 겹침). 초과 생성분은 버리지 않고 풀에 되돌린다.
+                List<Sentence> surplus = new ArrayList<>();
+                try {
+                    SentenceGenerator.generateStreaming(getClaudeApiService(), topic, difficulty,
+                        GENERATE_BATCH_SIZE - sentences.size(), g -> {
+                            if (sentences.size() >= GENERATE_BATCH_SIZE) {
+                                surplus.add(g);
+                                return;
+                            }
+                            g.setId(sentences.size() + 1);
+                            sentences.add(g);
+                            enqueueStreamedSentenceTts(sessionId, sentences.size() - 1,
+                                g.getText(), g.getTranslation(), voiceId, context);
+                        });
+                    context.getLogger().log("Claude API response received");
+                } catch (Exception generateError) {
+                    // 풀에서 꺼낸 문장은 이미 풀에서 빠지고 TTS도 큐잉됐으므로 버리지 않고 부분 응답
+                    if (sentences.isEmpty()) {
+                        throw generateError;
+                    }
+                    context.getLogger().log("Sentence top-up failed, returning " + sentences.size()
+                        + " sentences: " + generateError.getMessage());
+                    MetricsLogger.SENTENCES.putCount("SentencesApi", "SentenceTopUpFailed");
+                }
+                returnSurplusToPool(topic, difficulty, surplus, voiceId, context);
+            } else {
+                MetricsLogger.SENTENCES.putCount("SentencesApi", "SentencePoolHit");
+            }
+
+            // 응답 생성
+            SentenceGenerateResponse response = SentenceGenerateResponse.success(sentences, topic, difficulty);
+            response.setSessionId(sessionId);
             return createResponse(200, response);
 
         } catch (IllegalArgumentException e) {
@@ -302,10 +372,11 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             int remainingTurns = -1;  // -1 = 대화 없음
 
             if (conversationId != null && !conversationId.trim().isEmpty()) {
-                conversation = conversationRepository.getConversation(conversationId);
+                // 추천 프롬프트는 최근 3턴(6 메시지)만 사용
+                conversation = conversationRepository.getConversation(conversationId, 6);
 
                 if (conversation != null && studentEmail.equals(conversation.getStudentEmail())) {
-                    int currentTurnCount = conversation.getMessages() == null ? 0 : conversation.getMessages().size();
+                    int currentTurnCount = conversation.getTurnCount();
                     remainingTurns = 15 - currentTurnCount;
                     context.getLogger().log("Recommend requested. Current turn count: "
                         + currentTurnCount + ", remaining: " + remainingTurns);
@@ -313,24 +384,35 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             }
 
             // conversation 객체를 프롬프트에 전달
-            String systemPrompt = buildRecommendSystemPrompt(topic, difficulty, conversation);
+            SystemPrompt systemPrompt = buildRecommendSystemPrompt(topic, difficulty, conversation);
             String seed = UUID.randomUUID().toString();
             String userPrompt = buildRecommendUserPrompt(count, seed, conversation != null);
 
-            String claudeResponse = getClaudeApiService().callClaudeApi(systemPrompt, userPrompt);
-
-            List<RecommendedSentence> sentences;
-            try {
-                sentences = objectMapper.readValue(
-                    claudeResponse, new TypeReference<List<RecommendedSentence>>() {});
-            } catch (Exception parseError) {
-                String extracted = extractJsonArray(claudeResponse);
-                context.getLogger().log("Recommend JSON parse failed; retrying with extracted JSON array. "
-                    + "originalLen=" + (claudeResponse == null ? 0 : claudeResponse.length())
-                    + ", extractedLen=" + (extracted == null ? 0 : extracted.length())
-                    + ", error=" + parseError.getMessage());
-                sentences = objectMapper.readValue(
-                    extracted, new TypeReference<List<RecommendedSentence>>() {});
+            // 추천 문장도 오디오 선처리 (영어만) - 문장 객체가 스트림에서 닫힐 때마다 바로 큐잉
+            String sessionId = UUID.randomUUID().toString();
+            String voiceId = "Joanna";
+            int[] streamedCount = {0};
+            JsonArrayStreamParser<RecommendedSentence> parser = new JsonArrayStreamParser<>(
+                objectMapper, RecommendedSentence.class, s -> enqueueStreamedSentenceTts(
+                    sessionId, streamedCount[0]++, s.getText(), null, voiceId, context));
+            String claudeResponse = getClaudeApiService().streamClaudeApi(
+                ModelRouter.Route.RECOMMEND, systemPrompt, userPrompt, parser::feed);
+
+            List<RecommendedSentence> sentences = parser.getElements();
+            boolean streamed = !sentences.isEmpty();
+            if (!streamed) {
+                try {
+                    sentences = objectMapper.readValue(
+                        claudeResponse, new TypeReference<List<RecommendedSentence>>() {});
+                } catch (Exception parseError) {
+                    String extracted = extractJsonArray(claudeResponse);
+                    context.getLogger().log("Recommend JSON parse failed; retrying with extracted JSON array. "
+                        + "originalLen=" + (claudeResponse == null ? 0 : claudeResponse.length())
+                        + ", extractedLen=" + (extracted == null ? 0 : extracted.length())
+                        + ", error=" + parseError.getMessage());
+                    sentences = objectMapper.readValue(
+                        extracted, new TypeReference<List<RecommendedSentence>>() {});
+                }
             }
 
             // id 정규화(없거나 0이면 1..N 부여)
@@ -345,14 +427,15 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
 
             SentenceRecommendResponse response = SentenceRecommendResponse.success(sentences, topic, difficulty);
             response.setRemainingTurns(remainingTurns);
-            String sessionId = UUID.randomUUID().toString();
             response.setSessionId(sessionId);
 
-            // 추천 문장도 오디오 선처리 (영어만)
-            try {
-                enqueueRecommendSentenceTtsSession(sessionId, sentences, "Joanna", context);
-            } catch (Exception ttsErr) {
-                context.getLogger().log("Failed to enqueue recommend sentence TTS session: " + ttsErr.getMessage());
+            // 스트림에서 건지지 못해 전체 파싱으로 얻은 경우에만 일괄 큐잉
+            if (!streamed) {
+                try {
+                    enqueueRecommendSentenceTtsSession(sessionId, sentences, voiceId, context);
+                } catch (Exception ttsErr) {
+                    context.getLogger().log("Failed to enqueue recommend sentence TTS session: " + ttsErr.getMessage());
+                }
             }
             return createResponse(200, response);
 
@@ -381,10 +464,12 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             context.getLogger().log("Sentence feedback - student=" + studentEmail
                 + ", difficulty=" + difficulty);
 
-            String systemPrompt = buildFeedbackSystemPrompt(difficulty);
+            SystemPrompt systemPrompt = buildFeedbackSystemPrompt(difficulty);
             String userPrompt = buildFeedbackUserPrompt(request.getOriginalText(), request.getUserText());
 
-            String claudeResponse = getClaudeApiService().callClaudeApi(systemPrompt, userPrompt);
+            // 같은 원문/발화 쌍은 수업에서 자주 반복되므로 캐시 사용
+            String claudeResponse = getClaudeApiService().callClaudeApi(
+                ModelRouter.Route.FEEDBACK, systemPrompt, userPrompt, true);
 
             Map<String, Object> payload;
             try {
@@ -495,12 +580,13 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             String conversationId = "conv_" + UUID.randomUUID().toString().substring(0, 8);
 
             // 시스템 프롬프트 생성
-            String systemPrompt = buildChatSystemPrompt(
+            SystemPrompt systemPrompt = buildChatSystemPrompt(
                 topic, difficulty, situation.getSituation(), situation.getRole(), situation.getGoal());
 
             // Claude API 호출 (첫 메시지 생성)
             String initialMessage = "Start the conversation as " + situation.getRole() + ".";
-            String aiResponse = getClaudeApiService().callClaudeApi(systemPrompt, initialMessage);
+            String aiResponse = getClaudeApiService().callClaudeApi(
+                ModelRouter.Route.CHAT, systemPrompt, initialMessage, false);
 
             context.getLogger().log("AI initial message generated");
 
@@ -548,82 +634,104 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             // Cognito Authorizer claims에서 studentEmail 추출
             String requesterEmail = extractStudentEmailFromAuthorizerClaims(input);
 
-            // 기존 대화 조회
-            ConversationRepository.ConversationData conversation =
-                conversationRepository.getConversation(conversationId);
+            // 대화 조회 → 턴 제한 확인 → 사용자 메시지 append
+            // (version 조건부 쓰기 - 다른 요청이 먼저 쓴 경우 다시 읽어서 재시도)
+            ConversationMessage userTurn = new ConversationMessage("user", userMessage);
+            long longTtlEpochSeconds = Instant.now()
+                .plusSeconds(ConversationRepository.LONG_TTL_SECONDS)
+                .getEpochSecond();
+            ConversationRepository.ConversationData conversation = null;
 
-            if (conversation == null) {
-                return createResponse(404, ChatMessageResponse.error("Conversation not found"));
-            }
+            for (int attempt = 1; ; attempt++) {
+                // 기존 대화 조회 (메타데이터 + 최근 메시지만)
+                // 충돌 후 재시도는 GSI(최종 일관성) 대신 베이스 테이블을 강한 일관성으로 다시 읽는다.
+                conversation = conversation == null
+                    ? conversationRepository.getConversation(conversationId, CHAT_CONTEXT_MESSAGES)
+                    : conversationRepository.getConversationConsistent(conversation, CHAT_CONTEXT_MESSAGES);
 
-            // 다른 사용자 대화 접근 방지
-            if (!requesterEmail.equals(conversation.getStudentEmail())) {
-                return createResponse(403, Map.of("success", false, "error", "Forbidden"));
-            }
+                if (conversation == null) {
+                    return createResponse(404, ChatMessageResponse.error("Conversation not found"));
+                }
 
-            // ===== 15턴 제한 (assistant 포함 총 15 메시지) =====
-            // ConversationRepository는 turn_count = messages.size()로 저장하고 있으므로 메시지 개수로 판단한다.
-            int currentCount = conversation.getMessages() == null ? 0 : conversation.getMessages().size();
-            if (currentCount >= 15) {
-                String wrapUp = buildTurnLimitWrapUpMessage(conversation);
-                return createResponse(200, ChatMessageResponse.ended(conversationId, wrapUp, currentCount, "TURN_LIMIT"));
-            }
-            // 15번째(마지막) 응답은 랩업으로 종료: 현재가 14 이상이면, 이번 요청에서는 Claude 호출 대신 랩업만 반환한다.
-            // (이 경우 유저의 마지막 메시지는 히스토리에 저장하지 않고 종료 처리한다.)
-            if (currentCount >= 14) {
-                List<ConversationMessage> messages = new ArrayList<>(conversation.getMessages());
-                String wrapUp = buildTurnLimitWrapUpMessage(conversation);
-                messages.add(new ConversationMessage("assistant", wrapUp));
-
-                // 랩업 메시지까지 저장해서 대화 종료 상태를 남김
-                long longTtlEpochSeconds = Instant.now()
-                    .plusSeconds(ConversationRepository.LONG_TTL_SECONDS)
-                    .getEpochSecond();
-                conversationRepository.saveConversation(
-                    conversation.getStudentEmail(), conversationId,
-                    conversation.getTopic(), conversation.getDifficulty(),
-                    conversation.getSituation(), conversation.getRole(),
-                    messages, conversation.getTimestamp(), longTtlEpochSeconds
-                );
+                // 다른 사용자 대화 접근 방지
+                if (!requesterEmail.equals(conversation.getStudentEmail())) {
+                    return createResponse(403, Map.of("success", false, "error", "Forbidden"));
+                }
 
-                return createResponse(200, ChatMessageResponse.ended(conversationId, wrapUp, messages.size(), "TURN_LIMIT"));
+                // ===== 15턴 제한 (assistant 포함 총 15 메시지) =====
+                // turn_count는 메시지 append 시 원자적으로 증가하는 전체 메시지 수
+                int currentCount = conversation.getTurnCount();
+                if (currentCount >= 15) {
+                    String wrapUp = buildTurnLimitWrapUpMessage(conversation);
+                    return createResponse(200, ChatMessageResponse.ended(conversationId, wrapUp, currentCount, "TURN_LIMIT"));
+                }
+
+                try {
+                    // 15번째(마지막) 응답은 랩업으로 종료: 현재가 14 이상이면, 이번 요청에서는 Claude 호출 대신 랩업만 반환한다.
+                    // (이 경우 유저의 마지막 메시지는 히스토리에 저장하지 않고 종료 처리한다.)
+                    if (currentCount >= 14) {
+                        String wrapUp = buildTurnLimitWrapUpMessage(conversation);
+
+                        // 랩업 메시지까지 저장해서 대화 종료 상태를 남김
+                        int turnCount = conversationRepository.appendMessages(
+                            conversation, List.of(new ConversationMessage("assistant", wrapUp)), longTtlEpochSeconds);
+
+                        return createResponse(200, ChatMessageResponse.ended(conversationId, wrapUp, turnCount, "TURN_LIMIT"));
+                    }
+
+                    // 먼저 사용자 메시지만 append
+                    conversationRepository.appendMessages(conversation, List.of(userTurn), longTtlEpochSeconds);
+                    break;
+                } catch (ConditionalCheckFailedException conflict) {
+                    if (attempt >= MAX_CONVERSATION_WRITE_ATTEMPTS) {
+                        throw conflict;
+                    }
+                    context.getLogger().log("Conversation write conflict - retrying: " + conversationId
+                        + ", attempt=" + attempt);
+                    sleepConflictBackoff(attempt);
+                }
             }
 
-            // 메시지 히스토리에 사용자 메시지 추가
+            // 최근 메시지 꼬리에 사용자 메시지 추가 (Claude 컨텍스트용)
             List<ConversationMessage> messages = new ArrayList<>(conversation.getMessages());
-            messages.add(new ConversationMessage("user", userMessage));
+            messages.add(userTurn);
 
-            // 먼저 사용자 메시지만 저장
-            long longTtlEpochSeconds = Instant.now()
-                .plusSeconds(ConversationRepository.LONG_TTL_SECONDS)
-                .getEpochSecond();
-            conversationRepository.saveConversation(
-                conversation.getStudentEmail(), conversationId,
-                conversation.getTopic(), conversation.getDifficulty(),
-                conversation.getSituation(), conversation.getRole(), messages,
-                conversation.getTimestamp(),
-                longTtlEpochSeconds);
+            // 최근 20턴만 유지 (토큰 절약). 누적 요약이 있으면 요약 이후 메시지(최소 최근 K개)만 전달
+            List<ConversationMessage> recentMessages = selectContextMessages(conversation, messages);
 
             // SQS 비동기 처리
             if (sqsService != null && jobStatusService != null) {
-                // 최근 20턴만 유지 (토큰 절약)
-                List<ConversationMessage> recentMessages = messages.size() > 20
-                    ? messages.subList(messages.size() - 20, messages.size())
-                    : messages;
 
                 // 시스템 프롬프트 생성
-                String systemPrompt = buildChatSystemPrompt(
+                SystemPrompt systemPrompt = buildChatSystemPrompt(
                     conversation.getTopic(), conversation.getDifficulty(),
                     conversation.getSituation(), conversation.getRole(), "");
+                systemPrompt = withConversationSummary(systemPrompt, conversation.getSummary());
 
-                // SQS에 메시지 전송
+                // SQS에 메시지 전송 (system은 정적/동적 블록으로 전달)
                 String requestId = UUID.randomUUID().toString();
                 AsyncChatMessage asyncMessage = new AsyncChatMessage(
                     requestId, conversationId, conversation.getStudentEmail(),
-                    systemPrompt, recentMessages);
-
-                sqsService.sendChatMessage(asyncMessage);
+                    null, recentMessages);
+                asyncMessage.setSystemPromptBlocks(systemPrompt);
+                asyncMessage.setSummary(conversation.getSummary());
+                asyncMessage.setSummarizedCount(conversation.getSummarizedCount());
+                asyncMessage.setStream(request.isStreamRequested());
+                asyncMessage.setRequestedAtEpochMs(System.currentTimeMillis());
+                asyncMessage.setConversationTimestamp(conversation.getTimestamp());
+
+                // 상태 행을 먼저 만든다: 전송 직후 Worker가 끝내면 COMPLETED를 PROCESSING으로 덮어쓰게 됨
                 jobStatusService.createJob(requestId, "PROCESSING");
+                try {
+                    sqsService.sendChatMessage(asyncMessage);
+                } catch (RuntimeException e) {
+                    try {
+                        jobStatusService.updateJobFailed(requestId, "Failed to enqueue chat request");
+                    } catch (Exception ignore) {
+                        // noop
+                    }
+                    throw e;
+                }
 
                 context.getLogger().log("Chat request sent to SQS: " + requestId);
 
@@ -634,32 +742,27 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 response.put("requestId", requestId);
                 response.put("conversationId", conversationId);
                 response.put("statusUrl", "/api/ai/chat/status/" + requestId);
+                response.put("stream", asyncMessage.isStream());
 
                 return createResponse(202, response);
             } else {
                 // 동기 처리 (폴백)
-                List<ConversationMessage> recentMessages = messages.size() > 20
-                    ? messages.subList(messages.size() - 20, messages.size())
-                    : messages;
-
-                String systemPrompt = buildChatSystemPrompt(
+                SystemPrompt systemPrompt = buildChatSystemPrompt(
                     conversation.getTopic(), conversation.getDifficulty(),
                     conversation.getSituation(), conversation.getRole(), "");
+                systemPrompt = withConversationSummary(systemPrompt, conversation.getSummary());
 
                 String aiResponse = getClaudeApiService().callClaudeApiWithHistory(
                     systemPrompt, recentMessages);
 
-                messages.add(new ConversationMessage("assistant", aiResponse));
-
-                conversationRepository.saveConversation(
-                    conversation.getStudentEmail(), conversationId,
-                    conversation.getTopic(), conversation.getDifficulty(),
-                    conversation.getSituation(), conversation.getRole(), messages,
-                    conversation.getTimestamp(),
-                    longTtlEpochSeconds);
+                // 위에서 레거시 포맷도 새 포맷으로 옮겨졌으므로 키 기반 append
+                int turnCount = conversationRepository.appendMessages(
+                    conversation.getStudentEmail(), conversation.getTimestamp(),
+                    List.of(new ConversationMessage("assistant", aiResponse)), longTtlEpochSeconds,
+                    UUID.randomUUID().toString());
 
                 ChatMessageResponse response = ChatMessageResponse.success(
-                    conversationId, aiResponse, messages.size());
+                    conversationId, aiResponse, turnCount);
                 return createResponse(200, response);
             }
 
@@ -674,6 +777,32 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
     }
 
+    /**
+     * Claude에 보낼 메시지 구간 선택
+     * - messages: 조회한 꼬리 + 이번 사용자 메시지 (전체 인덱스 [n - size, n))
+     * - 요약이 있으면 요약에 포함되지 않은 메시지부터, 최소 최근 RECENT_MESSAGES개
+     */
+    private List<ConversationMessage> selectContextMessages(
+            ConversationRepository.ConversationData conversation, List<ConversationMessage> messages) {
+        int n = conversation.getTurnCount() + 1;
+        int tailStart = n - messages.size();
+        int start = Math.max(tailStart, n - CHAT_CONTEXT_MESSAGES);
+        if (conversation.getSummary() != null && !conversation.getSummary().isBlank()) {
+            start = Math.max(start, Math.min(conversation.getSummarizedCount(),
+                n - ConversationSummarizer.RECENT_MESSAGES));
+        }
+        int from = Math.max(0, start - tailStart);
+        return from == 0 ? messages : messages.subList(from, messages.size());
+    }
+
+    private SystemPrompt withConversationSummary(SystemPrompt systemPrompt, String summary) {
+        if (summary == null || summary.isBlank()) {
+            return systemPrompt;
+        }
+        return SystemPrompt.of(systemPrompt.getStaticPart(), systemPrompt.getDynamicPart()
+            + "\n## Earlier in this conversation (summary)\n" + summary.trim() + "\n");
+    }
+
     private String buildTurnLimitWrapUpMessage(ConversationRepository.ConversationData conversation) {
         // 1~2문장 랩업 + 다음 액션 제안. 역할/상황을 깨지 않도록 너무 메타하게 말하지 않는다.
         String role = conversation == null ? "" : conversation.getRole();
@@ -693,11 +822,13 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             String path = input.getPath();
             String requestId = path.substring(path.lastIndexOf('/') + 1);
 
-            context.getLogger().log("Status check for request: " + requestId);
+            long waitMs = resolveWaitMs(input, context);
+            context.getLogger().log("Status check for request: " + requestId + " (waitMs=" + waitMs + ")");
 
-            // DynamoDB에서 작업 상태 조회
-            Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> jobStatus =
-                jobStatusService.getJobStatus(requestId);
+            // DynamoDB에서 작업 상태 조회 (waitMs > 0이면 완료/실패까지 대기)
+            Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> jobStatus = waitMs > 0
+                ? jobStatusService.waitForJobStatus(requestId, waitMs)
+                : jobStatusService.getJobStatus(requestId);
 
             if (jobStatus == null) {
                 return createResponse(404, Map.of("error", "Request not found"));
@@ -727,6 +858,24 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
     }
 
+    /**
+     * ?waitMs= long-poll 대기 시간 (최대 20초, Lambda 남은 시간에서 여유분 제외). 없으면 0 (즉시 응답)
+     */
+    private long resolveWaitMs(APIGatewayProxyRequestEvent input, Context context) {
+        Map<String, String> params = input.getQueryStringParameters();
+        if (params == null || params.get("waitMs") == null) {
+            return 0;
+        }
+        long waitMs;
+        try {
+            waitMs = Long.parseLong(params.get("waitMs").trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        long budget = context.getRemainingTimeInMillis() - LONG_POLL_SAFETY_MS;
+        return Math.max(0, Math.min(Math.min(waitMs, MAX_LONG_POLL_WAIT_MS), budget));
+    }
+
     private APIGatewayProxyResponseEvent handleConversationList(
             APIGatewayProxyRequestEvent input, Context context) {
         try {
@@ -747,18 +896,26 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 }
             }
 
+            // 다음 페이지 커서 (이전 응답의 nextCursor)
+            String cursor = input.getQueryStringParameters() == null
+                ? null
+                : input.getQueryStringParameters().get("cursor");
+
             // 대화 이력 조회
-            List<ConversationSummary> conversations =
-                conversationRepository.getConversationsByStudent(studentEmail, limit);
+            ConversationRepository.ConversationPage page =
+                conversationRepository.getConversationsByStudent(studentEmail, limit, cursor);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", conversations);
+            response.put("data", page.getConversations());
+            response.put("nextCursor", page.getNextCursor());
 
             return createResponse(200, response);
 
         } catch (SecurityException e) {
             return createResponse(401, Map.of("success", false, "error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return createResponse(400, Map.of("success", false, "error", e.getMessage()));
         } catch (Exception e) {
             context.getLogger().log("Conversation list error: " + e.getMessage());
             e.printStackTrace();
@@ -800,7 +957,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             conversationDto.put("role", conversation.getRole());
             conversationDto.put("messages", conversation.getMessages());
             conversationDto.put("timestamp", conversation.getTimestamp());
-            conversationDto.put("turnCount", conversation.getMessages().size());
+            conversationDto.put("turnCount", conversation.getTurnCount());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -845,30 +1002,37 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 ));
             }
 
-            // 최근 10개 conversation(messages 포함) 조회
-            List<ConversationRepository.ConversationData> conversations =
-                conversationRepository.getRecentConversationsWithMessages(studentEmail, LEVEL_EVAL_CONVERSATION_LIMIT);
-
-            if (conversations == null || conversations.isEmpty()) {
-                return createResponse(400, Map.of("success", false, "error", "not_enough_data"));
+            // 최근 10개 conversation의 학습자 특징 카운터만 합산 (메시지 본문은 다시 읽지 않음)
+            LearnerFeatures features = new LearnerFeatures();
+            for (LearnerFeatures f : conversationRepository.getRecentLearnerFeatures(
+                    studentEmail, LEVEL_EVAL_CONVERSATION_LIMIT)) {
+                features.merge(f);
             }
 
-            String userPrompt = buildLevelEvalUserPrompt(conversations);
-            if (userPrompt.isBlank()) {
+            if (features.isEmpty() || features.getWords() == 0) {
                 return createResponse(400, Map.of("success", false, "error", "not_enough_data"));
             }
 
-            String systemPrompt = """
-                너는 영어 학습자의 회화 레벨을 평가하는 채점자다.
-                아래는 사용자의 최근 대화 발화(user role)들이다.
-
-                규칙:
-                - 반드시 다음 3개 중 하나만 출력: 상, 중, 하
-                - 다른 글자/설명/공백/줄바꿈/마침표/따옴표/JSON 금지
-                """;
-
-            String claudeRaw = getClaudeApiService().callClaudeApi(systemPrompt, userPrompt);
-            String level = parseLevelOnly(claudeRaw);
+            // 발화가 충분하고 지표가 한쪽으로 뚜렷하면 Claude 호출 없이 판정
+            String level = decideLevelLocally(features);
+            if (level != null) {
+                context.getLogger().log("AI level decided locally: " + level);
+                MetricsLogger.SENTENCES.putCount("AiLevel", "LocalDecision");
+            } else {
+                String systemPrompt = """
+                    너는 영어 학습자의 회화 레벨을 평가하는 채점자다.
+                    아래는 사용자의 최근 대화 발화(user role)를 집계한 지표다.
+
+                    규칙:
+                    - 반드시 다음 3개 중 하나만 출력: 상, 중, 하
+                    - 다른 글자/설명/공백/줄바꿈/마침표/따옴표/JSON 금지
+                    """;
+
+                String claudeRaw = getClaudeApiService().callClaudeApi(
+                    ModelRouter.Route.LEVEL, systemPrompt, buildLevelEvalUserPrompt(features), true);
+                level = parseLevelOnly(claudeRaw);
+                MetricsLogger.SENTENCES.putCount("AiLevel", "ClaudeDecision");
+            }
 
             // UsersTable learning_level 및 last_level_eval_date 업데이트
             userProfileRepository.updateLearningLevel(role, studentEmail, level, todayKst);
@@ -888,44 +1052,43 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
     }
 
-    private String buildLevelEvalUserPrompt(List<ConversationRepository.ConversationData> conversations) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("최근 대화 10개에서 사용자의 발화만 모았습니다. 아래 발화를 보고 상/중/하 중 하나로만 답하세요.\n\n");
-
-        int appended = 0;
-        for (int i = 0; i < conversations.size(); i++) {
-            ConversationRepository.ConversationData conv = conversations.get(i);
-            if (conv == null || conv.getMessages() == null || conv.getMessages().isEmpty()) {
-                continue;
-            }
-
-            // conversation 단위 구분자
-            sb.append("=== conversation ").append(i + 1).append(" (topic=").append(safe(conv.getTopic()))
-                .append(", difficulty=").append(safe(conv.getDifficulty())).append(") ===\n");
-
-            // 최근 user 메시지 최대 N개만
-            int convUserCount = 0;
-            List<ConversationMessage> msgs = conv.getMessages();
-            for (int j = msgs.size() - 1; j >= 0; j--) {
-                ConversationMessage m = msgs.get(j);
-                if (m == null) continue;
-                if (!"user".equalsIgnoreCase(m.getRole())) continue;
-                String content = m.getContent() == null ? "" : m.getContent().trim();
-                if (content.isEmpty()) continue;
-
-                if (content.length() > LEVEL_EVAL_MAX_CHARS_PER_MSG) {
-                    content = content.substring(0, LEVEL_EVAL_MAX_CHARS_PER_MSG);
-                }
+    private String buildLevelEvalUserPrompt(LearnerFeatures features) {
+        return """
+            최근 대화 10개에서 사용자 발화를 집계한 지표입니다. 상/중/하 중 하나로만 답하세요.
+
+            - 발화 수: %d
+            - 발화당 단어 수: %.1f
+            - 문장당 단어 수: %.1f
+            - 어휘 다양성(발화별 type/token 평균): %.2f
+            - 기본 어휘 외 단어 비율: %.2f
+            - 발화당 오류 신호(한글 섞임, 수일치/관사 오류 패턴 등): %.2f
+            """.formatted(
+            features.getMessages(),
+            features.getWordsPerMessage(),
+            features.getWordsPerSentence(),
+            features.getTypeTokenRatio(),
+            features.getRareWordRatio(),
+            features.getErrorsPerMessage());
+    }
 
-                sb.append("- ").append(content.replace('\n', ' ')).append("\n");
-                appended++;
-                convUserCount++;
-                if (convUserCount >= LEVEL_EVAL_MAX_USER_MSG_PER_CONV) break;
-            }
-            sb.append("\n");
+    /**
+     * 지표가 뚜렷한 경우만 로컬 판정, 애매하면 null (Claude로 판정)
+     */
+    private String decideLevelLocally(LearnerFeatures features) {
+        if (features.getMessages() < LEVEL_EVAL_LOCAL_MIN_MESSAGES) {
+            return null;
         }
+        double wordsPerSentence = features.getWordsPerSentence();
+        double rareRatio = features.getRareWordRatio();
+        double errorsPerMessage = features.getErrorsPerMessage();
 
-        return appended == 0 ? "" : sb.toString();
+        if (wordsPerSentence >= 11 && rareRatio >= 0.12 && errorsPerMessage <= 0.15) {
+            return "상";
+        }
+        if (wordsPerSentence <= 5 && (rareRatio <= 0.04 || errorsPerMessage >= 0.5)) {
+            return "하";
+        }
+        return null;
     }
 
     private String parseLevelOnly(String claudeRaw) {
@@ -943,10 +1106,6 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         return "중";
     }
 
-    private String safe(String s) {
-        return s == null ? "" : s;
-    }
-
     private APIGatewayProxyResponseEvent handleSentenceAudioSession(
         APIGatewayProxyRequestEvent input, Context context
     ) {
@@ -995,16 +1154,8 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 if ("COMPLETED".equals(status) && item.containsKey("s3Key")) {
                     String s3Key = item.get("s3Key").s();
                     if (s3Key != null && !s3Key.isEmpty()) {
-                        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                            .bucket(ttsBucket)
-                            .key(s3Key)
-                            .build();
-                        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                            .signatureDuration(Duration.ofSeconds(presignedUrlExpiration))
-                            .getObjectRequest(getObjectRequest)
-                            .build();
-                        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(presignRequest);
-                        audioUrl = presigned.url().toString();
+                        // 같은 만료 구간이면 컨테이너 캐시의 URL 재사용
+                        audioUrl = presignedUrls.get(s3Key).getUrl();
                     }
                 }
 
@@ -1051,10 +1202,69 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             context.getLogger().log("Sentence audio session error: " + e.getMessage());
             e.printStackTrace();
             return createResponse(500, Map.of("success", false, "error", "Failed to get sentence audio session: " + e.getMessage()));
+        } finally {
+            if (presignedUrls != null) {
+                presignedUrls.publishMetrics();
+            }
+        }
+    }
+
+    private String presignAudioUrl(String s3Key, int expirationSeconds) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            .bucket(ttsBucket)
+            .key(s3Key)
+            .build();
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+            .signatureDuration(Duration.ofSeconds(expirationSeconds))
+            .getObjectRequest(getObjectRequest)
+            .build();
+        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(presignRequest);
+        return presigned.url().toString();
+    }
+
+    /**
+     * 요청보다 많이 생성된 문장을 풀에 적재 (오디오는 꺼낼 때 합성)
+     */
+    private void returnSurplusToPool(String topic, String difficulty, List<Sentence> surplus, String voiceId,
+                                     Context context) {
+        if (sentencePoolService == null || surplus.isEmpty()) {
+            return;
+        }
+        try {
+            sentencePoolService.addSentences(SentencePoolService.poolKey(topic, difficulty), surplus, voiceId);
+        } catch (Exception e) {
+            context.getLogger().log("Failed to return surplus sentences to pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 문장 풀에서 꺼내기 (풀 미설정/오류 시 빈 목록 → 실시간 생성)
+     */
+    private List<SentencePoolService.PoolSentence> popPooledSentences(
+            String topic, String difficulty, String studentEmail, Context context) {
+        if (sentencePoolService == null) {
+            return List.of();
+        }
+        try {
+            return sentencePoolService.pop(
+                SentencePoolService.poolKey(topic, difficulty), studentEmail, GENERATE_BATCH_SIZE);
+        } catch (Exception e) {
+            context.getLogger().log("Sentence pool pop failed: " + e.getMessage());
+            return List.of();
         }
     }
 
-    private void enqueueSentenceTtsSession(String sessionId, List<Sentence> sentences, String voiceId, Context context) {
+    private String tryExtractStudentEmail(APIGatewayProxyRequestEvent input) {
+        try {
+            return extractStudentEmailFromAuthorizerClaims(input);
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private void enqueueSentenceTtsSession(String sessionId, List<Sentence> sentences,
+                                           List<SentencePoolService.PoolSentence> pooled,
+                                           String voiceId, Context context) {
         if (sentenceAudioService == null || ttsSqsService == null) {
             context.getLogger().log("Sentence audio services are not initialized; skipping TTS enqueue.");
             return;
@@ -1064,6 +1274,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
 
         long ttl = Instant.now().plusSeconds(30L * 24 * 60 * 60).getEpochSecond();
+        List<Map<String, AttributeValue>> rows = new ArrayList<>();
         List<TTSJobMessagePayload> payloads = new ArrayList<>();
 
         for (int i = 0; i < sentences.size(); i++) {
@@ -1072,12 +1283,19 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             String korean = s == null ? null : s.getTranslation();
             if (english == null) english = "";
 
+            // 풀에서 꺼낸 문장이 이미 합성돼 있으면 큐를 거치지 않음
+            SentencePoolService.PoolSentence p0 = i < pooled.size() ? pooled.get(i) : null;
+            if (p0 != null && p0.isAudioReady()) {
+                rows.add(sentenceAudioService.completedItem(sessionId, i, english, korean, voiceId,
+                    p0.getS3Key(), p0.getDurationMs(), ttl));
+                continue;
+            }
+
             String jobId = UUID.randomUUID().toString();
-            String textHash = TextHashUtil.generateHash(english, voiceId);
-            String s3Key = TextHashUtil.generateS3Key(voiceId, textHash);
+            String s3Key = TtsKeys.s3Key(english, voiceId);
 
-            // PENDING 선생성
-            sentenceAudioService.putPending(sessionId, i, english, korean, voiceId, jobId, ttl);
+            // PENDING row
+            rows.add(sentenceAudioService.pendingItem(sessionId, i, english, korean, voiceId, jobId, ttl));
 
             // SQS 메시지
             TTSJobMessagePayload p = new TTSJobMessagePayload();
@@ -1091,9 +1309,60 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             payloads.add(p);
         }
 
+        writeRowsAndSendTtsJobs(rows, payloads);
+    }
+
+    /**
+     * 조건부 쓰기 충돌 재시도 간격 (attempt * 25~75ms, 동시 요청이 같은 순간에 다시 부딪히지 않도록 jitter)
+     */
+    private static void sleepConflictBackoff(int attempt) {
+        try {
+            Thread.sleep(attempt * ThreadLocalRandom.current().nextLong(25, 76));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 세션 row 일괄 저장(BatchWriteItem) 후 SQS 배치 전송
+     * - 워커가 아무리 빨리 끝나도 PENDING row가 완료 상태를 덮어쓰지 않도록 row를 먼저 쓴다.
+     */
+    private void writeRowsAndSendTtsJobs(List<Map<String, AttributeValue>> rows, List<TTSJobMessagePayload> payloads) {
+        sentenceAudioService.putBatch(rows);
         ttsSqsService.sendTtsJobsBatch(payloads);
     }
 
+    /**
+     * 스트림에서 도착한 문장 1개를 바로 PENDING 생성 + TTS 큐잉 (실패해도 문장 생성은 계속)
+     */
+    private void enqueueStreamedSentenceTts(String sessionId, int sentenceIndex, String english, String korean,
+                                            String voiceId, Context context) {
+        if (sentenceAudioService == null || ttsSqsService == null) {
+            return;
+        }
+        try {
+            if (english == null) english = "";
+            long ttl = Instant.now().plusSeconds(30L * 24 * 60 * 60).getEpochSecond();
+            String jobId = UUID.randomUUID().toString();
+            String s3Key = TtsKeys.s3Key(english, voiceId);
+
+            sentenceAudioService.putPending(sessionId, sentenceIndex, english, korean, voiceId, jobId, ttl);
+
+            TTSJobMessagePayload p = new TTSJobMessagePayload();
+            p.setJobId(jobId);
+            p.setText(english);
+            p.setVoiceId(voiceId);
+            p.setS3Key(s3Key);
+            p.setSessionId(sessionId);
+            p.setSentenceIndex(sentenceIndex);
+            p.setTrackDuration(true);
+            ttsSqsService.sendTtsJob(p);
+        } catch (Exception e) {
+            context.getLogger().log("Failed to enqueue streamed sentence TTS (index=" + sentenceIndex + "): "
+                + e.getMessage());
+        }
+    }
+
     private void enqueueRecommendSentenceTtsSession(String sessionId, List<RecommendedSentence> sentences, String voiceId, Context context) {
         if (sentenceAudioService == null || ttsSqsService == null) {
             context.getLogger().log("Sentence audio services are not initialized; skipping recommend TTS enqueue.");
@@ -1104,6 +1373,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
 
         long ttl = Instant.now().plusSeconds(30L * 24 * 60 * 60).getEpochSecond();
+        List<Map<String, AttributeValue>> rows = new ArrayList<>();
         List<TTSJobMessagePayload> payloads = new ArrayList<>();
 
         for (int i = 0; i < sentences.size(); i++) {
@@ -1112,11 +1382,10 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             if (english == null) english = "";
 
             String jobId = UUID.randomUUID().toString();
-            String textHash = TextHashUtil.generateHash(english, voiceId);
-            String s3Key = TextHashUtil.generateS3Key(voiceId, textHash);
+            String s3Key = TtsKeys.s3Key(english, voiceId);
 
-            // PENDING 선생성 (추천 문장은 한국어 번역이 없을 수 있음)
-            sentenceAudioService.putPending(sessionId, i, english, null, voiceId, jobId, ttl);
+            // PENDING row (추천 문장은 한국어 번역이 없을 수 있음)
+            rows.add(sentenceAudioService.pendingItem(sessionId, i, english, null, voiceId, jobId, ttl));
 
             TTSJobMessagePayload p = new TTSJobMessagePayload();
             p.setJobId(jobId);
@@ -1129,7 +1398,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             payloads.add(p);
         }
 
-        ttsSqsService.sendTtsJobsBatch(payloads);
+        writeRowsAndSendTtsJobs(rows, payloads);
     }
 
     /**
@@ -1183,8 +1452,8 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         return email;
     }
 
-    private String buildChatSystemPrompt(String topic, String difficulty,
-                                         String situation, String role, String goal) {
+    private SystemPrompt buildChatSystemPrompt(String topic, String difficulty,
+                                               String situation, String role, String goal) {
         String difficultyGuidelines;
         if ("easy".equals(difficulty)) {
             difficultyGuidelines = "Use simple vocabulary, speak slowly, ask yes/no questions, be very patient";
@@ -1194,94 +1463,47 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             difficultyGuidelines = "Use natural speech, include some idioms, vary question types";
         }
 
-        return String.format("""
+        // 정적 지시문 + 대화별 역할/상황 (대화 내내 같은 system → 히스토리 캐시 prefix 유지)
+        String staticPart = """
             You are an English conversation partner for Korean language learners.
-
-            ## Your Role
-            %s
-
-            ## Current Situation
-            %s
-
-            ## Conversation Goal for User
-            %s
-
-            ## Difficulty Level: %s
-            %s
+            The role, situation, goal and difficulty for this conversation are given below.
 
             ## Critical Rules
-            1. Stay completely in character as %s
+            1. Stay completely in character as the role described in "Your Role"
             2. Keep responses to 1-3 sentences (natural conversation length)
             3. React realistically to what the user says
             4. If user makes grammar mistakes, respond naturally (don't correct)
             5. Gradually progress the conversation toward resolution
             6. Add realistic complications based on difficulty level
             7. Never break character or mention you're an AI
+            """;
 
-            Respond as %s now.
-            """, role, situation, goal, difficulty, difficultyGuidelines, role, role);
-    }
-
-    private String buildSystemPrompt(String topic, String difficulty) {
-        String topicDescription = TopicScenariosProvider.getTopicDescription(topic);
-        String topicScenarios = TopicScenariosProvider.getTopicScenarios(topic);
-
-        return String.format("""
-            You are an expert English sentence generator for Korean language learners.
-
-            ## Task
-            Generate exactly 10 practical English sentences for the topic: %s
-            Difficulty level: %s
+        String dynamicPart = String.format("""
+            ## Your Role
+            %s
 
-            ## Topic Context: %s
+            ## Current Situation
+            %s
 
-            ## Difficulty Guidelines
-            - general: Aim for maximum diversity. Do NOT reuse common textbook templates.
-            - easy: 5-10 words, present tense, basic vocabulary, simple sentence structure
-            - medium: 10-15 words, various tenses, compound sentences, common idioms
-            - hard: 15-25 words, complex grammar, subjunctive mood, nuanced expressions, formal/polite registers
+            ## Conversation Goal for User
+            %s
 
-            ## Critical Rules
-            1. NO generic greetings (Hello, Hi, How are you, Thank you, Nice to meet you)
-            2. NO clichéd phrases (Have a nice day, See you later)
-            3. Each sentence must be practically useful in real situations
-            4. Each sentence must include at least 2 concrete details (numbers, times, names, brands, locations, seat/gate, etc.)
-            5. Make the 10 sentences maximally different from each other:
-               - Different micro-scenario per sentence (place, goal, relationship, emotion, constraint)
-               - Different intent per sentence (question, request, confirmation, complaint, negotiation, apology, refusal, clarification, suggestion, correction)
-               - Different structure: do NOT repeat the same opening pattern
-            6. Include questions, statements, and requests in mix
-            7. Reflect realistic scenarios a Korean traveler/learner would encounter
-            8. Avoid overusing these common templates across the set (at most once each):
-               - \"I'd like...\"
-               - \"Can I get...\"
-               - \"Could you please...\"
-
-            ## Topic-Specific Scenarios for %s
+            ## Difficulty Level: %s
             %s
 
-            ## Output Format (JSON only, no markdown)
-            Return a JSON array exactly like this:
-            [
-              {
-                "id": 1,
-                "text": "English sentence here",
-                "translation": "자연스러운 한국어 번역",
-                "situation": "Brief context when this would be used"
-              }
-            ]
+            Respond as %s now.
+            """, role, situation, goal, difficulty, difficultyGuidelines, role);
 
-            IMPORTANT: Return ONLY the JSON array, no markdown code blocks, no explanations.
-            """, topic, difficulty, topicDescription, topic, topicScenarios);
+        return SystemPrompt.of(staticPart, dynamicPart);
     }
 
-    private String buildRecommendSystemPrompt(String topic, String difficulty, ConversationRepository.ConversationData conversation) {
-        // conversationId 없으면 기존 방식 (일반 토픽 기반 추천)
+    private SystemPrompt buildRecommendSystemPrompt(String topic, String difficulty, ConversationRepository.ConversationData conversation) {
+        // conversationId 없으면 기존 방식 (일반 토픽 기반 추천) - 주제/난이도별로 고정
         if (conversation == null) {
             String topicDescription = TopicScenariosProvider.getTopicDescription(topic);
             String topicScenarios = TopicScenariosProvider.getTopicScenarios(topic);
 
-            return String.format("""
+            return SystemPrompt.of(String.format("""
                 You are an expert English sentence recommender for Korean learners.
 
                 ## Task
@@ -1313,7 +1535,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
                 IMPORTANT:
                 - English text only. Do NOT include Korean translation.
                 - Return ONLY the JSON array, no explanations.
-                """, topic, difficulty, topicDescription, topic, topicScenarios);
+                """, topic, difficulty, topicDescription, topic, topicScenarios));
         }
 
         // conversationId 있으면 대화 컨텍스트 기반 추천
@@ -1339,22 +1561,12 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             }
         }
 
-        return String.format("""
+        // 정적 지시문 + 대화 컨텍스트
+        String staticPart = """
             You are an expert English sentence recommender for Korean learners.
 
-            ## Conversation Context
-            - Topic: %s
-            - Situation: %s
-            - Your Role (as AI): %s
-
-            ## Recent Conversation
-            %s
-
-            ## AI's Last Response (MOST IMPORTANT)
-            "%s"
-
             ## Task
-            Recommend sentences that DIRECTLY RESPOND to the AI's last message above.
+            Recommend sentences that DIRECTLY RESPOND to the AI's last message given below.
 
             Consider what the AI said:
             - If AI asked a question → recommend answers to that question
@@ -1364,7 +1576,7 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
 
             ## Requirements
             1. Each sentence must be a DIRECT and APPROPRIATE response to the AI's last message
-            2. Match the difficulty level (%s)
+            2. Match the difficulty level given below
             3. Provide variety in response types (but all must fit the context)
 
             ## Difficulty Guidelines
@@ -1378,17 +1590,33 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
               { "id": 2, "text": "..." },
               { "id": 3, "text": "..." }
             ]
+            """;
+
+        String dynamicPart = String.format("""
+            ## Conversation Context
+            - Topic: %s
+            - Situation: %s
+            - Your Role (as AI): %s
+            - Difficulty level: %s
+
+            ## Recent Conversation
+            %s
+
+            ## AI's Last Response (MOST IMPORTANT)
+            "%s"
 
             CRITICAL: Every sentence must make sense as a direct reply to: "%s"
             """,
             conversation.getTopic(),
             conversation.getSituation(),
             conversation.getRole(),
+            difficulty,
             conversationHistory,
             lastAssistantMessage,
-            difficulty,
             lastAssistantMessage
         );
+
+        return SystemPrompt.of(staticPart, dynamicPart);
     }
 
     private String buildRecommendUserPrompt(int count, String seed, boolean hasConversation) {
@@ -1416,13 +1644,14 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
         }
     }
 
-    private String buildFeedbackSystemPrompt(String difficulty) {
-        return """
+    private SystemPrompt buildFeedbackSystemPrompt(String difficulty) {
+        // 난이도만 요청별로 달라지므로 지시문 전체를 정적 블록으로 두고 난이도는 뒤에 붙인다
+        String staticPart = """
             You are an English tutor for Korean learners.
 
             ## Task
             Given an original English sentence and the user's spoken text (STT), provide concise feedback.
-            Difficulty level: %s
+            Adjust explanations to the difficulty level given at the end.
 
             ## Rules
             1. Be encouraging and constructive.
@@ -1441,7 +1670,9 @@ public class App implements RequestHandler<APIGatewayProxyRequestEvent, APIGatew
             }
 
             IMPORTANT: Return ONLY the JSON object, no explanations.
-            """.formatted(difficulty);
+            """;
+
+        return SystemPrompt.of(staticPart, "Difficulty level: " + difficulty);
     }
 
     private String buildFeedbackUserPrompt(String originalText, String userText) {
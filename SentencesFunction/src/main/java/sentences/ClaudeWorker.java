@@ -2,22 +2,46 @@ package sentences;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speaktracker.common.tts.MetricsLogger;
 import sentences.model.AsyncChatMessage;
 import sentences.model.ConversationMessage;
+import sentences.model.SystemPrompt;
+import sentences.service.ChatStreamPublisher;
 import sentences.service.ClaudeApiKeyProvider;
+import sentences.service.ClaudeApiException;
 import sentences.service.ClaudeApiService;
+import sentences.service.ClaudeHttpClient;
 import sentences.service.ConversationRepository;
+import sentences.service.ConversationSummarizer;
 import sentences.service.JobStatusService;
+import sentences.util.AimdConcurrencyLimiter;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.time.Instant;
 
-public class ClaudeWorker implements RequestHandler<SQSEvent, Void> {
+public class ClaudeWorker implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    // 컨테이너 단위로 공유 (웜 호출 간 학습된 한도 유지)
+    private static final AimdConcurrencyLimiter CLAUDE_LIMITER = new AimdConcurrencyLimiter(
+        parseIntEnv("CLAUDE_WORKER_INITIAL_CONCURRENCY", 4),
+        1,
+        parseIntEnv("CLAUDE_WORKER_MAX_CONCURRENCY", 10),
+        0.5);
+
+    private static final long RESPONSE_RESERVE_MS = 5_000;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ClaudeApiKeyProvider claudeApiKeyProvider;
@@ -25,6 +49,7 @@ public class ClaudeWorker implements RequestHandler<SQSEvent, Void> {
     private final ConversationRepository conversationRepository;
     private final JobStatusService jobStatusService;
     private final long seedConversationTtlSeconds;
+    private final ChatStreamPublisher chatStreamPublisher;
 
     // Lazy-init
     private volatile ClaudeApiService claudeApiService;
@@ -45,6 +70,18 @@ public class ClaudeWorker implements RequestHandler<SQSEvent, Void> {
             .build();
 
         this.jobStatusService = new JobStatusService(dynamoDbClient, jobStatusTable);
+
+        // 스트리밍 모드용 WebSocket 전송 (엔드포인트 미설정 시 비활성화 → 폴링만 사용)
+        String websocketEndpoint = System.getenv("WEBSOCKET_API_ENDPOINT");
+        String connectionsTable = System.getenv("CONNECTIONS_TABLE");
+        this.chatStreamPublisher = (websocketEndpoint == null || websocketEndpoint.isBlank()
+            || connectionsTable == null || connectionsTable.isBlank())
+            ? null
+            : new ChatStreamPublisher(dynamoDbClient, websocketEndpoint, connectionsTable);
+
+        // 재시도로 흡수된 429/529도 동시성 한도에 반영
+        ClaudeHttpClient.setThrottleListener(CLAUDE_LIMITER::onThrottle);
+        warmUpClaude();
     }
 
     private ClaudeApiService getClaudeApiService() {
@@ -61,76 +98,286 @@ public class ClaudeWorker implements RequestHandler<SQSEvent, Void> {
         }
     }
 
+    /**
+     * 초기화 단계에서 API 키 조회 + Claude 커넥션 사전 연결 (첫 요청의 DNS/TCP/TLS 제거)
+     */
+    private void warmUpClaude() {
+        if (claudeApiKeySecretId == null || claudeApiKeySecretId.isBlank()) {
+            return;
+        }
+        try {
+            getClaudeApiService().warmUp();
+        } catch (Exception e) {
+            System.err.println("Claude warm-up skipped: " + e.getMessage());
+        }
+    }
+
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        // 배치 전체의 Claude 호출(재시도/fallback 포함)이 Lambda 타임아웃 전에 끝나도록 (저장/상태 갱신 여유 남김)
+        ClaudeApiService.setDeadline(context.getRemainingTimeInMillis() - RESPONSE_RESERVE_MS);
+
+        // 같은 대화(FIFO 메시지 그룹)는 순서대로, 서로 다른 대화는 가상 스레드로 병렬 처리
+        Map<String, List<SQSEvent.SQSMessage>> groups = new LinkedHashMap<>();
         for (SQSEvent.SQSMessage message : event.getRecords()) {
-            try {
-                context.getLogger().log("Processing chat request from SQS: " + message.getMessageId());
+            groups.computeIfAbsent(resolveGroupKey(message), k -> new ArrayList<>()).add(message);
+        }
 
-                // SQS 메시지 파싱
-                AsyncChatMessage asyncMessage = objectMapper.readValue(
-                    message.getBody(), AsyncChatMessage.class);
+        List<SQSBatchResponse.BatchItemFailure> failures = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<SQSEvent.SQSMessage> group : groups.values()) {
+                executor.submit(() -> {
+                    for (int i = 0; i < group.size(); i++) {
+                        SQSEvent.SQSMessage message = group.get(i);
+                        try {
+                            processRecord(message, context);
+                        } catch (Exception e) {
+                            // 실패한 레코드와 같은 그룹의 나머지는 순서 보장을 위해 함께 재시도
+                            for (int j = i; j < group.size(); j++) {
+                                failures.add(new SQSBatchResponse.BatchItemFailure(group.get(j).getMessageId()));
+                            }
+                            break;
+                        }
+                    }
+                });
+            }
+        }
+
+        MetricsLogger.SENTENCES.putMetric("ClaudeWorker", "ConcurrencyLimit", CLAUDE_LIMITER.getLimit(), "Count");
+        if (!failures.isEmpty()) {
+            context.getLogger().log("Chat batch partial failure: " + failures.size() + "/" + event.getRecords().size());
+        }
+        return new SQSBatchResponse(new ArrayList<>(failures));
+    }
+
+    private String resolveGroupKey(SQSEvent.SQSMessage message) {
+        Map<String, String> attributes = message.getAttributes();
+        if (attributes != null && attributes.get("MessageGroupId") != null) {
+            return attributes.get("MessageGroupId");
+        }
+        try {
+            String conversationId = objectMapper.readValue(message.getBody(), AsyncChatMessage.class).getConversationId();
+            if (conversationId != null) {
+                return conversationId;
+            }
+        } catch (Exception ignore) {
+            // 파싱 실패 메시지는 단독 그룹 → processRecord에서 실패 처리
+        }
+        return message.getMessageId();
+    }
 
-                String requestId = asyncMessage.getRequestId();
-                String conversationId = asyncMessage.getConversationId();
-                String studentEmail = asyncMessage.getStudentEmail();
-                String systemPrompt = asyncMessage.getSystemPrompt();
-                List<ConversationMessage> messages = asyncMessage.getMessages();
+    private void processRecord(SQSEvent.SQSMessage message, Context context) {
+        ChatStreamPublisher.Stream stream = null;
+        try {
+            context.getLogger().log("Processing chat request from SQS: " + message.getMessageId());
+
+            // SQS 메시지 파싱
+            AsyncChatMessage asyncMessage = objectMapper.readValue(
+                message.getBody(), AsyncChatMessage.class);
+
+            String requestId = asyncMessage.getRequestId();
+            String conversationId = asyncMessage.getConversationId();
+            String studentEmail = asyncMessage.getStudentEmail();
+            SystemPrompt systemPrompt = asyncMessage.getSystemPromptBlocks() != null
+                ? asyncMessage.getSystemPromptBlocks()
+                : SystemPrompt.of(asyncMessage.getSystemPrompt());
+            List<ConversationMessage> messages = asyncMessage.getMessages();
 
-                context.getLogger().log(String.format(
-                    "Request ID: %s, Conversation ID: %s, Message count: %d",
-                    requestId, conversationId, messages.size()));
+            context.getLogger().log(String.format(
+                "Request ID: %s, Conversation ID: %s, Message count: %d",
+                requestId, conversationId, messages.size()));
 
+            // 스트리밍 요청이고 학생의 WebSocket 연결이 있으면 토큰 단위로 전송
+            if (asyncMessage.isStream() && chatStreamPublisher != null) {
+                stream = chatStreamPublisher.open(studentEmail, requestId, conversationId);
+                if (stream == null) {
+                    context.getLogger().log("No active WebSocket connection - falling back to polling: " + requestId);
+                }
+            }
+
+            String conversationTimestamp = asyncMessage.getConversationTimestamp();
+            if (conversationTimestamp == null || conversationTimestamp.isBlank()) {
+                // 이전 버전 App이 보낸 메시지 (정렬키 없음) - 조회 후 append
+                ConversationRepository.ConversationData conversation =
+                    conversationRepository.getConversation(conversationId, 0);
+                if (conversation == null) {
+                    throw new Exception("Conversation not found: " + conversationId);
+                }
+                conversationTimestamp = conversation.getTimestamp();
+            }
+
+            // 재전송이면 이전 시도가 append까지 끝냈는지 먼저 확인 (Claude 재호출/중복 append 방지)
+            ConversationRepository.AppliedRequest applied = isRedelivery(message)
+                ? conversationRepository.findAppliedRequest(studentEmail, conversationTimestamp, requestId)
+                : null;
+
+            String aiResponse;
+            int turnCount;
+            if (applied != null) {
+                context.getLogger().log("Request already applied to conversation - completing: " + requestId);
+                aiResponse = applied.getResponse();
+                turnCount = applied.getTurnCount();
+            } else {
                 // Claude API 호출
                 context.getLogger().log("Calling Claude API...");
-                String aiResponse = getClaudeApiService().callClaudeApiWithHistory(
-                    systemPrompt, messages);
+                ChatStreamPublisher.Stream openedStream = stream;
+                aiResponse = withConcurrencyLimit(() -> openedStream != null
+                    ? streamChatResponse(systemPrompt, messages, openedStream, asyncMessage.getRequestedAtEpochMs())
+                    : getClaudeApiService().callClaudeApiWithHistory(systemPrompt, messages));
 
                 context.getLogger().log("AI response generated");
 
-                // 기존 대화 조회 및 업데이트
-                ConversationRepository.ConversationData conversation =
-                    conversationRepository.getConversation(conversationId);
+                // assistant 응답을 대화에 append (전체 히스토리 재저장 없음, requestId당 한 번)
+                List<ConversationMessage> newMessages = List.of(new ConversationMessage("assistant", aiResponse));
+                List<ConversationMessage> ttlBasis = new ArrayList<>(messages);
+                ttlBasis.addAll(newMessages);
+                long ttlEpochSeconds = computeTtlEpochSeconds(ttlBasis);
+
+                try {
+                    turnCount = conversationRepository.appendMessages(
+                        studentEmail, conversationTimestamp, newMessages, ttlEpochSeconds, requestId);
+                } catch (ConditionalCheckFailedException alreadyApplied) {
+                    // 다른 시도가 먼저 반영함 → 저장된 응답으로 완료 (대화가 없어진 경우만 실패)
+                    applied = conversationRepository.findAppliedRequest(studentEmail, conversationTimestamp, requestId);
+                    if (applied == null) {
+                        throw alreadyApplied;
+                    }
+                    aiResponse = applied.getResponse();
+                    turnCount = applied.getTurnCount();
+                }
+            }
 
-                if (conversation != null) {
-                    List<ConversationMessage> updatedMessages = new ArrayList<>(conversation.getMessages());
-                    updatedMessages.add(new ConversationMessage("assistant", aiResponse));
+            // 작업 상태 업데이트 (COMPLETED)
+            jobStatusService.updateJobCompleted(requestId, conversationId, aiResponse, turnCount);
 
-                    long ttlEpochSeconds = computeTtlEpochSeconds(updatedMessages);
-                    conversationRepository.saveConversation(
-                        studentEmail, conversationId,
-                        conversation.getTopic(), conversation.getDifficulty(),
-                        conversation.getSituation(), conversation.getRole(),
-                        updatedMessages, conversation.getTimestamp(), ttlEpochSeconds);
+            if (stream != null) {
+                stream.complete(aiResponse, turnCount);
+            }
 
-                    // 작업 상태 업데이트 (COMPLETED)
-                    jobStatusService.updateJobCompleted(
-                        requestId, conversationId, aiResponse, updatedMessages.size());
+            context.getLogger().log("Chat request completed successfully: " + requestId);
 
-                    context.getLogger().log("Chat request completed successfully: " + requestId);
-                } else {
-                    throw new Exception("Conversation not found: " + conversationId);
-                }
+            // 응답 전달 후 오래된 메시지를 누적 요약에 반영 (실패해도 다음 턴에 재시도)
+            compactConversation(asyncMessage, conversationTimestamp, turnCount, context);
 
-            } catch (Exception e) {
-                context.getLogger().log("Error processing chat request: " + e.getMessage());
-                e.printStackTrace();
+        } catch (Exception e) {
+            context.getLogger().log("Error processing chat request: " + e.getMessage());
+            e.printStackTrace();
 
-                // 실패 상태 업데이트
-                try {
-                    AsyncChatMessage asyncMessage = objectMapper.readValue(
-                        message.getBody(), AsyncChatMessage.class);
-                    jobStatusService.updateJobFailed(asyncMessage.getRequestId(), e.getMessage());
-                } catch (Exception updateError) {
-                    context.getLogger().log("Failed to update job status: " + updateError.getMessage());
+            if (stream != null) {
+                stream.fail(e.getMessage());
+            }
+
+            // 실패 상태 업데이트
+            try {
+                AsyncChatMessage asyncMessage = objectMapper.readValue(
+                    message.getBody(), AsyncChatMessage.class);
+                jobStatusService.updateJobFailed(asyncMessage.getRequestId(), e.getMessage());
+            } catch (Exception updateError) {
+                context.getLogger().log("Failed to update job status: " + updateError.getMessage());
+            }
+
+            // 실패 레코드만 재시도되도록 예외 전파 (maxReceiveCount 초과 시 DLQ)
+            throw new RuntimeException("Chat request processing failed", e);
+        }
+    }
+
+    private static boolean isRedelivery(SQSEvent.SQSMessage message) {
+        Map<String, String> attributes = message.getAttributes();
+        String receiveCount = attributes == null ? null : attributes.get("ApproximateReceiveCount");
+        return receiveCount != null && !"1".equals(receiveCount);
+    }
+
+    /**
+     * Claude 호출을 AIMD 동시성 한도 안에서 실행 (429/529면 한도 축소)
+     */
+    private <T> T withConcurrencyLimit(ClaudeCall<T> call) throws IOException {
+        try {
+            CLAUDE_LIMITER.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Claude concurrency slot", e);
+        }
+        boolean throttled = false;
+        try {
+            return call.call();
+        } catch (ClaudeApiException e) {
+            throttled = e.isThrottled();
+            if (throttled) {
+                MetricsLogger.SENTENCES.putCount("ClaudeWorker", "ClaudeThrottled");
+            }
+            throw e;
+        } finally {
+            CLAUDE_LIMITER.release(throttled);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClaudeCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * 스트리밍 호출 + 첫 토큰까지의 지연(TTFT) 메트릭 기록
+     */
+    private String streamChatResponse(SystemPrompt systemPrompt, List<ConversationMessage> messages,
+                                      ChatStreamPublisher.Stream stream, long requestedAtEpochMs) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        boolean[] firstTokenSeen = {false};
+
+        String aiResponse = getClaudeApiService().streamClaudeApiWithHistory(systemPrompt, messages, delta -> {
+            if (!firstTokenSeen[0]) {
+                firstTokenSeen[0] = true;
+                long now = System.currentTimeMillis();
+                MetricsLogger.SENTENCES.putMetric("ClaudeWorker", "TimeToFirstTokenMs",
+                    now - startedAt, "Milliseconds");
+                if (requestedAtEpochMs > 0) {
+                    // API 요청 수락 시점부터 (SQS 대기 포함) 사용자 체감 지연
+                    MetricsLogger.SENTENCES.putMetric("ClaudeWorker", "RequestToFirstTokenMs",
+                        now - requestedAtEpochMs, "Milliseconds");
                 }
+            }
+            stream.onDelta(delta);
+        });
+
+        MetricsLogger.SENTENCES.putMetric("ClaudeWorker", "StreamTotalMs",
+            System.currentTimeMillis() - startedAt, "Milliseconds");
+        return aiResponse;
+    }
 
-                // SQS DLQ로 전달되도록 예외 재발생
-                throw new RuntimeException("Chat request processing failed", e);
+    private void compactConversation(AsyncChatMessage asyncMessage, String conversationTimestamp,
+                                     int turnCount, Context context) {
+        int previousCount = asyncMessage.getSummarizedCount();
+        int foldTo = ConversationSummarizer.foldUntil(turnCount, previousCount);
+        if (foldTo < 0) {
+            return;
+        }
+        try {
+            String studentEmail = asyncMessage.getStudentEmail();
+            List<ConversationMessage> folded = conversationRepository.getMessageRange(
+                studentEmail, conversationTimestamp, previousCount, foldTo);
+            if (folded.isEmpty()) {
+                return;
             }
+            String summary = withConcurrencyLimit(() -> ConversationSummarizer.summarize(
+                getClaudeApiService(), asyncMessage.getSummary(), folded));
+            boolean updated = conversationRepository.updateSummary(
+                studentEmail, conversationTimestamp, summary, foldTo, previousCount);
+            context.getLogger().log("Conversation summary " + (updated ? "updated" : "skipped (stale)")
+                + ": " + asyncMessage.getConversationId() + ", summarizedCount=" + foldTo);
+        } catch (Exception e) {
+            context.getLogger().log("Failed to update conversation summary: " + e.getMessage());
         }
+    }
 
-        return null;
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
     }
 
     private long parseLongEnv(String key, long defaultValue) {
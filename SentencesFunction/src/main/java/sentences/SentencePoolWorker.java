@@ -0,0 +1,240 @@
+package sentences;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.speaktracker.common.tts.MetricsLogger;
+import com.speaktracker.common.tts.TtsKeys;
+import sentences.model.Sentence;
+import sentences.model.TTSJobMessagePayload;
+import sentences.service.ClaudeApiKeyProvider;
+import sentences.service.ClaudeApiService;
+import sentences.service.SentenceAudioService;
+import sentences.service.SentenceGenerator;
+import sentences.service.SentencePoolService;
+import sentences.service.TopicScenariosProvider;
+import sentences.service.TtsSqsService;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 문장 풀 보충 (EventBridge 스케줄)
+ * - 풀이 low-water mark 아래로 내려가면 Claude로 생성해 target까지 채운다. (남은 양이 적은 풀부터)
+ * - low-water/target은 지난 실행 이후 수요(요청 문장 수)로 키운다: 수요 × SENTENCE_POOL_DEMAND_HEADROOM_RUNS 만큼은 남겨 둠
+ * - 생성 횟수는 부족분에 맞추되 상한(SENTENCE_POOL_MAX_GENERATIONS_PER_RUN)과 남은 실행 시간으로 제한
+ * - 새 문장은 warm 세션으로 TTS를 미리 큐잉하고, 합성이 끝난 문장은 다음 실행에서 s3Key/duration을 풀 아이템에 반영
+ */
+public class SentencePoolWorker implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final String VOICE_ID = "Joanna";
+    private static final long GENERATION_TIME_RESERVE_MS = 60_000;
+    // 생성 결과 적재 여유 (Claude 호출 마감 = 남은 시간 - 이 값)
+    private static final long DEADLINE_RESERVE_MS = 5_000;
+
+    private final ClaudeApiKeyProvider claudeApiKeyProvider;
+    private final String claudeApiKeySecretId;
+    private final SentencePoolService sentencePoolService;
+    private final SentenceAudioService sentenceAudioService;
+    private final TtsSqsService ttsSqsService;
+    private final int lowWaterMark;
+    private final int targetSize;
+    private final int maxGenerationsPerRun;
+    private final int demandHeadroomRuns;
+
+    private ClaudeApiService claudeApiService;
+
+    public SentencePoolWorker() {
+        this.claudeApiKeyProvider = new ClaudeApiKeyProvider();
+        this.claudeApiKeySecretId = System.getenv("CLAUDE_API_KEY_SECRET_ID");
+
+        DynamoDbClient dynamoDbClient = DynamoDbClient.builder()
+            .region(Region.AP_NORTHEAST_2)
+            .build();
+
+        this.sentencePoolService = new SentencePoolService(dynamoDbClient, System.getenv("SENTENCE_POOL_TABLE"));
+
+        String sentenceAudioTable = System.getenv("SENTENCE_AUDIO_TABLE");
+        String ttsQueueUrl = System.getenv("TTS_QUEUE_URL");
+        this.sentenceAudioService = (sentenceAudioTable == null || sentenceAudioTable.isBlank())
+            ? null
+            : new SentenceAudioService(dynamoDbClient, sentenceAudioTable);
+        this.ttsSqsService = (ttsQueueUrl == null || ttsQueueUrl.isBlank())
+            ? null
+            : new TtsSqsService(SqsClient.builder().region(Region.AP_NORTHEAST_2).build(), ttsQueueUrl);
+
+        this.lowWaterMark = parseIntEnv("SENTENCE_POOL_LOW_WATER", 20);
+        this.targetSize = Math.max(lowWaterMark, parseIntEnv("SENTENCE_POOL_TARGET", 40));
+        this.maxGenerationsPerRun = parseIntEnv("SENTENCE_POOL_MAX_GENERATIONS_PER_RUN", 30);
+        this.demandHeadroomRuns = parseIntEnv("SENTENCE_POOL_DEMAND_HEADROOM_RUNS", 2);
+    }
+
+    private ClaudeApiService getClaudeApiService() {
+        if (claudeApiService == null) {
+            String apiKey = claudeApiKeyProvider.getApiKey(claudeApiKeySecretId);
+            claudeApiService = new ClaudeApiService(apiKey);
+        }
+        return claudeApiService;
+    }
+
+    @Override
+    public Void handleRequest(ScheduledEvent event, Context context) {
+        ClaudeApiService.setDeadline(context.getRemainingTimeInMillis() - DEADLINE_RESERVE_MS);
+        List<PoolState> pools = new ArrayList<>();
+
+        for (String topic : TopicScenariosProvider.getTopics()) {
+            for (String difficulty : SentencePoolService.DIFFICULTIES) {
+                String poolKey = SentencePoolService.poolKey(topic, difficulty);
+                try {
+                    promoteReadyAudio(poolKey, context);
+                    int available = sentencePoolService.countAvailable(poolKey);
+                    int demand = sentencePoolService.drainDemand(poolKey);
+                    MetricsLogger.SENTENCES.putMetrics("SentencePoolWorker",
+                        Map.of("PoolSize", available, "PoolDemand", demand), "Count");
+
+                    int expected = demand * demandHeadroomRuns;
+                    int low = Math.max(lowWaterMark, expected);
+                    pools.add(new PoolState(topic, difficulty, poolKey, available, low,
+                        Math.max(targetSize, expected * 2)));
+                } catch (Exception e) {
+                    context.getLogger().log("Failed to inspect pool " + poolKey + ": " + e.getMessage());
+                }
+            }
+        }
+
+        // 남은 양이 적은 풀부터 보충 (실행당 Claude 호출 수 + 남은 시간 제한)
+        pools.sort(Comparator.comparingInt(p -> p.available - p.lowWaterMark));
+        int generations = 0;
+        for (PoolState pool : pools) {
+            if (pool.available >= pool.lowWaterMark) {
+                continue;
+            }
+            while (pool.available < pool.targetSize && generations < maxGenerationsPerRun
+                && context.getRemainingTimeInMillis() > GENERATION_TIME_RESERVE_MS) {
+                generations++;
+                try {
+                    List<Sentence> sentences = SentenceGenerator.generate(
+                        getClaudeApiService(), pool.topic, pool.difficulty);
+                    List<SentencePoolService.PoolSentence> added =
+                        sentencePoolService.addSentences(pool.poolKey, sentences, VOICE_ID);
+                    pool.available += added.size();
+                    warmAudio(added, context);
+
+                    context.getLogger().log("Refilled pool " + pool.poolKey + ": +" + added.size()
+                        + " (now " + pool.available + ")");
+                    if (added.isEmpty()) {
+                        break;
+                    }
+                } catch (Exception e) {
+                    context.getLogger().log("Failed to refill pool " + pool.poolKey + ": " + e.getMessage());
+                    break;
+                }
+            }
+        }
+
+        // 이번 실행에서 못 채운 양 (계속 0보다 크면 상한/스케줄 조정 필요)
+        int shortfall = 0;
+        for (PoolState pool : pools) {
+            if (pool.available < pool.lowWaterMark) {
+                shortfall += pool.targetSize - pool.available;
+            }
+        }
+        MetricsLogger.SENTENCES.putMetrics("SentencePoolWorker",
+            Map.of("Generations", generations, "PoolShortfall", shortfall), "Count");
+        return null;
+    }
+
+    /**
+     * TTS 사전 합성 큐잉 (세션 없는 warm 레코드로 추적)
+     */
+    private void warmAudio(List<SentencePoolService.PoolSentence> sentences, Context context) {
+        if (sentenceAudioService == null || ttsSqsService == null || sentences.isEmpty()) {
+            return;
+        }
+        long ttl = Instant.now().plusSeconds(30L * 24 * 60 * 60).getEpochSecond();
+        List<TTSJobMessagePayload> payloads = new ArrayList<>();
+
+        for (SentencePoolService.PoolSentence s : sentences) {
+            String jobId = UUID.randomUUID().toString();
+            String s3Key = TtsKeys.s3Key(s.getText(), VOICE_ID);
+
+            sentenceAudioService.putPending(s.getWarmSessionId(), 0, s.getText(), s.getTranslation(),
+                VOICE_ID, jobId, ttl);
+
+            TTSJobMessagePayload p = new TTSJobMessagePayload();
+            p.setJobId(jobId);
+            p.setText(s.getText());
+            p.setVoiceId(VOICE_ID);
+            p.setS3Key(s3Key);
+            p.setSessionId(s.getWarmSessionId());
+            p.setSentenceIndex(0);
+            p.setTrackDuration(true);
+            payloads.add(p);
+        }
+
+        try {
+            ttsSqsService.sendTtsJobsBatch(payloads);
+        } catch (Exception e) {
+            context.getLogger().log("Failed to enqueue pool TTS warm-up: " + e.getMessage());
+        }
+    }
+
+    /**
+     * warm 레코드가 COMPLETED면 s3Key/duration을 풀 아이템에 반영
+     */
+    private void promoteReadyAudio(String poolKey, Context context) {
+        if (sentenceAudioService == null) {
+            return;
+        }
+        for (SentencePoolService.PoolSentence s : sentencePoolService.findAudioPending(poolKey)) {
+            if (s.getWarmSessionId() == null) {
+                continue;
+            }
+            Map<String, AttributeValue> warm = sentenceAudioService.getItem(s.getWarmSessionId(), 0);
+            if (warm == null || !warm.containsKey("status") || !"COMPLETED".equals(warm.get("status").s())
+                || !warm.containsKey("s3Key")) {
+                continue;
+            }
+            Long durationMs = warm.containsKey("durationMs") ? Long.parseLong(warm.get("durationMs").n()) : null;
+            sentencePoolService.markAudioReady(poolKey, s.getSentenceId(), warm.get("s3Key").s(), durationMs);
+        }
+    }
+
+    private int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
+    private static final class PoolState {
+        private final String topic;
+        private final String difficulty;
+        private final String poolKey;
+        private final int lowWaterMark;
+        private final int targetSize;
+        private int available;
+
+        private PoolState(String topic, String difficulty, String poolKey, int available,
+                          int lowWaterMark, int targetSize) {
+            this.topic = topic;
+            this.difficulty = difficulty;
+            this.poolKey = poolKey;
+            this.available = available;
+            this.lowWaterMark = lowWaterMark;
+            this.targetSize = targetSize;
+        }
+    }
+}
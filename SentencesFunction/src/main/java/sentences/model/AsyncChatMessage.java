@@ -7,8 +7,21 @@ public class AsyncChatMessage {
     private String conversationId;
     private String studentEmail;
     private String systemPrompt;
+    // 정적/동적 분리된 system (설정 시 systemPrompt 대신 사용)
+    private SystemPrompt systemPromptBlocks;
     private List<ConversationMessage> messages;
 
+    // 스트리밍 모드 (WebSocket으로 토큰 단위 전송)
+    private boolean stream;
+    private long requestedAtEpochMs;
+
+    // 대화 아이템 정렬키 - Worker가 재조회 없이 바로 append 하기 위함
+    private String conversationTimestamp;
+
+    // 누적 요약 (Worker가 증분 갱신할 때 기준값)
+    private String summary;
+    private int summarizedCount;
+
     public AsyncChatMessage() {}
 
     public AsyncChatMessage(String requestId, String conversationId, String studentEmail,
@@ -52,6 +65,14 @@ public class AsyncChatMessage {
         this.systemPrompt = systemPrompt;
     }
 
+    public SystemPrompt getSystemPromptBlocks() {
+        return systemPromptBlocks;
+    }
+
+    public void setSystemPromptBlocks(SystemPrompt systemPromptBlocks) {
+        this.systemPromptBlocks = systemPromptBlocks;
+    }
+
     public List<ConversationMessage> getMessages() {
         return messages;
     }
@@ -59,4 +80,44 @@ public class AsyncChatMessage {
     public void setMessages(List<ConversationMessage> messages) {
         this.messages = messages;
     }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    public long getRequestedAtEpochMs() {
+        return requestedAtEpochMs;
+    }
+
+    public void setRequestedAtEpochMs(long requestedAtEpochMs) {
+        this.requestedAtEpochMs = requestedAtEpochMs;
+    }
+
+    public String getConversationTimestamp() {
+        return conversationTimestamp;
+    }
+
+    public void setConversationTimestamp(String conversationTimestamp) {
+        this.conversationTimestamp = conversationTimestamp;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public int getSummarizedCount() {
+        return summarizedCount;
+    }
+
+    public void setSummarizedCount(int summarizedCount) {
+        this.summarizedCount = summarizedCount;
+    }
 }
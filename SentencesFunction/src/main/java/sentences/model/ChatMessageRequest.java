@@ -3,6 +3,7 @@ package sentences.model;
 public class ChatMessageRequest {
     private String conversationId;
     private String userMessage;
+    private Boolean stream;  // true면 AI 응답을 WebSocket으로 스트리밍
 
     public ChatMessageRequest() {}
 
@@ -22,6 +23,18 @@ public class ChatMessageRequest {
         this.userMessage = userMessage;
     }
 
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
+    public boolean isStreamRequested() {
+        return Boolean.TRUE.equals(stream);
+    }
+
     public void validate() {
         if (conversationId == null || conversationId.trim().isEmpty()) {
             throw new IllegalArgumentException("conversationId is required");
@@ -0,0 +1,87 @@
+package sentences.model;
+
+/**
+ * 학습자 발화 특징 카운터 (대화 아이템에 lf_* 숫자 속성으로 저장)
+ * - 모두 합산 가능한 카운터라 메시지 append 시 ADD로 누적하고, 평가 시 대화 여러 개를 merge 한다.
+ * - 비율(type/token, 희귀어 비율 등)은 저장하지 않고 카운터에서 계산한다.
+ */
+public class LearnerFeatures {
+    private long messages;       // user 발화 수
+    private long words;          // 영어 단어(토큰) 수
+    private long distinctWords;  // 발화별 서로 다른 단어 수의 합 (segmental type/token)
+    private long sentences;      // 문장 수
+    private long rareWords;      // 기본 어휘 목록에 없는 단어 수
+    private long errorSignals;   // 한글 섞임/자주 틀리는 패턴 등 오류 신호 수
+
+    public LearnerFeatures() {}
+
+    public LearnerFeatures(long messages, long words, long distinctWords, long sentences,
+                           long rareWords, long errorSignals) {
+        this.messages = messages;
+        this.words = words;
+        this.distinctWords = distinctWords;
+        this.sentences = sentences;
+        this.rareWords = rareWords;
+        this.errorSignals = errorSignals;
+    }
+
+    public void merge(LearnerFeatures other) {
+        if (other == null) {
+            return;
+        }
+        this.messages += other.messages;
+        this.words += other.words;
+        this.distinctWords += other.distinctWords;
+        this.sentences += other.sentences;
+        this.rareWords += other.rareWords;
+        this.errorSignals += other.errorSignals;
+    }
+
+    public boolean isEmpty() {
+        return messages == 0;
+    }
+
+    public double getWordsPerMessage() {
+        return messages == 0 ? 0 : (double) words / messages;
+    }
+
+    public double getWordsPerSentence() {
+        return sentences == 0 ? 0 : (double) words / sentences;
+    }
+
+    public double getTypeTokenRatio() {
+        return words == 0 ? 0 : (double) distinctWords / words;
+    }
+
+    public double getRareWordRatio() {
+        return words == 0 ? 0 : (double) rareWords / words;
+    }
+
+    public double getErrorsPerMessage() {
+        return messages == 0 ? 0 : (double) errorSignals / messages;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getDistinctWords() {
+        return distinctWords;
+    }
+
+    public long getSentences() {
+        return sentences;
+    }
+
+    public long getRareWords() {
+        return rareWords;
+    }
+
+    public long getErrorSignals() {
+        return errorSignals;
+    }
+}
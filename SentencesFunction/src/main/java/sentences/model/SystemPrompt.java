@@ -0,0 +1,57 @@
+package sentences.model;
+
+/**
+ * Claude system 프롬프트 (정적 prefix + 요청별 suffix)
+ * - staticPart: 요청 간 동일한 지시문 블록 (앞에 두어 요청 간 prefix를 맞춤)
+ * - system만으로는 최소 캐시 길이(1024 토큰, Haiku 2048)에 못 미쳐 여기에 cache_control을 두지 않는다.
+ *   대화 호출은 마지막 메시지에 브레이크포인트를 둬 system + 히스토리 전체를 캐시한다.
+ * - dynamicPart: 대화 상황/히스토리 등 요청마다 달라지는 부분 (없으면 null)
+ */
+public class SystemPrompt {
+    private String staticPart;
+    private String dynamicPart;
+
+    public SystemPrompt() {}
+
+    public SystemPrompt(String staticPart, String dynamicPart) {
+        this.staticPart = staticPart;
+        this.dynamicPart = dynamicPart;
+    }
+
+    public static SystemPrompt of(String staticPart) {
+        return new SystemPrompt(staticPart, null);
+    }
+
+    public static SystemPrompt of(String staticPart, String dynamicPart) {
+        return new SystemPrompt(staticPart, dynamicPart);
+    }
+
+    public String getStaticPart() {
+        return staticPart;
+    }
+
+    public void setStaticPart(String staticPart) {
+        this.staticPart = staticPart;
+    }
+
+    public String getDynamicPart() {
+        return dynamicPart;
+    }
+
+    public void setDynamicPart(String dynamicPart) {
+        this.dynamicPart = dynamicPart;
+    }
+
+    /**
+     * 블록 구분 없이 이어 붙인 전체 텍스트 (응답 캐시 키/로그용)
+     */
+    public String toPlainText() {
+        if (dynamicPart == null || dynamicPart.isBlank()) {
+            return staticPart == null ? "" : staticPart;
+        }
+        if (staticPart == null || staticPart.isBlank()) {
+            return dynamicPart;
+        }
+        return staticPart + "\n\n" + dynamicPart;
+    }
+}
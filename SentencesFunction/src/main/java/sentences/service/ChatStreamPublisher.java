@@ -0,0 +1,178 @@
+package sentences.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.apigatewaymanagementapi.ApiGatewayManagementApiClient;
+import software.amazon.awssdk.services.apigatewaymanagementapi.model.GoneException;
+import software.amazon.awssdk.services.apigatewaymanagementapi.model.PostToConnectionRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI 대화 응답을 학생의 WebSocket 연결로 스트리밍 전송.
+ * - 연결 조회는 TutorRegister/Tutor 헬퍼와 동일하게 CONNECTIONS_TABLE의 user_email-index 최신 연결을 사용
+ * - 토큰 단위로 postToConnection을 호출하면 호출 수가 폭증하므로 일정 길이/시간 단위로 묶어서 전송
+ */
+public class ChatStreamPublisher {
+
+    public static final String TYPE_DELTA = "AI_CHAT_DELTA";
+    public static final String TYPE_COMPLETED = "AI_CHAT_COMPLETED";
+    public static final String TYPE_FAILED = "AI_CHAT_FAILED";
+
+    private static final int FLUSH_MIN_CHARS = 24;
+    private static final long FLUSH_INTERVAL_MS = 80;
+
+    private final ApiGatewayManagementApiClient apiGatewayClient;
+    private final DynamoDbClient dynamoDbClient;
+    private final String connectionsTable;
+    private final ObjectMapper objectMapper;
+
+    public ChatStreamPublisher(DynamoDbClient dynamoDbClient, String websocketEndpoint, String connectionsTable) {
+        this.apiGatewayClient = ApiGatewayManagementApiClient.builder()
+            .endpointOverride(URI.create(websocketEndpoint))
+            .region(Region.AP_NORTHEAST_2)
+            .build();
+        this.dynamoDbClient = dynamoDbClient;
+        this.connectionsTable = connectionsTable;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * 학생의 최신 WebSocket 연결로 스트림 세션 오픈. 연결이 없으면 null (클라이언트는 상태 폴링으로 폴백)
+     */
+    public Stream open(String studentEmail, String requestId, String conversationId) {
+        String connectionId = findLatestConnectionId(studentEmail);
+        if (connectionId == null) {
+            return null;
+        }
+        return new Stream(connectionId, requestId, conversationId);
+    }
+
+    private String findLatestConnectionId(String userEmail) {
+        try {
+            QueryResponse response = dynamoDbClient.query(QueryRequest.builder()
+                .tableName(connectionsTable)
+                .indexName("user_email-index")
+                .keyConditionExpression("user_email = :email")
+                .expressionAttributeValues(Map.of(
+                    ":email", AttributeValue.builder().s(userEmail).build()
+                ))
+                .build());
+
+            if (response.items().isEmpty()) {
+                return null;
+            }
+
+            // connected_at 기준으로 최신 연결만 선택
+            return response.items().stream()
+                .filter(item -> item.containsKey("connected_at"))
+                .max((a, b) -> a.get("connected_at").s().compareTo(b.get("connected_at").s()))
+                .map(item -> item.get("connection_id").s())
+                .orElse(response.items().get(0).get("connection_id").s());
+        } catch (Exception e) {
+            System.err.println("Failed to get active connection for user: " + userEmail + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 요청 하나에 대한 스트림. 단일 스레드(Worker)에서만 사용한다.
+     */
+    public class Stream {
+        private final String connectionId;
+        private final String requestId;
+        private final String conversationId;
+        private final StringBuilder pending = new StringBuilder();
+        private long lastFlushAt = 0;
+        private int seq = 0;
+        private boolean gone = false;
+
+        private Stream(String connectionId, String requestId, String conversationId) {
+            this.connectionId = connectionId;
+            this.requestId = requestId;
+            this.conversationId = conversationId;
+        }
+
+        /**
+         * 텍스트 조각 추가. 첫 조각은 즉시, 이후는 길이/시간 기준으로 묶어서 전송
+         */
+        public void onDelta(String text) {
+            if (gone || text == null || text.isEmpty()) {
+                return;
+            }
+            pending.append(text);
+            long now = System.currentTimeMillis();
+            if (seq == 0 || pending.length() >= FLUSH_MIN_CHARS || now - lastFlushAt >= FLUSH_INTERVAL_MS) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (gone || pending.length() == 0) {
+                return;
+            }
+            Map<String, Object> data = baseData();
+            data.put("seq", seq++);
+            data.put("delta", pending.toString());
+            pending.setLength(0);
+            lastFlushAt = System.currentTimeMillis();
+            send(TYPE_DELTA, data);
+        }
+
+        public void complete(String aiResponse, int turnCount) {
+            flush();
+            Map<String, Object> data = baseData();
+            data.put("aiResponse", aiResponse);
+            data.put("turnCount", turnCount);
+            send(TYPE_COMPLETED, data);
+        }
+
+        public void fail(String error) {
+            pending.setLength(0);
+            Map<String, Object> data = baseData();
+            data.put("error", error);
+            send(TYPE_FAILED, data);
+        }
+
+        public boolean isGone() {
+            return gone;
+        }
+
+        private Map<String, Object> baseData() {
+            Map<String, Object> data = new HashMap<>();
+            data.put("requestId", requestId);
+            data.put("conversationId", conversationId);
+            return data;
+        }
+
+        private void send(String type, Map<String, Object> data) {
+            if (gone) {
+                return;
+            }
+            try {
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", type);
+                message.put("data", data);
+                byte[] bytes = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+
+                apiGatewayClient.postToConnection(PostToConnectionRequest.builder()
+                    .connectionId(connectionId)
+                    .data(SdkBytes.fromByteArray(bytes))
+                    .build());
+            } catch (GoneException e) {
+                // 연결이 끊어진 경우 - 이후 전송 중단 (최종 결과는 상태 조회로 확인 가능)
+                gone = true;
+            } catch (Exception e) {
+                System.err.println("Failed to send chat stream to connection " + connectionId + ": " + e.getMessage());
+            }
+        }
+    }
+}
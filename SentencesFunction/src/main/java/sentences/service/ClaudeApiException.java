@@ -0,0 +1,27 @@
+package sentences.service;
+
+import java.io.IOException;
+
+/**
+ * Claude API 비정상 응답 (HTTP 상태 코드 포함)
+ * - 429(rate limit) / 529(overloaded)는 호출 측 동시성 조절 신호로 사용
+ */
+public class ClaudeApiException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public ClaudeApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 529;
+    }
+}
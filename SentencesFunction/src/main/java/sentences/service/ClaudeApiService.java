@@ -2,52 +2,132 @@ package sentences.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.speaktracker.common.tts.MetricsLogger;
 import okhttp3.*;
 import sentences.model.ConversationMessage;
+import sentences.model.SystemPrompt;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public class ClaudeApiService {
 
     private static final String CLAUDE_API_URL = "https://api.anthropic.com/v1/messages";
     private static final String DEFAULT_CLAUDE_MODEL = "claude-sonnet-4-5-20250929";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    // 짧은 채팅 응답(max_tokens 300)만 hedge 대상 - 긴 단건 생성은 원래 오래 걸리므로 제외
+    private static final long CHAT_HEDGE_DELAY_MS = parseLongEnv("CLAUDE_HEDGE_DELAY_MS", 6000);
 
-    private final OkHttpClient client;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String model;
+    private final ClaudeResponseCache responseCache;
+    private final ModelRouter router;
 
     public ClaudeApiService(String apiKey) {
+        this(apiKey, null);
+    }
+
+    public ClaudeApiService(String apiKey, ClaudeResponseCache responseCache) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("Claude API key is missing/empty");
         }
-        this.client = new OkHttpClient.Builder()
-            .readTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-            .writeTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-            .connectTimeout(10, java.util.concurrent.TimeUnit.SECONDS)
-            .build();
         this.objectMapper = new ObjectMapper();
         this.apiKey = apiKey.trim();
         String envModel = System.getenv("CLAUDE_MODEL");
         this.model = (envModel == null || envModel.trim().isEmpty())
             ? DEFAULT_CLAUDE_MODEL
             : envModel.trim();
+        this.responseCache = responseCache;
+        this.router = new ModelRouter(this.model);
+    }
+
+    /**
+     * 이번 Lambda 호출에서 Claude 호출에 쓸 수 있는 시간 (핸들러 시작 시 남은 시간 - 응답 저장 여유)
+     * - 재시도/백오프/fallback이 이 시간을 넘지 않도록 제한
+     */
+    public static void setDeadline(long budgetMs) {
+        ClaudeHttpClient.setDeadline(budgetMs);
+    }
+
+    /**
+     * 공용 HTTP 클라이언트 커넥션 사전 연결 (Lambda 초기화 단계에서 호출)
+     */
+    public void warmUp() {
+        ClaudeHttpClient.warmUp(apiKey);
     }
 
     /**
-     * Claude API 호출하여 JSON 응답 받기
+     * Claude API 호출하여 JSON 응답 받기 (캐시 미사용)
      */
     public String callClaudeApi(String systemPrompt, String userPrompt) throws IOException {
+        return callClaudeApi(systemPrompt, userPrompt, false);
+    }
+
+    /**
+     * Claude API 호출 - useCache=true면 동일 프롬프트 응답을 캐시에서 재사용
+     * (seed 등으로 의도적으로 다양성을 주는 호출은 false로 우회)
+     */
+    public String callClaudeApi(String systemPrompt, String userPrompt, boolean useCache) throws IOException {
+        return callClaudeApi(SystemPrompt.of(systemPrompt), userPrompt, useCache);
+    }
+
+    public String callClaudeApi(SystemPrompt systemPrompt, String userPrompt) throws IOException {
+        return callClaudeApi(systemPrompt, userPrompt, false);
+    }
+
+    /**
+     * Claude API 호출 (정적/동적 system 블록 분리)
+     */
+    public String callClaudeApi(SystemPrompt systemPrompt, String userPrompt, boolean useCache) throws IOException {
+        return callClaudeApi(ModelRouter.Route.GENERATE, systemPrompt, userPrompt, useCache);
+    }
+
+    public String callClaudeApi(ModelRouter.Route route, String systemPrompt, String userPrompt,
+                                boolean useCache) throws IOException {
+        return callClaudeApi(route, SystemPrompt.of(systemPrompt), userPrompt, useCache);
+    }
+
+    /**
+     * Claude API 호출 - route별 모델/max_tokens 사용 (primary 지연/에러 기준 초과 시 fallback 모델)
+     */
+    public String callClaudeApi(ModelRouter.Route route, SystemPrompt systemPrompt, String userPrompt,
+                                boolean useCache) throws IOException {
+        int maxTokens = router.maxTokens(route);
+        if (!useCache || responseCache == null) {
+            return routed(route, m -> requestClaudeApi(m, maxTokens, systemPrompt, userPrompt), () -> true);
+        }
+
+        String primaryModel = router.primaryModel(route);
+        String cacheKey = ClaudeResponseCache.key(primaryModel, systemPrompt.toPlainText(), userPrompt, maxTokens);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        return routed(route, m -> {
+            String response = requestClaudeApi(m, maxTokens, systemPrompt, userPrompt);
+            // fallback 모델 응답은 primary 키로 캐시하지 않음 (다음 요청에서 primary로 다시 생성)
+            if (m.equals(primaryModel)) {
+                responseCache.put(cacheKey, response);
+            }
+            return response;
+        }, () -> true);
+    }
+
+    private String requestClaudeApi(String model, int maxTokens, SystemPrompt systemPrompt,
+                                    String userPrompt) throws IOException {
         // 요청 본문 구성
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", model);
-        requestBody.put("max_tokens", 2000);
-        requestBody.put("system", systemPrompt);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("system", toSystemBlocks(systemPrompt));
         requestBody.put("messages", List.of(
             Map.of("role", "user", "content", userPrompt)
         ));
@@ -63,11 +143,11 @@ public class ClaudeApiService {
             .post(RequestBody.create(jsonBody, JSON))
             .build();
 
-        // API 호출
-        try (Response response = client.newCall(request).execute()) {
+        // API 호출 (429/5xx 재시도)
+        try (Response response = ClaudeHttpClient.execute(request, 0)) {
             if (!response.isSuccessful()) {
                 String errBody = response.body() == null ? "" : response.body().string();
-                throw new IOException("Claude API call failed: " + response.code()
+                throw new ClaudeApiException(response.code(), "Claude API call failed: " + response.code()
                     + " - " + response.message()
                     + (errBody.isEmpty() ? "" : " | body=" + truncate(errBody, 500)));
             }
@@ -76,6 +156,7 @@ public class ClaudeApiService {
 
             // 응답에서 content[0].text 추출
             JsonNode root = objectMapper.readTree(responseBody);
+            recordUsage(root.path("usage"));
             JsonNode contentArray = root.get("content");
             if (contentArray != null && contentArray.isArray() && contentArray.size() > 0) {
                 return contentArray.get(0).get("text").asText();
@@ -89,20 +170,25 @@ public class ClaudeApiService {
      * Claude API 호출 (대화 히스토리 포함)
      */
     public String callClaudeApiWithHistory(String systemPrompt, List<ConversationMessage> messages) throws IOException {
+        return callClaudeApiWithHistory(SystemPrompt.of(systemPrompt), messages);
+    }
+
+    public String callClaudeApiWithHistory(SystemPrompt systemPrompt, List<ConversationMessage> messages) throws IOException {
+        int maxTokens = router.maxTokens(ModelRouter.Route.CHAT);
+        return routed(ModelRouter.Route.CHAT,
+            m -> requestClaudeApiWithHistory(m, maxTokens, systemPrompt, messages), () -> true);
+    }
+
+    private String requestClaudeApiWithHistory(String model, int maxTokens, SystemPrompt systemPrompt,
+                                               List<ConversationMessage> messages) throws IOException {
         // ConversationMessage를 Claude API 형식으로 변환
-        List<Map<String, String>> apiMessages = new ArrayList<>();
-        for (ConversationMessage msg : messages) {
-            Map<String, String> apiMsg = new HashMap<>();
-            apiMsg.put("role", msg.getRole());
-            apiMsg.put("content", msg.getContent());
-            apiMessages.add(apiMsg);
-        }
+        List<Map<String, Object>> apiMessages = toApiMessages(messages);
 
         // 요청 본문 구성
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", model);
-        requestBody.put("max_tokens", 300);
-        requestBody.put("system", systemPrompt);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("system", toSystemBlocks(systemPrompt));
         requestBody.put("messages", apiMessages);
 
         String jsonBody = objectMapper.writeValueAsString(requestBody);
@@ -116,11 +202,11 @@ public class ClaudeApiService {
             .post(RequestBody.create(jsonBody, JSON))
             .build();
 
-        // API 호출
-        try (Response response = client.newCall(request).execute()) {
+        // API 호출 (429/5xx 재시도, 느리면 hedge)
+        try (Response response = ClaudeHttpClient.execute(request, CHAT_HEDGE_DELAY_MS)) {
             if (!response.isSuccessful()) {
                 String errBody = response.body() == null ? "" : response.body().string();
-                throw new IOException("Claude API call failed: " + response.code()
+                throw new ClaudeApiException(response.code(), "Claude API call failed: " + response.code()
                     + " - " + response.message()
                     + (errBody.isEmpty() ? "" : " | body=" + truncate(errBody, 500)));
             }
@@ -129,6 +215,7 @@ public class ClaudeApiService {
 
             // 응답에서 content[0].text 추출
             JsonNode root = objectMapper.readTree(responseBody);
+            recordUsage(root.path("usage"));
             JsonNode contentArray = root.get("content");
             if (contentArray != null && contentArray.isArray() && contentArray.size() > 0) {
                 return contentArray.get(0).get("text").asText();
@@ -138,6 +225,264 @@ public class ClaudeApiService {
         }
     }
 
+    /**
+     * Claude API 스트리밍 호출 (대화 히스토리 포함, stream=true)
+     * - SSE의 text_delta 조각마다 onDelta 콜백 호출
+     * - 완료되면 전체 응답 텍스트 반환 (저장/상태 업데이트용)
+     */
+    public String streamClaudeApiWithHistory(String systemPrompt, List<ConversationMessage> messages,
+                                             Consumer<String> onDelta) throws IOException {
+        return streamClaudeApiWithHistory(SystemPrompt.of(systemPrompt), messages, onDelta);
+    }
+
+    public String streamClaudeApiWithHistory(SystemPrompt systemPrompt, List<ConversationMessage> messages,
+                                             Consumer<String> onDelta) throws IOException {
+        return streamRouted(ModelRouter.Route.CHAT, systemPrompt, messages, onDelta);
+    }
+
+    /**
+     * Claude API 단건 스트리밍 호출 (route별 모델/max_tokens)
+     * - 긴 JSON 출력을 받는 쪽에서 조각 단위로 파싱/후처리를 시작할 수 있도록
+     */
+    public String streamClaudeApi(ModelRouter.Route route, SystemPrompt systemPrompt, String userPrompt,
+                                  Consumer<String> onDelta) throws IOException {
+        return streamRouted(route, systemPrompt, List.of(new ConversationMessage("user", userPrompt)), onDelta);
+    }
+
+    private String streamRouted(ModelRouter.Route route, SystemPrompt systemPrompt,
+                                List<ConversationMessage> messages, Consumer<String> onDelta) throws IOException {
+        int maxTokens = router.maxTokens(route);
+        boolean[] emitted = {false};
+        Consumer<String> tracked = delta -> {
+            emitted[0] = true;
+            if (onDelta != null) {
+                onDelta.accept(delta);
+            }
+        };
+        // 이미 클라이언트로 조각이 나간 뒤에는 다른 모델로 다시 시작하지 않는다.
+        return routed(route,
+            m -> requestStreamWithHistory(m, maxTokens, systemPrompt, messages, tracked), () -> !emitted[0]);
+    }
+
+    private String requestStreamWithHistory(String model, int maxTokens, SystemPrompt systemPrompt,
+                                            List<ConversationMessage> messages,
+                                            Consumer<String> onDelta) throws IOException {
+        List<Map<String, Object>> apiMessages = toApiMessages(messages);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("system", toSystemBlocks(systemPrompt));
+        requestBody.put("messages", apiMessages);
+        requestBody.put("stream", true);
+
+        String jsonBody = objectMapper.writeValueAsString(requestBody);
+
+        Request request = new Request.Builder()
+            .url(CLAUDE_API_URL)
+            .addHeader("x-api-key", apiKey)
+            .addHeader("anthropic-version", "2023-06-01")
+            .addHeader("content-type", "application/json")
+            .addHeader("accept", "text/event-stream")
+            .post(RequestBody.create(jsonBody, JSON))
+            .build();
+
+        // 스트림은 본문을 받기 전(응답 코드 단계)까지만 재시도
+        try (Response response = ClaudeHttpClient.execute(request, 0)) {
+            if (!response.isSuccessful()) {
+                String errBody = response.body() == null ? "" : response.body().string();
+                throw new ClaudeApiException(response.code(), "Claude API call failed: " + response.code()
+                    + " - " + response.message()
+                    + (errBody.isEmpty() ? "" : " | body=" + truncate(errBody, 500)));
+            }
+            if (response.body() == null) {
+                throw new IOException("Empty streaming response from Claude API");
+            }
+
+            StringBuilder fullText = new StringBuilder();
+            JsonNode startUsage = null;
+            okio.BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                // SSE: "event: ..." 줄은 무시하고 "data: {...}" 줄의 type으로 판단
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.isEmpty()) {
+                    continue;
+                }
+
+                JsonNode event = objectMapper.readTree(data);
+                String type = event.path("type").asText();
+
+                if ("message_start".equals(type)) {
+                    // 입력 토큰/캐시 사용량은 message_start에 포함
+                    startUsage = event.path("message").path("usage");
+                } else if ("message_delta".equals(type)) {
+                    if (startUsage instanceof ObjectNode) {
+                        ((ObjectNode) startUsage).set("output_tokens", event.path("usage").path("output_tokens"));
+                    }
+                } else if ("content_block_delta".equals(type)) {
+                    JsonNode delta = event.path("delta");
+                    if ("text_delta".equals(delta.path("type").asText())) {
+                        String text = delta.path("text").asText("");
+                        if (!text.isEmpty()) {
+                            fullText.append(text);
+                            if (onDelta != null) {
+                                onDelta.accept(text);
+                            }
+                        }
+                    }
+                } else if ("message_stop".equals(type)) {
+                    break;
+                } else if ("error".equals(type)) {
+                    // 스트림 도중 과부하는 overloaded_error 이벤트로 전달됨 (HTTP 529와 동일 취급)
+                    int status = "overloaded_error".equals(event.path("error").path("type").asText()) ? 529 : 500;
+                    throw new ClaudeApiException(status, "Claude API stream error: "
+                        + truncate(event.path("error").toString(), 500));
+                }
+            }
+
+            if (fullText.length() == 0) {
+                throw new IOException("Invalid streaming response from Claude API");
+            }
+            if (startUsage != null) {
+                recordUsage(startUsage);
+            }
+            return fullText.toString();
+        }
+    }
+
+    /**
+     * route 모델로 호출하고 지연/성공 여부를 라우터에 기록.
+     * 서버측 실패(5xx/429/I/O)면 fallback 모델로 한 번 더 시도 (canFallback이 false거나 마감이 가까우면 생략)
+     */
+    private String routed(ModelRouter.Route route, ModelCall call, BooleanSupplier canFallback) throws IOException {
+        String selected = router.select(route);
+        long start = System.currentTimeMillis();
+        try {
+            String result = call.call(selected);
+            router.record(route, selected, System.currentTimeMillis() - start, true);
+            return result;
+        } catch (IOException e) {
+            boolean serverSide = isServerSideFailure(e);
+            router.record(route, selected, System.currentTimeMillis() - start, !serverSide);
+
+            String fallback = selected.equals(router.primaryModel(route))
+                ? router.fallbackModel(route)
+                : router.primaryModel(route);
+            if (!serverSide || !canFallback.getAsBoolean()) {
+                throw e;
+            }
+            if (!ClaudeHttpClient.hasTimeForAttempt()) {
+                System.err.println("Claude " + route + " fallback skipped, deadline too close: " + e.getMessage());
+                throw e;
+            }
+            System.err.println("Claude " + route + " call failed on " + selected + ", trying " + fallback
+                + ": " + e.getMessage());
+
+            long fallbackStart = System.currentTimeMillis();
+            try {
+                String result = call.call(fallback);
+                router.record(route, fallback, System.currentTimeMillis() - fallbackStart, true);
+                return result;
+            } catch (IOException fallbackError) {
+                router.record(route, fallback, System.currentTimeMillis() - fallbackStart,
+                    !isServerSideFailure(fallbackError));
+                throw fallbackError;
+            }
+        }
+    }
+
+    private static boolean isServerSideFailure(IOException e) {
+        if (e instanceof ClaudeApiException) {
+            int status = ((ClaudeApiException) e).getStatusCode();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface ModelCall {
+        String call(String model) throws IOException;
+    }
+
+    /**
+     * 메시지 목록을 API 형식으로 변환
+     * - 히스토리가 있는 대화 호출이면 마지막 메시지에 cache_control(ephemeral) 브레이크포인트 지정
+     *   → system + 히스토리 전체가 캐시되고 다음 턴은 직전 턴까지의 prefix를 캐시에서 읽음
+     * - system만으로는 모델별 최소 캐시 길이(1024 토큰, Haiku 2048)에 못 미치므로 system에는 두지 않음
+     * - 단건 호출(메시지 1개)은 재사용되지 않으므로 지정하지 않음 (캐시 쓰기 할증 회피)
+     */
+    private static List<Map<String, Object>> toApiMessages(List<ConversationMessage> messages) {
+        List<Map<String, Object>> apiMessages = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            ConversationMessage msg = messages.get(i);
+            Map<String, Object> apiMsg = new HashMap<>();
+            apiMsg.put("role", msg.getRole());
+            if (messages.size() > 1 && i == messages.size() - 1) {
+                Map<String, Object> block = new HashMap<>();
+                block.put("type", "text");
+                block.put("text", msg.getContent());
+                block.put("cache_control", Map.of("type", "ephemeral"));
+                apiMsg.put("content", List.of(block));
+            } else {
+                apiMsg.put("content", msg.getContent());
+            }
+            apiMessages.add(apiMsg);
+        }
+        return apiMessages;
+    }
+
+    /**
+     * system을 블록 배열로 변환 (정적 블록 → 동적 블록 순)
+     */
+    private static List<Map<String, Object>> toSystemBlocks(SystemPrompt systemPrompt) {
+        List<Map<String, Object>> blocks = new ArrayList<>();
+        String staticPart = systemPrompt == null ? null : systemPrompt.getStaticPart();
+        String dynamicPart = systemPrompt == null ? null : systemPrompt.getDynamicPart();
+
+        if (staticPart != null && !staticPart.isBlank()) {
+            Map<String, Object> block = new HashMap<>();
+            block.put("type", "text");
+            block.put("text", staticPart);
+            blocks.add(block);
+        }
+        if (dynamicPart != null && !dynamicPart.isBlank()) {
+            Map<String, Object> block = new HashMap<>();
+            block.put("type", "text");
+            block.put("text", dynamicPart);
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * 호출별 입력 토큰 사용량 기록 (캐시 적중/생성/미캐시 구분)
+     */
+    private void recordUsage(JsonNode usage) {
+        if (usage == null || usage.isMissingNode() || usage.isNull()) {
+            return;
+        }
+        Map<String, Long> values = new HashMap<>();
+        values.put("InputTokens", usage.path("input_tokens").asLong(0));
+        values.put("CacheReadInputTokens", usage.path("cache_read_input_tokens").asLong(0));
+        values.put("CacheCreationInputTokens", usage.path("cache_creation_input_tokens").asLong(0));
+        values.put("OutputTokens", usage.path("output_tokens").asLong(0));
+        MetricsLogger.SENTENCES.putMetrics("ClaudeApi", values, "Count");
+    }
+
+    private static long parseLongEnv(String key, long defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            return Long.parseLong(raw.trim());
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
     private static String truncate(String s, int maxLen) {
         if (s == null) return null;
         if (maxLen <= 0) return "";
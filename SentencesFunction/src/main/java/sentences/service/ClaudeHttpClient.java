@@ -0,0 +1,393 @@
+package sentences.service;
+
+import com.speaktracker.common.tts.MetricsLogger;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Claude API 공용 HTTP 클라이언트
+ * - 컨테이너당 OkHttpClient 하나를 공유 (커넥션 풀/HTTP2 재사용 → 웜 호출은 DNS/TCP/TLS 생략)
+ * - warmUp(): 초기화 단계에서 api.anthropic.com 커넥션을 미리 맺어 둔다.
+ * - 429/5xx/529는 지수 백오프(full jitter)로 재시도, 느린 요청은 hedge 요청을 하나 더 보내 먼저 온 응답 사용
+ * - Lambda 호출 단위 마감 시각(setDeadline)이 있으면 각 요청의 callTimeout을 남은 시간으로 제한하고,
+ *   남은 시간이 MIN_ATTEMPT_MS 미만이면 재시도/fallback을 시작하지 않는다.
+ * - 호출별 DNS/connect/TLS/TTFB 시간을 로그 + EMF 메트릭으로 남긴다.
+ */
+public final class ClaudeHttpClient {
+
+    private static final String METRIC_FUNCTION = "ClaudeHttp";
+    private static final String WARM_UP_URL = "https://api.anthropic.com/v1/messages";
+
+    private static final int MAX_RETRIES = parseIntEnv("CLAUDE_MAX_RETRIES", 2);
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long BACKOFF_MAX_MS = 8000;
+    // 새 시도(재시도/fallback)를 시작하는 데 필요한 최소 남은 시간
+    private static final long MIN_ATTEMPT_MS = parseIntEnv("CLAUDE_MIN_ATTEMPT_MS", 3000);
+
+    private static final OkHttpClient SHARED = buildClient();
+
+    // 재시도 전에 관측된 스로틀(429/529) 알림 (Worker의 동시성 제한에 반영)
+    private static volatile Runnable throttleListener;
+
+    // 현재 Lambda 호출의 마감 시각 (epoch ms, 0이면 제한 없음)
+    // 컨테이너는 한 번에 한 호출만 처리하므로 호출 안의 모든 스레드가 같은 값을 본다.
+    private static volatile long deadlineAt;
+
+    private ClaudeHttpClient() {}
+
+    private static OkHttpClient buildClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        // hedge 요청은 비동기 호출이라 dispatcher 한도를 따름 (기본 호스트당 5개는 Worker 동시성보다 작음)
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(32);
+
+        return new OkHttpClient.Builder()
+            .readTimeout(60, TimeUnit.SECONDS)
+            .writeTimeout(60, TimeUnit.SECONDS)
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+            .dispatcher(dispatcher)
+            .eventListenerFactory(call -> new TimingListener())
+            .build();
+    }
+
+    static OkHttpClient shared() {
+        return SHARED;
+    }
+
+    public static void setThrottleListener(Runnable listener) {
+        throttleListener = listener;
+    }
+
+    /**
+     * 이번 Lambda 호출에서 Claude 호출(재시도/hedge/fallback 포함)에 쓸 수 있는 시간 설정
+     *
+     * @param budgetMs 지금부터 남은 시간 (0 이하면 제한 없음)
+     */
+    static void setDeadline(long budgetMs) {
+        deadlineAt = budgetMs > 0 ? System.currentTimeMillis() + budgetMs : 0;
+    }
+
+    static long remainingMs() {
+        long deadline = deadlineAt;
+        return deadline == 0 ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * 마감 전에 한 번 더 시도할 시간이 남았는지
+     */
+    static boolean hasTimeForAttempt() {
+        return remainingMs() >= MIN_ATTEMPT_MS;
+    }
+
+    /**
+     * 커넥션 사전 연결 (응답 코드는 무시, 실패해도 첫 호출에서 다시 연결)
+     */
+    static void warmUp(String apiKey) {
+        Request request = new Request.Builder()
+            .url(WARM_UP_URL)
+            .head()
+            .addHeader("x-api-key", apiKey == null ? "" : apiKey.trim())
+            .addHeader("anthropic-version", "2023-06-01")
+            .build();
+
+        OkHttpClient warmClient = SHARED.newBuilder()
+            .callTimeout(3, TimeUnit.SECONDS)
+            .build();
+        try {
+            // 커넥션만 풀에 남기면 된다.
+            warmClient.newCall(request).execute().close();
+        } catch (Exception e) {
+            System.err.println("Claude API warm-up failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 재시도 포함 실행. 재시도 불가/소진 시 마지막 응답을 그대로 반환 (에러 처리는 호출부)
+     *
+     * @param hedgeDelayMs 0 이하면 hedge 없음
+     */
+    static Response execute(Request request, long hedgeDelayMs) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            if (!hasTimeForAttempt()) {
+                MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "DeadlineExceeded");
+                throw new IOException("Claude API deadline exceeded (remaining " + remainingMs() + "ms)");
+            }
+            Response response;
+            try {
+                response = hedgeDelayMs > 0
+                    ? executeHedged(request, hedgeDelayMs)
+                    : newCall(request).execute();
+            } catch (IOException e) {
+                long sleepMs = backoffMs(attempt, -1);
+                if (attempt >= MAX_RETRIES || !hasTimeAfter(sleepMs)) {
+                    throw e;
+                }
+                System.err.println("Claude API call failed, retrying: " + e.getMessage());
+                sleep(sleepMs);
+                continue;
+            }
+
+            if (!isRetryable(response.code()) || attempt >= MAX_RETRIES) {
+                return response;
+            }
+
+            long retryAfterMs = parseRetryAfterMs(response.header("retry-after"));
+            if (retryAfterMs > BACKOFF_MAX_MS) {
+                return response;
+            }
+            long sleepMs = backoffMs(attempt, retryAfterMs);
+            if (!hasTimeAfter(sleepMs)) {
+                return response;
+            }
+            if (response.code() == 429 || response.code() == 529) {
+                Runnable listener = throttleListener;
+                if (listener != null) {
+                    listener.run();
+                }
+            }
+            System.err.println("Claude API returned " + response.code() + ", retrying (attempt " + (attempt + 1) + ")");
+            MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "Retries");
+            response.close();
+            sleep(sleepMs);
+        }
+    }
+
+    /**
+     * 요청 하나(Call) 생성. 마감 시각이 있으면 callTimeout(연결~본문 읽기 전체)을 남은 시간으로 제한
+     */
+    private static Call newCall(Request request) {
+        Call call = SHARED.newCall(request);
+        long remaining = remainingMs();
+        if (remaining != Long.MAX_VALUE) {
+            call.timeout().timeout(Math.max(1, remaining), TimeUnit.MILLISECONDS);
+        }
+        return call;
+    }
+
+    private static boolean hasTimeAfter(long sleepMs) {
+        return remainingMs() - sleepMs >= MIN_ATTEMPT_MS;
+    }
+
+    /**
+     * hedgeDelayMs 안에 응답 헤더가 오지 않으면 같은 요청을 한 번 더 보내고 먼저 도착한 쪽을 사용
+     */
+    private static Response executeHedged(Request request, long hedgeDelayMs) throws IOException {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicReference<Call> winningCall = new AtomicReference<>();
+        List<Call> calls = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        Callback callback = new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                // winningCall을 먼저 정해야 대기 중인 쪽이 이긴 요청을 취소하지 않는다.
+                if (winningCall.compareAndSet(null, call)) {
+                    winner.complete(response);
+                } else {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (pending.decrementAndGet() == 0) {
+                    winner.completeExceptionally(e);
+                }
+            }
+        };
+
+        Call first = newCall(request);
+        calls.add(first);
+        first.enqueue(callback);
+
+        try {
+            try {
+                return awaitWinner(winner, calls, winningCall, hedgeDelayMs);
+            } catch (TimeoutException slow) {
+                pending.incrementAndGet();
+                Call hedge = newCall(request);
+                calls.add(hedge);
+                hedge.enqueue(callback);
+                MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "Hedged");
+            }
+            return awaitWinner(winner, calls, winningCall, -1);
+        } catch (TimeoutException e) {
+            throw new IOException("Claude API hedged call timed out", e);
+        }
+    }
+
+    private static Response awaitWinner(CompletableFuture<Response> winner, List<Call> calls,
+                                        AtomicReference<Call> winningCall, long timeoutMs)
+            throws IOException, TimeoutException {
+        try {
+            Response response = timeoutMs > 0 ? winner.get(timeoutMs, TimeUnit.MILLISECONDS) : winner.get();
+            // 진 쪽 요청은 취소 (이긴 쪽은 본문을 아직 읽어야 하므로 유지)
+            for (Call call : calls) {
+                if (call != winningCall.get()) {
+                    call.cancel();
+                }
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            calls.forEach(Call::cancel);
+            throw new IOException("Interrupted while waiting for Claude API", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504 || code == 529;
+    }
+
+    private static long backoffMs(int attempt, long retryAfterMs) {
+        long cap = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, 10));
+        return Math.max(retryAfterMs, ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    private static void sleep(long sleepMs) throws IOException {
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during Claude API retry backoff", e);
+        }
+    }
+
+    private static long parseRetryAfterMs(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException ignore) {
+            return -1;
+        }
+    }
+
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v >= 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 호출 단위 타이밍 수집 (커넥션 재사용 시 DNS/connect/TLS는 0)
+     */
+    private static final class TimingListener extends EventListener {
+        private long callStart;
+        private long dnsStart;
+        private long dnsMs;
+        private long connectStart;
+        private long connectMs;
+        private long secureStart;
+        private long tlsMs;
+        private long ttfbMs = -1;
+        private boolean newConnection;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<java.net.InetAddress> inetAddressList) {
+            dnsMs += elapsedMs(dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            newConnection = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsMs += elapsedMs(secureStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectMs += elapsedMs(connectStart);
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (ttfbMs < 0) {
+                ttfbMs = elapsedMs(callStart);
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            report(call, "ok");
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            report(call, call.isCanceled() ? "canceled" : "failed");
+        }
+
+        private void report(Call call, String outcome) {
+            long totalMs = elapsedMs(callStart);
+            System.out.println("Claude HTTP " + call.request().method() + " " + outcome
+                + ": dns=" + dnsMs + "ms connect=" + connectMs + "ms tls=" + tlsMs
+                + "ms ttfb=" + ttfbMs + "ms total=" + totalMs + "ms reused=" + !newConnection);
+
+            Map<String, Long> values = new HashMap<>();
+            values.put("ConnectMs", connectMs);
+            values.put("TlsMs", tlsMs);
+            values.put("TotalMs", totalMs);
+            if (ttfbMs >= 0) {
+                values.put("TtfbMs", ttfbMs);
+            }
+            MetricsLogger.SENTENCES.putMetrics(METRIC_FUNCTION, values, "Milliseconds");
+        }
+
+        private static long elapsedMs(long startNanos) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
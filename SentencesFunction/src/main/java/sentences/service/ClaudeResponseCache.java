@@ -0,0 +1,144 @@
+package sentences.service;
+
+import com.speaktracker.common.tts.MetricsLogger;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Claude 응답 exact-match 캐시 (model + system + user + max_tokens 해시 기준)
+ * - 1차: 컨테이너 내 LRU (웜 컨테이너에서 DynamoDB 왕복도 생략)
+ * - 2차: DynamoDB 테이블 (TTL로 자동 만료, 테이블 미설정 시 LRU만 사용)
+ * - 캐시 실패는 무시하고 원래 호출로 진행한다.
+ */
+public class ClaudeResponseCache {
+
+    private static final String METRIC_FUNCTION = "ClaudeResponseCache";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final long ttlSeconds;
+    private final Map<String, CachedResponse> lru;
+
+    public ClaudeResponseCache(DynamoDbClient dynamoDbClient, String tableName, int maxEntries, long ttlSeconds) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = (tableName == null || tableName.isBlank()) ? null : tableName;
+        this.ttlSeconds = ttlSeconds;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 캐시 키 생성 (sha256 hex)
+     */
+    public static String key(String model, String systemPrompt, String userPrompt, int maxTokens) {
+        String raw = model + "\u0000" + systemPrompt + "\u0000" + userPrompt + "\u0000" + maxTokens;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash cache key", e);
+        }
+    }
+
+    /**
+     * 캐시 조회. 없으면 null
+     */
+    public String get(String key) {
+        long now = Instant.now().getEpochSecond();
+
+        synchronized (lru) {
+            CachedResponse cached = lru.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "MemoryHit");
+                    return cached.text;
+                }
+                lru.remove(key);
+            }
+        }
+
+        if (tableName != null && dynamoDbClient != null) {
+            try {
+                GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of("cache_key", AttributeValue.builder().s(key).build()))
+                    .build());
+
+                if (response.hasItem() && response.item().containsKey("response")) {
+                    Map<String, AttributeValue> item = response.item();
+                    long expiresAt = item.containsKey("ttl") ? Long.parseLong(item.get("ttl").n()) : 0;
+                    // DynamoDB TTL 삭제는 지연될 수 있으므로 직접 만료 확인
+                    if (expiresAt > now) {
+                        String text = item.get("response").s();
+                        synchronized (lru) {
+                            lru.put(key, new CachedResponse(text, expiresAt));
+                        }
+                        MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "DynamoHit");
+                        return text;
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Claude response cache read failed: " + e.getMessage());
+            }
+        }
+
+        MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, "Miss");
+        return null;
+    }
+
+    public void put(String key, String text) {
+        if (text == null) {
+            return;
+        }
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+
+        synchronized (lru) {
+            lru.put(key, new CachedResponse(text, expiresAt));
+        }
+
+        if (tableName != null && dynamoDbClient != null) {
+            try {
+                Map<String, AttributeValue> item = new HashMap<>();
+                item.put("cache_key", AttributeValue.builder().s(key).build());
+                item.put("response", AttributeValue.builder().s(text).build());
+                item.put("ttl", AttributeValue.builder().n(String.valueOf(expiresAt)).build());
+
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .build());
+            } catch (Exception e) {
+                System.err.println("Claude response cache write failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class CachedResponse {
+        private final String text;
+        private final long expiresAt;
+
+        private CachedResponse(String text, long expiresAt) {
+            this.text = text;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
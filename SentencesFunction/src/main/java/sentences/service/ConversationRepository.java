@@ -5,9 +5,12 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import sentences.model.ConversationMessage;
 import sentences.model.ConversationSummary;
+import sentences.model.LearnerFeatures;
+import sentences.util.LearnerFeatureExtractor;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 
@@ -15,6 +18,26 @@ public class ConversationRepository {
 
     public static final long LONG_TTL_SECONDS = 30L * 24 * 60 * 60; // 30일
 
+    // 메시지는 아이템당 네이티브 리스트(L)로 저장 (이전 포맷: messages JSON 문자열)
+    private static final String MESSAGE_LIST = "message_list";
+    // 아이템 쓰기마다 1씩 증가하는 버전 (조건부 쓰기로 동시 요청 간 lost update 방지)
+    private static final String VERSION = "version";
+    // 레벨 평가용 학습자 발화 특징 카운터 (user 메시지 저장 시 ADD로 누적)
+    private static final String LF_COMPLETE = "lf_complete";
+    // 대화 목록용 속성 (preview가 없는 이전 아이템은 첫 메시지만 읽어서 만든다)
+    private static final String LIST_PROJECTION =
+        "conversation_id, #ts, topic, difficulty, turn_count, preview, message_list[0], messages";
+    private static final int LIST_MAX_PAGES = 5;
+    private static final int PREVIEW_LENGTH = 50;
+    private static final int APPLIED_LOOKBACK = 4;
+    private static final String LF_PROJECTION =
+        "conversation_id, #ttl, lf_complete, lf_msgs, lf_words, lf_distinct, lf_sentences, lf_rare, lf_errors";
+    private static final String META_PROJECTION =
+        "student_email, #ts, conversation_id, topic, difficulty, situation, #role, turn_count, #ttl, "
+            + "summary, summarized_count, #v";
+    private static final Map<String, String> META_PROJECTION_NAMES =
+        Map.of("#ts", "timestamp", "#role", "role", "#ttl", "ttl", "#v", VERSION);
+
     private final DynamoDbClient dynamoDbClient;
     private final String tableName;
     private final ObjectMapper objectMapper;
@@ -63,91 +86,308 @@ public class ConversationRepository {
     public void saveConversation(String studentEmail, String conversationId, String topic,
                                  String difficulty, String situation, String role,
                                  List<ConversationMessage> messages, String timestamp, long ttlEpochSeconds) {
-        try {
-            String messagesJson = objectMapper.writeValueAsString(messages);
-            long ttl = ttlEpochSeconds > 0
-                ? ttlEpochSeconds
-                : Instant.now().plusSeconds(LONG_TTL_SECONDS).getEpochSecond();
-
-            Map<String, AttributeValue> item = new HashMap<>();
-            item.put("student_email", AttributeValue.builder().s(studentEmail).build());
-            item.put("timestamp", AttributeValue.builder().s(timestamp).build());
-            item.put("conversation_id", AttributeValue.builder().s(conversationId).build());
-            item.put("topic", AttributeValue.builder().s(topic).build());
-            item.put("difficulty", AttributeValue.builder().s(difficulty).build());
-            item.put("situation", AttributeValue.builder().s(situation).build());
-            item.put("role", AttributeValue.builder().s(role).build());
-            item.put("messages", AttributeValue.builder().s(messagesJson).build());
-            item.put("turn_count", AttributeValue.builder().n(String.valueOf(messages.size())).build());
-            item.put("ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
-
-            PutItemRequest request = PutItemRequest.builder()
-                .tableName(tableName)
-                .item(item)
-                .build();
+        putConversation(studentEmail, conversationId, topic, difficulty, situation, role,
+            messages, timestamp, ttlEpochSeconds, 1, null);
+    }
 
-            dynamoDbClient.putItem(request);
+    private void putConversation(String studentEmail, String conversationId, String topic,
+                                 String difficulty, String situation, String role,
+                                 List<ConversationMessage> messages, String timestamp, long ttlEpochSeconds,
+                                 long version, String conditionExpression) {
+        long ttl = ttlEpochSeconds > 0
+            ? ttlEpochSeconds
+            : Instant.now().plusSeconds(LONG_TTL_SECONDS).getEpochSecond();
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("student_email", AttributeValue.builder().s(studentEmail).build());
+        item.put("timestamp", AttributeValue.builder().s(timestamp).build());
+        item.put("conversation_id", AttributeValue.builder().s(conversationId).build());
+        item.put("topic", AttributeValue.builder().s(topic).build());
+        item.put("difficulty", AttributeValue.builder().s(difficulty).build());
+        item.put("situation", AttributeValue.builder().s(situation).build());
+        item.put("role", AttributeValue.builder().s(role).build());
+        item.put(MESSAGE_LIST, toMessageList(messages));
+        item.put("turn_count", AttributeValue.builder().n(String.valueOf(messages.size())).build());
+        item.put("ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
+        item.put(VERSION, AttributeValue.builder().n(String.valueOf(version)).build());
+        if (!messages.isEmpty()) {
+            item.put("preview", AttributeValue.builder().s(toPreview(messages.get(0).getContent())).build());
+        }
+        putLearnerFeatures(item, LearnerFeatureExtractor.extract(messages));
+        // 처음부터 카운터를 누적한 아이템 표시 (없으면 평가 시 메시지에서 직접 계산)
+        item.put(LF_COMPLETE, AttributeValue.builder().bool(true).build());
 
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize messages", e);
+        PutItemRequest.Builder request = PutItemRequest.builder()
+            .tableName(tableName)
+            .item(item);
+        if (conditionExpression != null) {
+            request.conditionExpression(conditionExpression);
         }
+
+        dynamoDbClient.putItem(request.build());
     }
 
     /**
-     * 학생별 대화 이력 조회 (최신순)
+     * 메시지 추가 (append-only)
+     * - 새 포맷: message_list에 list_append + turn_count 원자적 증가 (전체 히스토리 재직렬화 없음)
+     * - 레거시 포맷(messages JSON 문자열): 최초 1회만 전체를 새 포맷으로 옮겨 저장
+     * - 조회 시점의 version이 그대로일 때만 쓰기 (그 사이 다른 요청이 썼으면 ConditionalCheckFailedException)
+     *
+     * @return 추가 후 turn_count
      */
-    public List<ConversationSummary> getConversationsByStudent(String studentEmail, int limit) {
-        Map<String, AttributeValue> expressionValues = new HashMap<>();
-        expressionValues.put(":email", AttributeValue.builder().s(studentEmail).build());
+    public int appendMessages(ConversationData conversation, List<ConversationMessage> newMessages,
+                              long ttlEpochSeconds) {
+        if (conversation.isLegacyFormat()) {
+            List<ConversationMessage> all = new ArrayList<>(conversation.getMessages());
+            all.addAll(newMessages);
+            putConversation(conversation.getStudentEmail(), conversation.getConversationId(),
+                conversation.getTopic(), conversation.getDifficulty(),
+                conversation.getSituation(), conversation.getRole(),
+                all, conversation.getTimestamp(), ttlEpochSeconds, 1,
+                "attribute_not_exists(" + VERSION + ") AND attribute_not_exists(" + MESSAGE_LIST + ")");
+            return all.size();
+        }
 
-        QueryRequest queryRequest = QueryRequest.builder()
+        Map<String, AttributeValue> values = new HashMap<>();
+        String condition;
+        if (conversation.getVersion() > 0) {
+            condition = "#v = :expectedVersion";
+            values.put(":expectedVersion",
+                AttributeValue.builder().n(String.valueOf(conversation.getVersion())).build());
+        } else {
+            // version 도입 전 아이템: turn_count로 대신 확인
+            condition = "attribute_not_exists(#v) AND turn_count = :expectedCount";
+            values.put(":expectedCount",
+                AttributeValue.builder().n(String.valueOf(conversation.getTurnCount())).build());
+        }
+        return appendMessages(conversation.getStudentEmail(), conversation.getTimestamp(),
+            newMessages, ttlEpochSeconds, condition, values, null);
+    }
+
+    /**
+     * 메시지 추가 (키 기반, 사전 조회 없음) - 새 포맷 아이템 전용 (대화별 FIFO 메시지 그룹으로 순서가 보장되는 워커용)
+     * - 같은 requestId는 한 번만 반영 (last_request_id 조건): SQS 재시도가 응답을 두 번 붙이거나 turn_count/lf_*를
+     *   두 번 올리지 않는다. 이미 반영된 요청이면 ConditionalCheckFailedException → findAppliedRequest로 확인
+     *
+     * @return 추가 후 turn_count
+     */
+    public int appendMessages(String studentEmail, String timestamp, List<ConversationMessage> newMessages,
+                              long ttlEpochSeconds, String requestId) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":requestId", AttributeValue.builder().s(requestId).build());
+        return appendMessages(studentEmail, timestamp, newMessages, ttlEpochSeconds,
+            "attribute_not_exists(last_request_id) OR last_request_id <> :requestId", values, requestId);
+    }
+
+    /**
+     * requestId가 이미 대화에 반영됐으면 그때의 turn_count와 assistant 응답, 아니면 null
+     * - 워커만 assistant 메시지를 붙이고 다음 요청이 last_request_id를 바꾸므로, 꼬리의 마지막 assistant 메시지가 그 응답
+     */
+    public AppliedRequest findAppliedRequest(String studentEmail, String timestamp, String requestId) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
             .tableName(tableName)
-            .keyConditionExpression("student_email = :email")
-            .expressionAttributeValues(expressionValues)
-            .scanIndexForward(false)  // 최신순 정렬 (timestamp DESC)
-            .limit(limit)
+            .key(conversationKey(studentEmail, timestamp))
+            .projectionExpression("last_request_id, turn_count")
+            .consistentRead(true)
+            .build());
+        if (!response.hasItem() || !requestId.equals(stringOrNull(response.item(), "last_request_id"))) {
+            return null;
+        }
+        int turnCount = (int) longOrZero(response.item(), "turn_count");
+        List<ConversationMessage> tail = getMessageTail(studentEmail, timestamp, turnCount, APPLIED_LOOKBACK);
+        for (int i = tail.size() - 1; i >= 0; i--) {
+            if ("assistant".equals(tail.get(i).getRole())) {
+                return new AppliedRequest(turnCount, tail.get(i).getContent());
+            }
+        }
+        return null;
+    }
+
+    private int appendMessages(String studentEmail, String timestamp, List<ConversationMessage> newMessages,
+                               long ttlEpochSeconds, String versionCondition,
+                               Map<String, AttributeValue> values, String requestId) {
+        long ttl = ttlEpochSeconds > 0
+            ? ttlEpochSeconds
+            : Instant.now().plusSeconds(LONG_TTL_SECONDS).getEpochSecond();
+
+        Map<String, String> names = new HashMap<>();
+        names.put("#messages", MESSAGE_LIST);
+        names.put("#ttl", "ttl");
+        names.put("#v", VERSION);
+
+        values.put(":new", toMessageList(newMessages));
+        values.put(":empty", AttributeValue.builder().l(List.of()).build());
+        values.put(":n", AttributeValue.builder().n(String.valueOf(newMessages.size())).build());
+        values.put(":ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
+        values.put(":one", AttributeValue.builder().n("1").build());
+
+        String setExpression = "SET #messages = list_append(if_not_exists(#messages, :empty), :new), #ttl = :ttl";
+        if (!newMessages.isEmpty()) {
+            // 빈 대화로 시작한 경우에도 첫 메시지가 목록 미리보기가 되도록
+            setExpression += ", preview = if_not_exists(preview, :preview)";
+            values.put(":preview", AttributeValue.builder().s(toPreview(newMessages.get(0).getContent())).build());
+        }
+        if (requestId != null) {
+            setExpression += ", last_request_id = :requestId";
+        }
+        String addExpression = " ADD turn_count :n, #v :one";
+        LearnerFeatures features = LearnerFeatureExtractor.extract(newMessages);
+        if (!features.isEmpty()) {
+            addExpression += ", lf_msgs :lfMsgs, lf_words :lfWords, lf_distinct :lfDistinct, "
+                + "lf_sentences :lfSentences, lf_rare :lfRare, lf_errors :lfErrors";
+            values.put(":lfMsgs", number(features.getMessages()));
+            values.put(":lfWords", number(features.getWords()));
+            values.put(":lfDistinct", number(features.getDistinctWords()));
+            values.put(":lfSentences", number(features.getSentences()));
+            values.put(":lfRare", number(features.getRareWords()));
+            values.put(":lfErrors", number(features.getErrorSignals()));
+        }
+
+        String condition = "attribute_exists(conversation_id)";
+        if (versionCondition != null) {
+            condition += " AND (" + versionCondition + ")";
+        }
+
+        UpdateItemRequest request = UpdateItemRequest.builder()
+            .tableName(tableName)
+            .key(conversationKey(studentEmail, timestamp))
+            .updateExpression(setExpression + addExpression)
+            .conditionExpression(condition)
+            .expressionAttributeNames(names)
+            .expressionAttributeValues(values)
+            .returnValues(ReturnValue.UPDATED_NEW)
             .build();
 
-        QueryResponse response = dynamoDbClient.query(queryRequest);
+        UpdateItemResponse response = dynamoDbClient.updateItem(request);
+        AttributeValue turnCount = response.attributes().get("turn_count");
+        return turnCount == null ? -1 : Integer.parseInt(turnCount.n());
+    }
 
+    /**
+     * 학생별 대화 이력 조회 (최신순, 페이지 단위)
+     * - 목록에 필요한 속성만 ProjectionExpression으로 읽음 (메시지 히스토리 미포함)
+     * - 만료(TTL) 아이템은 FilterExpression으로 제외하고, limit개가 찰 때까지 다음 페이지를 이어 읽는다.
+     *
+     * @param cursor 이전 페이지 응답의 nextCursor (첫 페이지면 null)
+     */
+    public ConversationPage getConversationsByStudent(String studentEmail, int limit, String cursor) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":email", AttributeValue.builder().s(studentEmail).build());
+        values.put(":now", AttributeValue.builder().n(String.valueOf(Instant.now().getEpochSecond())).build());
+
+        Map<String, AttributeValue> startKey = decodeCursor(studentEmail, cursor);
         List<ConversationSummary> summaries = new ArrayList<>();
-        for (Map<String, AttributeValue> item : response.items()) {
-            if (isExpired(item)) {
-                continue;
+        Map<String, AttributeValue> lastIncluded = null;
+
+        for (int page = 0; page < LIST_MAX_PAGES && summaries.size() < limit; page++) {
+            QueryRequest.Builder queryRequest = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("student_email = :email")
+                .filterExpression("attribute_not_exists(#ttl) OR #ttl > :now")
+                .projectionExpression(LIST_PROJECTION)
+                .expressionAttributeNames(Map.of("#ts", "timestamp", "#ttl", "ttl"))
+                .expressionAttributeValues(values)
+                .scanIndexForward(false)  // 최신순 정렬 (timestamp DESC)
+                .limit(limit);
+            if (startKey != null) {
+                queryRequest.exclusiveStartKey(startKey);
+            }
+
+            QueryResponse response = dynamoDbClient.query(queryRequest.build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                summaries.add(parseConversationSummary(item));
+                lastIncluded = item;
+                if (summaries.size() >= limit) {
+                    break;
+                }
+            }
+
+            if (summaries.size() >= limit) {
+                // 페이지 중간에서 끊겼을 수 있으므로 마지막으로 반환한 아이템 기준으로 이어 읽는다
+                return new ConversationPage(summaries, encodeCursor(lastIncluded.get("timestamp").s()));
+            }
+            if (!response.hasLastEvaluatedKey() || response.lastEvaluatedKey().isEmpty()) {
+                return new ConversationPage(summaries, null);
             }
-            summaries.add(parseConversationSummary(item));
+            startKey = response.lastEvaluatedKey();
         }
 
-        return summaries;
+        // 만료 아이템이 많아 페이지 수 제한에 걸린 경우 - 읽은 위치부터 이어 읽도록 커서 반환
+        return new ConversationPage(summaries, startKey == null ? null : encodeCursor(startKey.get("timestamp").s()));
     }
 
     /**
-     * 학생별 최근 대화 조회 (최신순, messages 포함)
-     * - PK(student_email) 기준 Query로 최신 limit개를 가져온 뒤, 각 아이템의 messages JSON을 파싱합니다.
-     * - 레벨 평가 등 “최근 대화 내용”이 필요한 기능에서 사용합니다.
+     * 커서 = 정렬 키(timestamp)만 담은 불투명 토큰. 파티션 키는 항상 요청자 이메일로 채운다.
      */
-    public List<ConversationData> getRecentConversationsWithMessages(String studentEmail, int limit) {
-        Map<String, AttributeValue> expressionValues = new HashMap<>();
-        expressionValues.put(":email", AttributeValue.builder().s(studentEmail).build());
+    private Map<String, AttributeValue> decodeCursor(String studentEmail, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String timestamp = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            Instant.parse(timestamp);
+            return conversationKey(studentEmail, timestamp);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 
+    private static String encodeCursor(String timestamp) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(timestamp.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 학생별 최근 대화의 학습자 특징 카운터 조회 (최신순, 메시지 본문은 읽지 않음)
+     * - lf_complete가 없는 이전 아이템만 메시지를 읽어 그 자리에서 계산한다. (TTL로 자연 소멸)
+     */
+    public List<LearnerFeatures> getRecentLearnerFeatures(String studentEmail, int limit) {
         QueryRequest queryRequest = QueryRequest.builder()
             .tableName(tableName)
             .keyConditionExpression("student_email = :email")
-            .expressionAttributeValues(expressionValues)
+            .expressionAttributeValues(Map.of(":email", AttributeValue.builder().s(studentEmail).build()))
+            .projectionExpression("#ts, " + LF_PROJECTION)
+            .expressionAttributeNames(Map.of("#ts", "timestamp", "#ttl", "ttl"))
             .scanIndexForward(false) // 최신순 (timestamp DESC)
             .limit(limit)
             .build();
 
         QueryResponse response = dynamoDbClient.query(queryRequest);
 
-        List<ConversationData> conversations = new ArrayList<>();
+        List<LearnerFeatures> features = new ArrayList<>();
         for (Map<String, AttributeValue> item : response.items()) {
             if (isExpired(item)) {
                 continue;
             }
-            conversations.add(parseConversationData(item));
+            if (item.containsKey(LF_COMPLETE)) {
+                features.add(new LearnerFeatures(
+                    longOrZero(item, "lf_msgs"), longOrZero(item, "lf_words"),
+                    longOrZero(item, "lf_distinct"), longOrZero(item, "lf_sentences"),
+                    longOrZero(item, "lf_rare"), longOrZero(item, "lf_errors")));
+                continue;
+            }
+
+            GetItemResponse full = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(conversationKey(studentEmail, item.get("timestamp").s()))
+                .build());
+            if (full.hasItem()) {
+                features.add(LearnerFeatureExtractor.extract(parseMessages(full.item())));
+            }
         }
-        return conversations;
+        return features;
+    }
+
+    private static void putLearnerFeatures(Map<String, AttributeValue> item, LearnerFeatures features) {
+        item.put("lf_msgs", number(features.getMessages()));
+        item.put("lf_words", number(features.getWords()));
+        item.put("lf_distinct", number(features.getDistinctWords()));
+        item.put("lf_sentences", number(features.getSentences()));
+        item.put("lf_rare", number(features.getRareWords()));
+        item.put("lf_errors", number(features.getErrorSignals()));
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
     }
 
     private ConversationSummary parseConversationSummary(Map<String, AttributeValue> item) {
@@ -159,21 +399,15 @@ public class ConversationRepository {
             ? Integer.parseInt(item.get("turn_count").n())
             : 0;
 
-        // 첫 AI 메시지에서 미리보기 추출 (50자)
-        String preview = "";
-        try {
-            String messagesJson = item.get("messages").s();
-            List<ConversationMessage> messages = objectMapper.readValue(
-                messagesJson, new TypeReference<List<ConversationMessage>>() {});
-
-            if (!messages.isEmpty()) {
-                String firstMessage = messages.get(0).getContent();
-                preview = firstMessage.length() > 50
-                    ? firstMessage.substring(0, 50) + "..."
-                    : firstMessage;
+        // 저장된 미리보기 사용, 없으면(이전 아이템) 첫 AI 메시지에서 추출 (50자)
+        String preview = stringOrNull(item, "preview");
+        if (preview == null) {
+            try {
+                List<ConversationMessage> messages = parseMessages(item);
+                preview = messages.isEmpty() ? "" : toPreview(messages.get(0).getContent());
+            } catch (RuntimeException e) {
+                preview = "";
             }
-        } catch (JsonProcessingException e) {
-            preview = "";
         }
 
         return new ConversationSummary(conversationId, timestamp, topic, difficulty, turnCount, preview);
@@ -207,6 +441,155 @@ public class ConversationRepository {
         return parseConversationData(item);
     }
 
+    /**
+     * conversationId로 대화 조회 - 최근 tailSize개 메시지만 로딩
+     * - GSI에서는 메시지 리스트를 제외한 메타데이터(turn_count 포함)만 프로젝션
+     * - 새 포맷이면 베이스 테이블에서 message_list[i] 인덱스 프로젝션으로 꼬리만 읽음
+     * - 레거시 포맷(messages JSON)은 문자열 전체를 읽어 파싱 후 잘라냄
+     */
+    public ConversationData getConversation(String conversationId, int tailSize) {
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":convId", AttributeValue.builder().s(conversationId).build());
+
+        QueryRequest queryRequest = QueryRequest.builder()
+            .tableName(tableName)
+            .indexName("conversation_id-index")
+            .keyConditionExpression("conversation_id = :convId")
+            .expressionAttributeValues(expressionValues)
+            .projectionExpression(META_PROJECTION + ", messages")
+            .expressionAttributeNames(META_PROJECTION_NAMES)
+            .limit(1)
+            .build();
+
+        QueryResponse response = dynamoDbClient.query(queryRequest);
+
+        if (response.items().isEmpty()) {
+            return null;
+        }
+
+        return toConversationData(response.items().get(0), conversationId, tailSize);
+    }
+
+    /**
+     * 조건부 쓰기 충돌 후 재조회 - 베이스 테이블 키로 강한 일관성 읽기
+     * - GSI(conversation_id-index)는 최종 일관성이라 방금 다른 요청이 쓴 version이 아직 안 보일 수 있다.
+     */
+    public ConversationData getConversationConsistent(ConversationData conversation, int tailSize) {
+        GetItemRequest request = GetItemRequest.builder()
+            .tableName(tableName)
+            .key(conversationKey(conversation.getStudentEmail(), conversation.getTimestamp()))
+            .projectionExpression(META_PROJECTION + ", messages")
+            .expressionAttributeNames(META_PROJECTION_NAMES)
+            .consistentRead(true)
+            .build();
+
+        GetItemResponse response = dynamoDbClient.getItem(request);
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return null;
+        }
+        return toConversationData(response.item(), conversation.getConversationId(), tailSize);
+    }
+
+    private ConversationData toConversationData(Map<String, AttributeValue> meta, String conversationId,
+                                                int tailSize) {
+        if (isExpired(meta)) {
+            return null;
+        }
+
+        if (meta.containsKey("messages")) {
+            ConversationData legacy = parseConversationData(meta);
+            List<ConversationMessage> all = legacy.getMessages();
+            List<ConversationMessage> tail = all.size() > tailSize
+                ? new ArrayList<>(all.subList(all.size() - tailSize, all.size()))
+                : all;
+            return legacy.withMessages(tail);
+        }
+
+        int turnCount = meta.containsKey("turn_count") ? Integer.parseInt(meta.get("turn_count").n()) : 0;
+        List<ConversationMessage> tail = turnCount <= 0 || tailSize <= 0
+            ? new ArrayList<>()
+            : getMessageTail(meta.get("student_email").s(), meta.get("timestamp").s(), turnCount, tailSize);
+
+        ConversationData data = new ConversationData(
+            meta.get("student_email").s(), meta.get("timestamp").s(), conversationId,
+            stringOrNull(meta, "topic"), stringOrNull(meta, "difficulty"),
+            stringOrNull(meta, "situation"), stringOrNull(meta, "role"),
+            tail, turnCount, false);
+        data.setVersion(longOrZero(meta, VERSION));
+        applySummary(data, meta);
+        return data;
+    }
+
+    private List<ConversationMessage> getMessageTail(String studentEmail, String timestamp,
+                                                     int turnCount, int tailSize) {
+        return getMessageRange(studentEmail, timestamp, Math.max(0, turnCount - tailSize), turnCount);
+    }
+
+    /**
+     * message_list[from, to) 구간만 읽기 (새 포맷 전용)
+     */
+    public List<ConversationMessage> getMessageRange(String studentEmail, String timestamp, int from, int to) {
+        if (to <= from) {
+            return new ArrayList<>();
+        }
+        StringBuilder projection = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (projection.length() > 0) projection.append(", ");
+            projection.append("#messages[").append(i).append("]");
+        }
+
+        GetItemRequest request = GetItemRequest.builder()
+            .tableName(tableName)
+            .key(conversationKey(studentEmail, timestamp))
+            .projectionExpression(projection.toString())
+            .expressionAttributeNames(Map.of("#messages", MESSAGE_LIST))
+            .consistentRead(true)
+            .build();
+
+        GetItemResponse response = dynamoDbClient.getItem(request);
+        if (!response.hasItem()) {
+            return new ArrayList<>();
+        }
+        return parseMessages(response.item());
+    }
+
+    /**
+     * 누적 요약 갱신 (이전 요약 구간 이후의 메시지만 접어 넣는 증분 방식)
+     * - summarized_count가 기대값과 다르면(다른 요청이 먼저 갱신) false
+     */
+    public boolean updateSummary(String studentEmail, String timestamp, String summary,
+                                 int summarizedCount, int expectedPreviousCount) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":summary", AttributeValue.builder().s(summary).build());
+        values.put(":count", AttributeValue.builder().n(String.valueOf(summarizedCount)).build());
+        values.put(":prev", AttributeValue.builder().n(String.valueOf(expectedPreviousCount)).build());
+
+        String condition = expectedPreviousCount == 0
+            ? "attribute_not_exists(summarized_count) OR summarized_count = :prev"
+            : "summarized_count = :prev";
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(conversationKey(studentEmail, timestamp))
+                .updateExpression("SET summary = :summary, summarized_count = :count")
+                .conditionExpression(condition)
+                .expressionAttributeValues(values)
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private static void applySummary(ConversationData data, Map<String, AttributeValue> item) {
+        String summary = stringOrNull(item, "summary");
+        int summarizedCount = item.containsKey("summarized_count")
+            ? Integer.parseInt(item.get("summarized_count").n())
+            : 0;
+        data.setSummary(summary, summarizedCount);
+    }
+
     private boolean isExpired(Map<String, AttributeValue> item) {
         try {
             if (item == null || !item.containsKey("ttl")) {
@@ -225,29 +608,132 @@ public class ConversationRepository {
     }
 
     private ConversationData parseConversationData(Map<String, AttributeValue> item) {
-        try {
-            String studentEmail = item.get("student_email").s();
-            String timestamp = item.get("timestamp").s();
-            String conversationId = item.get("conversation_id").s();
-            String topic = item.get("topic").s();
-            String difficulty = item.get("difficulty").s();
-            String situation = item.get("situation").s();
-            String role = item.get("role").s();
-            String messagesJson = item.get("messages").s();
+        String studentEmail = item.get("student_email").s();
+        String timestamp = item.get("timestamp").s();
+        String conversationId = item.get("conversation_id").s();
+        String topic = item.get("topic").s();
+        String difficulty = item.get("difficulty").s();
+        String situation = item.get("situation").s();
+        String role = item.get("role").s();
+
+        List<ConversationMessage> messages = parseMessages(item);
+        boolean legacyFormat = !item.containsKey(MESSAGE_LIST) && item.containsKey("messages");
+        int turnCount = item.containsKey("turn_count")
+            ? Integer.parseInt(item.get("turn_count").n())
+            : messages.size();
+
+        ConversationData data = new ConversationData(studentEmail, timestamp, conversationId, topic, difficulty,
+                                                     situation, role, messages, turnCount, legacyFormat);
+        data.setVersion(longOrZero(item, VERSION));
+        applySummary(data, item);
+        return data;
+    }
+
+    /**
+     * 새 포맷(message_list: L) 우선, 없으면 레거시 포맷(messages: JSON 문자열) 파싱
+     */
+    private List<ConversationMessage> parseMessages(Map<String, AttributeValue> item) {
+        if (item.containsKey(MESSAGE_LIST)) {
+            List<ConversationMessage> messages = new ArrayList<>();
+            for (AttributeValue v : item.get(MESSAGE_LIST).l()) {
+                Map<String, AttributeValue> m = v.m();
+                messages.add(new ConversationMessage(stringOrNull(m, "role"), stringOrNull(m, "content")));
+            }
+            return messages;
+        }
+        if (item.containsKey("messages")) {
+            try {
+                return objectMapper.readValue(
+                    item.get("messages").s(), new TypeReference<List<ConversationMessage>>() {});
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to parse conversation data", e);
+            }
+        }
+        return new ArrayList<>();
+    }
 
-            List<ConversationMessage> messages = objectMapper.readValue(
-                messagesJson, new TypeReference<List<ConversationMessage>>() {});
+    private static AttributeValue toMessageList(List<ConversationMessage> messages) {
+        List<AttributeValue> list = new ArrayList<>();
+        for (ConversationMessage m : messages) {
+            Map<String, AttributeValue> map = new HashMap<>();
+            map.put("role", AttributeValue.builder().s(m.getRole()).build());
+            map.put("content", AttributeValue.builder().s(m.getContent() == null ? "" : m.getContent()).build());
+            list.add(AttributeValue.builder().m(map).build());
+        }
+        return AttributeValue.builder().l(list).build();
+    }
 
-            return new ConversationData(studentEmail, timestamp, conversationId, topic, difficulty,
-                                       situation, role, messages);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to parse conversation data", e);
+    private static Map<String, AttributeValue> conversationKey(String studentEmail, String timestamp) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("student_email", AttributeValue.builder().s(studentEmail).build());
+        key.put("timestamp", AttributeValue.builder().s(timestamp).build());
+        return key;
+    }
+
+    private static String stringOrNull(Map<String, AttributeValue> item, String key) {
+        AttributeValue v = item.get(key);
+        return v == null ? null : v.s();
+    }
+
+    private static String toPreview(String firstMessage) {
+        if (firstMessage == null) {
+            return "";
+        }
+        return firstMessage.length() > PREVIEW_LENGTH
+            ? firstMessage.substring(0, PREVIEW_LENGTH) + "..."
+            : firstMessage;
+    }
+
+    private static long longOrZero(Map<String, AttributeValue> item, String key) {
+        AttributeValue v = item.get(key);
+        return v == null || v.n() == null ? 0 : Long.parseLong(v.n());
+    }
+
+    /**
+     * 대화 목록 한 페이지 (nextCursor가 null이면 마지막 페이지)
+     */
+    public static class ConversationPage {
+        private final List<ConversationSummary> conversations;
+        private final String nextCursor;
+
+        public ConversationPage(List<ConversationSummary> conversations, String nextCursor) {
+            this.conversations = conversations;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<ConversationSummary> getConversations() {
+            return conversations;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
         }
     }
 
     /**
      * 대화 데이터 클래스
      */
+    /**
+     * 이미 반영된 워커 요청의 결과
+     */
+    public static class AppliedRequest {
+        private final int turnCount;
+        private final String response;
+
+        AppliedRequest(int turnCount, String response) {
+            this.turnCount = turnCount;
+            this.response = response;
+        }
+
+        public int getTurnCount() {
+            return turnCount;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+    }
+
     public static class ConversationData {
         private final String studentEmail;
         private final String timestamp;
@@ -257,10 +743,22 @@ public class ConversationRepository {
         private final String situation;
         private final String role;
         private final List<ConversationMessage> messages;
+        private final int turnCount;          // 전체 메시지 수 (messages는 꼬리만 담고 있을 수 있음)
+        private final boolean legacyFormat;   // messages JSON 문자열로 저장된 이전 포맷 여부
+        private String summary;               // 앞부분 메시지의 누적 요약 (없으면 null)
+        private int summarizedCount;          // 요약에 반영된 앞부분 메시지 수
+        private long version;                 // 조회 시점의 아이템 버전 (version 도입 전 아이템은 0)
 
         public ConversationData(String studentEmail, String timestamp, String conversationId, String topic,
                                String difficulty, String situation, String role,
                                List<ConversationMessage> messages) {
+            this(studentEmail, timestamp, conversationId, topic, difficulty, situation, role,
+                messages, messages == null ? 0 : messages.size(), false);
+        }
+
+        public ConversationData(String studentEmail, String timestamp, String conversationId, String topic,
+                               String difficulty, String situation, String role,
+                               List<ConversationMessage> messages, int turnCount, boolean legacyFormat) {
             this.studentEmail = studentEmail;
             this.timestamp = timestamp;
             this.conversationId = conversationId;
@@ -269,6 +767,21 @@ public class ConversationRepository {
             this.situation = situation;
             this.role = role;
             this.messages = messages;
+            this.turnCount = turnCount;
+            this.legacyFormat = legacyFormat;
+        }
+
+        ConversationData withMessages(List<ConversationMessage> tail) {
+            ConversationData data = new ConversationData(studentEmail, timestamp, conversationId, topic, difficulty,
+                situation, role, tail, turnCount, legacyFormat);
+            data.setSummary(summary, summarizedCount);
+            data.setVersion(version);
+            return data;
+        }
+
+        void setSummary(String summary, int summarizedCount) {
+            this.summary = summary;
+            this.summarizedCount = summarizedCount;
         }
 
         public String getStudentEmail() {
@@ -302,5 +815,29 @@ public class ConversationRepository {
         public List<ConversationMessage> getMessages() {
             return messages;
         }
+
+        public int getTurnCount() {
+            return turnCount;
+        }
+
+        public boolean isLegacyFormat() {
+            return legacyFormat;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        public int getSummarizedCount() {
+            return summarizedCount;
+        }
+
+        void setVersion(long version) {
+            this.version = version;
+        }
+
+        public long getVersion() {
+            return version;
+        }
     }
 }
@@ -0,0 +1,70 @@
+package sentences.service;
+
+import sentences.model.ConversationMessage;
+import sentences.model.SystemPrompt;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 긴 대화의 앞부분을 누적 요약으로 압축
+ * - 대화가 TRIGGER_MESSAGES 이상이면 최근 RECENT_MESSAGES개를 제외한 앞부분을 요약에 접어 넣는다.
+ * - 기존 요약 + 새로 밀려난 메시지만 입력으로 주고 갱신 (전체 재생성 없음)
+ */
+public class ConversationSummarizer {
+
+    public static final int TRIGGER_MESSAGES = parseIntEnv("CHAT_SUMMARY_TRIGGER_MESSAGES", 8);
+    public static final int RECENT_MESSAGES = parseIntEnv("CHAT_RECENT_MESSAGES", 6);
+
+    private static final SystemPrompt SUMMARY_SYSTEM_PROMPT = SystemPrompt.of("""
+        You maintain a running summary of an English role-play conversation between a Korean learner (User)
+        and an AI conversation partner (Assistant).
+
+        ## Rules
+        - Merge the new messages into the existing summary. Do not drop facts from the existing summary.
+        - Keep concrete details the conversation depends on (names, numbers, times, items, decisions, open questions).
+        - Note what the user has already said or asked so the assistant does not repeat itself.
+        - Write in English, at most 120 words, plain text only (no markdown, no preamble).
+        """);
+
+    private ConversationSummarizer() {}
+
+    /**
+     * 요약이 필요한 경우 새로 접어 넣을 구간의 끝(exclusive)을 반환, 필요 없으면 -1
+     */
+    public static int foldUntil(int turnCount, int summarizedCount) {
+        if (turnCount < TRIGGER_MESSAGES) {
+            return -1;
+        }
+        int foldTo = turnCount - RECENT_MESSAGES;
+        // user + assistant 한 턴 단위로 접는다
+        return foldTo - summarizedCount >= 2 ? foldTo : -1;
+    }
+
+    public static String summarize(ClaudeApiService claudeApiService, String previousSummary,
+                                   List<ConversationMessage> newMessages) throws IOException {
+        StringBuilder userPrompt = new StringBuilder();
+        userPrompt.append("## Existing summary\n")
+            .append(previousSummary == null || previousSummary.isBlank() ? "(none)" : previousSummary.trim())
+            .append("\n\n## New messages\n");
+        for (ConversationMessage m : newMessages) {
+            userPrompt.append("user".equals(m.getRole()) ? "User: " : "Assistant: ")
+                .append(m.getContent()).append("\n");
+        }
+        userPrompt.append("\nReturn the updated summary only.");
+
+        return claudeApiService.callClaudeApi(
+            ModelRouter.Route.SUMMARY, SUMMARY_SYSTEM_PROMPT, userPrompt.toString(), false).trim();
+    }
+
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+}
@@ -71,12 +71,39 @@ public class JobStatusService {
     }
 
     public Map<String, AttributeValue> getJobStatus(String requestId) {
+        return getJobStatus(requestId, false);
+    }
+
+    /**
+     * 작업이 COMPLETED/FAILED가 되거나 waitMs가 지날 때까지 대기 (long-poll)
+     * - 조회 간격은 100ms에서 시작해 1.5배씩 늘려 최대 1초 (완료 직후 응답 + 긴 작업은 조회 수 절감)
+     *
+     * @return 마지막으로 조회한 상태 (작업이 없으면 null)
+     */
+    public Map<String, AttributeValue> waitForJobStatus(String requestId, long waitMs) {
+        long deadline = System.currentTimeMillis() + waitMs;
+        long delayMs = 100;
+        while (true) {
+            Map<String, AttributeValue> item = getJobStatus(requestId, true);
+            if (item == null || (item.containsKey("status") && isTerminal(item.get("status").s()))) {
+                return item;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || !sleepQuietly(Math.min(delayMs, remaining))) {
+                return item;
+            }
+            delayMs = Math.min(1000, delayMs * 3 / 2);
+        }
+    }
+
+    private Map<String, AttributeValue> getJobStatus(String requestId, boolean consistentRead) {
         Map<String, AttributeValue> key = new HashMap<>();
         key.put("job_id", AttributeValue.builder().s(requestId).build());
 
         GetItemRequest request = GetItemRequest.builder()
                 .tableName(tableName)
                 .key(key)
+                .consistentRead(consistentRead)
                 .build();
 
         GetItemResponse response = dynamoDbClient.getItem(request);
@@ -87,4 +114,18 @@ public class JobStatusService {
 
         return response.item();
     }
+
+    private static boolean isTerminal(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status);
+    }
+
+    private static boolean sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
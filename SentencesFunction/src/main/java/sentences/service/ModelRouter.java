@@ -0,0 +1,153 @@
+package sentences.service;
+
+import com.speaktracker.common.tts.MetricsLogger;
+import sentences.util.LatencyTracker;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 호출 위치(route)별 모델/max_tokens 라우팅 테이블
+ * - 출력이 짧은 호출(레벨 판정, 피드백 JSON, 요약)은 빠른 모델, 생성/대화는 기본 모델
+ * - route별 primary 모델의 최근 p95 지연 또는 에러율이 기준을 넘으면 cooldown 동안 fallback 모델로 보낸다.
+ * - 환경변수 CLAUDE_ROUTE_{ROUTE}_MODEL / _MAX_TOKENS / _SLO_P95_MS 로 route별 덮어쓰기
+ */
+public class ModelRouter {
+
+    public static final String DEFAULT_FAST_MODEL = "claude-haiku-4-5-20251001";
+
+    private static final String METRIC_FUNCTION = "ModelRouter";
+    private static final int WINDOW_SIZE = 50;
+    private static final int MIN_SAMPLES = 10;
+    private static final double MAX_ERROR_RATE = 0.2;
+
+    public enum Route {
+        GENERATE(false, 2000, 20000),
+        RECOMMEND(false, 2000, 15000),
+        FEEDBACK(true, 1000, 6000),
+        LEVEL(true, 10, 3000),
+        CHAT(false, 300, 6000),
+        SUMMARY(true, 400, 8000);
+
+        private final boolean fast;
+        private final int maxTokens;
+        private final long sloP95Ms;
+
+        Route(boolean fast, int maxTokens, long sloP95Ms) {
+            this.fast = fast;
+            this.maxTokens = maxTokens;
+            this.sloP95Ms = sloP95Ms;
+        }
+    }
+
+    private final Map<Route, RouteState> states = new EnumMap<>(Route.class);
+    private final long cooldownMs;
+
+    public ModelRouter(String defaultModel) {
+        String fastModel = envOrDefault("CLAUDE_FAST_MODEL", DEFAULT_FAST_MODEL);
+        this.cooldownMs = parseLongEnv("CLAUDE_ROUTE_COOLDOWN_MS", 60_000);
+
+        for (Route route : Route.values()) {
+            String prefix = "CLAUDE_ROUTE_" + route.name() + "_";
+            String primary = envOrDefault(prefix + "MODEL", route.fast ? fastModel : defaultModel);
+            String fallback = route.fast ? defaultModel : fastModel;
+            if (fallback.equals(primary)) {
+                fallback = primary.equals(defaultModel) ? fastModel : defaultModel;
+            }
+            states.put(route, new RouteState(
+                primary,
+                fallback,
+                (int) parseLongEnv(prefix + "MAX_TOKENS", route.maxTokens),
+                parseLongEnv(prefix + "SLO_P95_MS", route.sloP95Ms)));
+        }
+    }
+
+    /**
+     * 이번 호출에 사용할 모델 (primary가 cooldown 중이면 fallback)
+     */
+    public String select(Route route) {
+        RouteState state = states.get(route);
+        return System.currentTimeMillis() < state.cooldownUntil ? state.fallbackModel : state.primaryModel;
+    }
+
+    public String primaryModel(Route route) {
+        return states.get(route).primaryModel;
+    }
+
+    public String fallbackModel(Route route) {
+        return states.get(route).fallbackModel;
+    }
+
+    public int maxTokens(Route route) {
+        return states.get(route).maxTokens;
+    }
+
+    /**
+     * 호출 결과 기록. primary의 p95/에러율이 기준을 넘으면 cooldown 시작
+     *
+     * @param success 서버측 실패(5xx/429/타임아웃)가 아니면 true
+     */
+    public void record(Route route, String model, long latencyMs, boolean success) {
+        RouteState state = states.get(route);
+        MetricsLogger.SENTENCES.putMetric(METRIC_FUNCTION, route.name() + "LatencyMs", latencyMs, "Milliseconds");
+        if (!model.equals(state.primaryModel)) {
+            return;
+        }
+
+        LatencyTracker tracker = state.tracker;
+        tracker.record(latencyMs, success);
+        if (tracker.size() < MIN_SAMPLES) {
+            return;
+        }
+
+        long p50 = tracker.p50();
+        long p95 = tracker.p95();
+        double errorRate = tracker.errorRate();
+        if (p95 > state.sloP95Ms || errorRate > MAX_ERROR_RATE) {
+            synchronized (state) {
+                if (System.currentTimeMillis() < state.cooldownUntil) {
+                    return;
+                }
+                state.cooldownUntil = System.currentTimeMillis() + cooldownMs;
+            }
+            // cooldown 후에는 새 샘플로 다시 판단
+            tracker.reset();
+            System.err.println("Model route " + route + " falling back to " + state.fallbackModel
+                + " for " + cooldownMs + "ms (p50=" + p50 + "ms p95=" + p95 + "ms slo=" + state.sloP95Ms
+                + "ms errorRate=" + errorRate + ")");
+            MetricsLogger.SENTENCES.putCount(METRIC_FUNCTION, route.name() + "Fallback");
+        }
+    }
+
+    private static String envOrDefault(String key, String defaultValue) {
+        String raw = System.getenv(key);
+        return (raw == null || raw.isBlank()) ? defaultValue : raw.trim();
+    }
+
+    private static long parseLongEnv(String key, long defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            long v = Long.parseLong(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
+    private static final class RouteState {
+        private final String primaryModel;
+        private final String fallbackModel;
+        private final int maxTokens;
+        private final long sloP95Ms;
+        private final LatencyTracker tracker = new LatencyTracker(WINDOW_SIZE);
+        private volatile long cooldownUntil;
+
+        private RouteState(String primaryModel, String fallbackModel, int maxTokens, long sloP95Ms) {
+            this.primaryModel = primaryModel;
+            this.fallbackModel = fallbackModel;
+            this.maxTokens = maxTokens;
+            this.sloP95Ms = sloP95Ms;
+        }
+    }
+}
@@ -2,16 +2,26 @@ package sentences.service;
 
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class SentenceAudioService {
+    private static final int BATCH_WRITE_LIMIT = 25;
+    private static final int BATCH_WRITE_MAX_ATTEMPTS = 5;
+
     private final DynamoDbClient dynamoDbClient;
     private final String tableName;
 
@@ -28,6 +38,23 @@ public class SentenceAudioService {
         String voiceId,
         String jobId,
         long ttlEpochSeconds
+    ) {
+        PutItemRequest req = PutItemRequest.builder()
+            .tableName(tableName)
+            .item(pendingItem(sessionId, sentenceIndex, english, korean, voiceId, jobId, ttlEpochSeconds))
+            .build();
+
+        dynamoDbClient.putItem(req);
+    }
+
+    public Map<String, AttributeValue> pendingItem(
+        String sessionId,
+        int sentenceIndex,
+        String english,
+        String korean,
+        String voiceId,
+        String jobId,
+        long ttlEpochSeconds
     ) {
         Map<String, AttributeValue> item = new HashMap<>();
         item.put("sessionId", AttributeValue.builder().s(sessionId).build());
@@ -40,13 +67,84 @@ public class SentenceAudioService {
         if (korean != null) item.put("korean", AttributeValue.builder().s(korean).build());
         if (voiceId != null) item.put("voiceId", AttributeValue.builder().s(voiceId).build());
         if (jobId != null) item.put("jobId", AttributeValue.builder().s(jobId).build());
+        return item;
+    }
 
-        PutItemRequest req = PutItemRequest.builder()
-            .tableName(tableName)
-            .item(item)
-            .build();
+    /**
+     * 이미 합성된 오디오(S3 캐시)를 재사용하는 경우 - TTS 큐를 거치지 않고 바로 COMPLETED로 생성
+     */
+    public Map<String, AttributeValue> completedItem(
+        String sessionId,
+        int sentenceIndex,
+        String english,
+        String korean,
+        String voiceId,
+        String s3Key,
+        Long durationMs,
+        long ttlEpochSeconds
+    ) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("sessionId", AttributeValue.builder().s(sessionId).build());
+        item.put("sentenceIndex", AttributeValue.builder().n(String.valueOf(sentenceIndex)).build());
+        item.put("status", AttributeValue.builder().s("COMPLETED").build());
+        item.put("requestedAt", AttributeValue.builder().s(Instant.now().toString()).build());
+        item.put("completedAt", AttributeValue.builder().s(Instant.now().toString()).build());
+        item.put("s3Key", AttributeValue.builder().s(s3Key).build());
+        item.put("ttl", AttributeValue.builder().n(String.valueOf(ttlEpochSeconds)).build());
 
-        dynamoDbClient.putItem(req);
+        if (english != null) item.put("english", AttributeValue.builder().s(english).build());
+        if (korean != null) item.put("korean", AttributeValue.builder().s(korean).build());
+        if (voiceId != null) item.put("voiceId", AttributeValue.builder().s(voiceId).build());
+        if (durationMs != null) item.put("durationMs", AttributeValue.builder().n(String.valueOf(durationMs)).build());
+        return item;
+    }
+
+    /**
+     * 세션 row 일괄 저장 (BatchWriteItem 25개 단위, UnprocessedItems는 지수 백오프로 재시도)
+     */
+    public void putBatch(List<Map<String, AttributeValue>> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < items.size(); i += BATCH_WRITE_LIMIT) {
+            List<WriteRequest> writes = new ArrayList<>();
+            for (Map<String, AttributeValue> item : items.subList(i, Math.min(i + BATCH_WRITE_LIMIT, items.size()))) {
+                writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+            }
+
+            Map<String, List<WriteRequest>> pending = Map.of(tableName, writes);
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                BatchWriteItemResponse resp = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+                pending = resp.hasUnprocessedItems() ? resp.unprocessedItems() : Map.of();
+                if (pending.isEmpty()) {
+                    break;
+                }
+                if (attempt >= BATCH_WRITE_MAX_ATTEMPTS) {
+                    throw new RuntimeException("Failed to write sentence audio rows: "
+                        + pending.getOrDefault(tableName, List.of()).size() + " unprocessed");
+                }
+                try {
+                    Thread.sleep(25L << attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while retrying sentence audio batch write", e);
+                }
+            }
+        }
+    }
+
+    public Map<String, AttributeValue> getItem(String sessionId, int sentenceIndex) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("sessionId", AttributeValue.builder().s(sessionId).build());
+        key.put("sentenceIndex", AttributeValue.builder().n(String.valueOf(sentenceIndex)).build());
+
+        GetItemResponse resp = dynamoDbClient.getItem(GetItemRequest.builder()
+            .tableName(tableName)
+            .key(key)
+            .build());
+        return resp.hasItem() ? resp.item() : null;
     }
 
     public List<Map<String, AttributeValue>> queryBySessionId(String sessionId) {
@@ -0,0 +1,144 @@
+package sentences.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import sentences.model.Sentence;
+import sentences.model.SystemPrompt;
+import sentences.util.JsonArrayStreamParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 주제/난이도별 연습 문장 생성 (Claude 호출 + JSON 파싱)
+ * - /api/sentences/generate 실시간 생성과 SentencePoolWorker 사전 생성이 같은 프롬프트를 사용
+ */
+public class SentenceGenerator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int DEFAULT_COUNT = 5;
+
+    private SentenceGenerator() {}
+
+    /**
+     * 문장 생성. 요청마다 seed를 넣어 다양성을 높이므로 응답 캐시는 사용하지 않는다.
+     */
+    public static List<Sentence> generate(ClaudeApiService claudeApiService, String topic, String difficulty)
+            throws IOException {
+        String claudeResponse = claudeApiService.callClaudeApi(
+            ModelRouter.Route.GENERATE, buildSystemPrompt(topic, difficulty), buildUserPrompt(DEFAULT_COUNT), false);
+        return parseSentences(claudeResponse);
+    }
+
+    /**
+     * 스트리밍 생성 - 배열의 문장 객체가 닫힐 때마다 onSentence 호출 (나머지 문장 생성 중에 후처리 시작)
+     * 스트림에서 한 건도 건지지 못하면 전체 응답을 기존 방식으로 파싱한 뒤 순서대로 onSentence 호출
+     *
+     * @param count 요청할 문장 수 (풀에서 일부를 채운 경우 부족분만)
+     */
+    public static List<Sentence> generateStreaming(ClaudeApiService claudeApiService, String topic,
+                                                   String difficulty, int count, Consumer<Sentence> onSentence)
+            throws IOException {
+        JsonArrayStreamParser<Sentence> parser =
+            new JsonArrayStreamParser<>(OBJECT_MAPPER, Sentence.class, onSentence);
+        String claudeResponse = claudeApiService.streamClaudeApi(ModelRouter.Route.GENERATE,
+            SystemPrompt.of(buildSystemPrompt(topic, difficulty)), buildUserPrompt(count), parser::feed);
+
+        if (!parser.getElements().isEmpty()) {
+            return parser.getElements();
+        }
+        List<Sentence> sentences = parseSentences(claudeResponse);
+        if (onSentence != null) {
+            sentences.forEach(onSentence);
+        }
+        return sentences;
+    }
+
+    private static String buildUserPrompt(int count) {
+        // 요청마다 seed를 넣어 다양성/랜덤성을 높임 (저장/히스토리 없이 프롬프트만 강화)
+        String diversitySeed = UUID.randomUUID().toString();
+        return """
+            Generate exactly %d sentences now with maximum diversity.
+            Seed: %s
+            Requirements:
+            - Keep the difficulty level exactly as specified.
+            - Treat each sentence as a different micro-scenario.
+            - Each sentence must have 2+ concrete details (numbers, times, names, item/model, seat/gate, address-like detail, etc.).
+            - Avoid repeating the same opening words or template phrases across the sentences.
+            - Output JSON array only (no extra text).
+            """.formatted(count, diversitySeed);
+    }
+
+    private static List<Sentence> parseSentences(String claudeResponse) throws IOException {
+        try {
+            return OBJECT_MAPPER.readValue(claudeResponse, new TypeReference<List<Sentence>>() {});
+        } catch (Exception parseError) {
+            // Claude가 간혹 JSON 외 텍스트를 섞어 반환하는 경우를 대비해 JSON 배열만 추출 시도
+            if (claudeResponse == null) {
+                throw new IllegalArgumentException("Claude response is null");
+            }
+            int start = claudeResponse.indexOf('[');
+            int end = claudeResponse.lastIndexOf(']');
+            if (start < 0 || end < 0 || end <= start) {
+                throw new IllegalArgumentException("Claude response does not contain a JSON array");
+            }
+            return OBJECT_MAPPER.readValue(
+                claudeResponse.substring(start, end + 1).trim(), new TypeReference<List<Sentence>>() {});
+        }
+    }
+
+    private static String buildSystemPrompt(String topic, String difficulty) {
+        String topicDescription = TopicScenariosProvider.getTopicDescription(topic);
+        String topicScenarios = TopicScenariosProvider.getTopicScenarios(topic);
+
+        return String.format("""
+            You are an expert English sentence generator for Korean language learners.
+
+            ## Task
+            Generate exactly 10 practical English sentences for the topic: %s
+            Difficulty level: %s
+
+            ## Topic Context: %s
+
+            ## Difficulty Guidelines
+            - general: Aim for maximum diversity. Do NOT reuse common textbook templates.
+            - easy: 5-10 words, present tense, basic vocabulary, simple sentence structure
+            - medium: 10-15 words, various tenses, compound sentences, common idioms
+            - hard: 15-25 words, complex grammar, subjunctive mood, nuanced expressions, formal/polite registers
+
+            ## Critical Rules
+            1. NO generic greetings (Hello, Hi, How are you, Thank you, Nice to meet you)
+            2. NO clichéd phrases (Have a nice day, See you later)
+            3. Each sentence must be practically useful in real situations
+            4. Each sentence must include at least 2 concrete details (numbers, times, names, brands, locations, seat/gate, etc.)
+            5. Make the 10 sentences maximally different from each other:
+               - Different micro-scenario per sentence (place, goal, relationship, emotion, constraint)
+               - Different intent per sentence (question, request, confirmation, complaint, negotiation, apology, refusal, clarification, suggestion, correction)
+               - Different structure: do NOT repeat the same opening pattern
+            6. Include questions, statements, and requests in mix
+            7. Reflect realistic scenarios a Korean traveler/learner would encounter
+            8. Avoid overusing these common templates across the set (at most once each):
+               - \"I'd like...\"
+               - \"Can I get...\"
+               - \"Could you please...\"
+
+            ## Topic-Specific Scenarios for %s
+            %s
+
+            ## Output Format (JSON only, no markdown)
+            Return a JSON array exactly like this:
+            [
+              {
+                "id": 1,
+                "text": "English sentence here",
+                "translation": "자연스러운 한국어 번역",
+                "situation": "Brief context when this would be used"
+              }
+            ]
+
+            IMPORTANT: Return ONLY the JSON array, no markdown code blocks, no explanations.
+            """, topic, difficulty, topicDescription, topic, topicScenarios);
+    }
+}
@@ -0,0 +1,406 @@
+package sentences.service;
+
+import com.speaktracker.common.tts.TtsKeys;
+import sentences.model.Sentence;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * (topic, difficulty)별 사전 생성 문장 풀
+ * - pool_key = "{topic}#{difficulty}", sentence_id = 문장 텍스트 해시 (같은 문장 중복 적재 방지)
+ * - 학생별 최근 본 문장은 pool_key = "seen#{email}" 파티션에 TTL과 함께 기록
+ * - 꺼낼 때는 조건부 Delete를 한 트랜잭션으로 묶어 동시 요청 간 중복 배포를 막는다.
+ * - 풀별 수요(요청 문장 수)는 pool_key = "stats#{poolKey}" 카운터에 누적, 보충 워커가 실행마다 읽고 0으로 되돌린다.
+ */
+public class SentencePoolService {
+
+    public static final List<String> DIFFICULTIES = List.of("easy", "medium", "hard");
+
+    private static final long POOL_ITEM_TTL_SECONDS = 14L * 24 * 60 * 60;  // 14일
+    private static final long SEEN_TTL_SECONDS = 30L * 24 * 60 * 60;       // 30일
+    private static final int CANDIDATE_QUERY_LIMIT = 50;
+    private static final int CLAIM_MAX_ROUNDS = 3;
+    private static final String DEMAND_SENTENCE_ID = "demand";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public SentencePoolService(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    public static String poolKey(String topic, String difficulty) {
+        return topic + "#" + difficulty;
+    }
+
+    /**
+     * 풀에 남은 문장 수
+     */
+    public int countAvailable(String poolKey) {
+        int count = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder builder = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("pool_key = :pk")
+                .expressionAttributeValues(Map.of(":pk", AttributeValue.builder().s(poolKey).build()))
+                .select(Select.COUNT);
+            if (startKey != null) {
+                builder.exclusiveStartKey(startKey);
+            }
+            QueryResponse response = dynamoDbClient.query(builder.build());
+            count += response.count();
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey()
+                : null;
+        } while (startKey != null);
+        return count;
+    }
+
+    /**
+     * 문장 적재 (이미 있는 문장은 건너뜀)
+     *
+     * @return 새로 적재된 문장
+     */
+    public List<PoolSentence> addSentences(String poolKey, List<Sentence> sentences, String voiceId) {
+        long ttl = Instant.now().plusSeconds(POOL_ITEM_TTL_SECONDS).getEpochSecond();
+        List<PoolSentence> added = new ArrayList<>();
+
+        for (Sentence s : sentences) {
+            if (s == null || s.getText() == null || s.getText().isBlank()) {
+                continue;
+            }
+            String sentenceId = TtsKeys.hash(s.getText(), voiceId);
+            PoolSentence pooled = new PoolSentence(sentenceId, s.getText(), s.getTranslation(), s.getSituation(),
+                "pool-" + sentenceId, null, null);
+
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("pool_key", AttributeValue.builder().s(poolKey).build());
+            item.put("sentence_id", AttributeValue.builder().s(sentenceId).build());
+            item.put("text", AttributeValue.builder().s(s.getText()).build());
+            if (s.getTranslation() != null) item.put("translation", AttributeValue.builder().s(s.getTranslation()).build());
+            if (s.getSituation() != null) item.put("situation", AttributeValue.builder().s(s.getSituation()).build());
+            item.put("warm_session_id", AttributeValue.builder().s(pooled.getWarmSessionId()).build());
+            item.put("created_at", AttributeValue.builder().s(Instant.now().toString()).build());
+            item.put("ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
+
+            try {
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(sentence_id)")
+                    .build());
+                added.add(pooled);
+            } catch (ConditionalCheckFailedException e) {
+                // 같은 문장이 이미 풀에 있음
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 오디오 사전 합성이 아직 반영되지 않은 문장
+     */
+    public List<PoolSentence> findAudioPending(String poolKey) {
+        List<PoolSentence> pending = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder builder = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("pool_key = :pk")
+                .filterExpression("attribute_not_exists(s3_key)")
+                .expressionAttributeValues(Map.of(":pk", AttributeValue.builder().s(poolKey).build()));
+            if (startKey != null) {
+                builder.exclusiveStartKey(startKey);
+            }
+            QueryResponse response = dynamoDbClient.query(builder.build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                pending.add(PoolSentence.from(item));
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey()
+                : null;
+        } while (startKey != null);
+        return pending;
+    }
+
+    public void markAudioReady(String poolKey, String sentenceId, String s3Key, Long durationMs) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":s3Key", AttributeValue.builder().s(s3Key).build());
+
+        String updateExpression = "SET s3_key = :s3Key";
+        if (durationMs != null) {
+            updateExpression += ", duration_ms = :durationMs";
+            values.put(":durationMs", AttributeValue.builder().n(String.valueOf(durationMs)).build());
+        }
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(poolItemKey(poolKey, sentenceId))
+                .updateExpression(updateExpression)
+                .conditionExpression("attribute_exists(sentence_id)")
+                .expressionAttributeValues(values)
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // 그 사이 이미 배포된 문장
+        }
+    }
+
+    /**
+     * 풀에서 최대 count개 꺼냄 (학생이 최근 본 문장 제외)
+     * - 정렬키가 해시라 임의 지점부터 조회하면 매번 다른 후보가 나온다.
+     * - 후보를 한 번에 가져가고(claim), 다른 요청에 먼저 배포된 만큼만 다음 후보로 다시 시도
+     */
+    public List<PoolSentence> pop(String poolKey, String studentEmail, int count) {
+        recordDemand(poolKey, count);
+        Set<String> seen = studentEmail == null ? Set.of() : getSeenSentenceIds(studentEmail);
+
+        List<Map<String, AttributeValue>> candidates = queryCandidates(poolKey, randomHexKey());
+        if (candidates.size() < count) {
+            candidates.addAll(queryCandidates(poolKey, null));
+        }
+
+        List<Map<String, AttributeValue>> eligible = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Map<String, AttributeValue> item : candidates) {
+            String sentenceId = item.get("sentence_id").s();
+            if (ids.add(sentenceId) && !seen.contains(sentenceId)) {
+                eligible.add(item);
+            }
+        }
+
+        List<PoolSentence> popped = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < CLAIM_MAX_ROUNDS && popped.size() < count && next < eligible.size(); round++) {
+            int take = Math.min(count - popped.size(), eligible.size() - next);
+            popped.addAll(claim(poolKey, studentEmail, eligible.subList(next, next + take)));
+            next += take;
+        }
+        return popped;
+    }
+
+    /**
+     * 조건부 Delete(+ 학생별 본 문장 기록)를 TransactWriteItems 한 번으로 처리
+     * - 이미 배포된 문장 때문에 취소되면 CancellationReasons로 그 문장만 빼고 다시 시도
+     */
+    private List<PoolSentence> claim(String poolKey, String studentEmail, List<Map<String, AttributeValue>> items) {
+        List<Map<String, AttributeValue>> batch = new ArrayList<>(items);
+        long seenTtl = Instant.now().plusSeconds(SEEN_TTL_SECONDS).getEpochSecond();
+
+        while (!batch.isEmpty()) {
+            List<TransactWriteItem> writes = new ArrayList<>();
+            for (Map<String, AttributeValue> item : batch) {
+                writes.add(TransactWriteItem.builder()
+                    .delete(Delete.builder()
+                        .tableName(tableName)
+                        .key(poolItemKey(poolKey, item.get("sentence_id").s()))
+                        .conditionExpression("attribute_exists(sentence_id)")
+                        .build())
+                    .build());
+            }
+            if (studentEmail != null) {
+                for (Map<String, AttributeValue> item : batch) {
+                    Map<String, AttributeValue> seenItem = new HashMap<>();
+                    seenItem.put("pool_key", AttributeValue.builder().s(seenKey(studentEmail)).build());
+                    seenItem.put("sentence_id", item.get("sentence_id"));
+                    seenItem.put("ttl", AttributeValue.builder().n(String.valueOf(seenTtl)).build());
+                    writes.add(TransactWriteItem.builder()
+                        .put(Put.builder().tableName(tableName).item(seenItem).build())
+                        .build());
+                }
+            }
+
+            try {
+                dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(writes)
+                    .build());
+                List<PoolSentence> claimed = new ArrayList<>();
+                for (Map<String, AttributeValue> item : batch) {
+                    claimed.add(PoolSentence.from(item));
+                }
+                return claimed;
+            } catch (TransactionCanceledException e) {
+                // 다른 요청이 먼저 가져간 문장(Delete 조건 실패)만 빼고 재시도
+                List<Map<String, AttributeValue>> remaining = new ArrayList<>();
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                for (int i = 0; i < batch.size() && i < reasons.size(); i++) {
+                    if ("None".equals(reasons.get(i).code())) {
+                        remaining.add(batch.get(i));
+                    }
+                }
+                if (remaining.size() == batch.size()) {
+                    // 충돌 원인이 문장 쪽이 아님 (이번 후보는 포기)
+                    System.err.println("Sentence pool claim cancelled: " + e.getMessage());
+                    return List.of();
+                }
+                batch = remaining;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * 풀 수요 누적 (요청한 문장 수, 꺼낸 수와 무관) - 트랜잭션 밖에서 갱신해 동시 pop 간 충돌을 만들지 않음
+     */
+    private void recordDemand(String poolKey, int count) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(poolItemKey(statsKey(poolKey), DEMAND_SENTENCE_ID))
+                .updateExpression("ADD demand :n")
+                .expressionAttributeValues(Map.of(":n", AttributeValue.builder().n(String.valueOf(count)).build()))
+                .build());
+        } catch (Exception e) {
+            System.err.println("Failed to record sentence pool demand: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 지난 조회 이후 누적된 수요를 읽고 0으로 초기화 (보충 워커 실행 간격당 수요)
+     */
+    public int drainDemand(String poolKey) {
+        UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+            .tableName(tableName)
+            .key(poolItemKey(statsKey(poolKey), DEMAND_SENTENCE_ID))
+            .updateExpression("SET demand = :zero")
+            .expressionAttributeValues(Map.of(":zero", AttributeValue.builder().n("0").build()))
+            .returnValues(ReturnValue.UPDATED_OLD)
+            .build());
+        if (!response.hasAttributes() || !response.attributes().containsKey("demand")) {
+            return 0;
+        }
+        return Integer.parseInt(response.attributes().get("demand").n());
+    }
+
+    private List<Map<String, AttributeValue>> queryCandidates(String poolKey, String fromSentenceId) {
+        QueryRequest.Builder builder = QueryRequest.builder()
+            .tableName(tableName)
+            .expressionAttributeValues(fromSentenceId == null
+                ? Map.of(":pk", AttributeValue.builder().s(poolKey).build())
+                : Map.of(":pk", AttributeValue.builder().s(poolKey).build(),
+                         ":from", AttributeValue.builder().s(fromSentenceId).build()))
+            .keyConditionExpression(fromSentenceId == null
+                ? "pool_key = :pk"
+                : "pool_key = :pk AND sentence_id >= :from")
+            .limit(CANDIDATE_QUERY_LIMIT);
+        return new ArrayList<>(dynamoDbClient.query(builder.build()).items());
+    }
+
+    private Set<String> getSeenSentenceIds(String studentEmail) {
+        Set<String> seen = new HashSet<>();
+        long now = Instant.now().getEpochSecond();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder builder = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("pool_key = :pk")
+                .expressionAttributeValues(Map.of(":pk", AttributeValue.builder().s(seenKey(studentEmail)).build()))
+                .projectionExpression("sentence_id, #ttl")
+                .expressionAttributeNames(Map.of("#ttl", "ttl"));
+            if (startKey != null) {
+                builder.exclusiveStartKey(startKey);
+            }
+            QueryResponse response = dynamoDbClient.query(builder.build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                // TTL 삭제 지연 대비
+                if (item.containsKey("ttl") && Long.parseLong(item.get("ttl").n()) < now) {
+                    continue;
+                }
+                seen.add(item.get("sentence_id").s());
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey()
+                : null;
+        } while (startKey != null);
+        return seen;
+    }
+
+    private static String seenKey(String studentEmail) {
+        return "seen#" + studentEmail;
+    }
+
+    private static String statsKey(String poolKey) {
+        return "stats#" + poolKey;
+    }
+
+    private static Map<String, AttributeValue> poolItemKey(String poolKey, String sentenceId) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("pool_key", AttributeValue.builder().s(poolKey).build());
+        key.put("sentence_id", AttributeValue.builder().s(sentenceId).build());
+        return key;
+    }
+
+    private static String randomHexKey() {
+        return String.format("%016x", new Random().nextLong());
+    }
+
+    public static class PoolSentence {
+        private final String sentenceId;
+        private final String text;
+        private final String translation;
+        private final String situation;
+        private final String warmSessionId;
+        private final String s3Key;         // 사전 합성 완료 시 설정
+        private final Long durationMs;
+
+        public PoolSentence(String sentenceId, String text, String translation, String situation,
+                            String warmSessionId, String s3Key, Long durationMs) {
+            this.sentenceId = sentenceId;
+            this.text = text;
+            this.translation = translation;
+            this.situation = situation;
+            this.warmSessionId = warmSessionId;
+            this.s3Key = s3Key;
+            this.durationMs = durationMs;
+        }
+
+        static PoolSentence from(Map<String, AttributeValue> item) {
+            return new PoolSentence(
+                item.get("sentence_id").s(),
+                item.get("text").s(),
+                item.containsKey("translation") ? item.get("translation").s() : null,
+                item.containsKey("situation") ? item.get("situation").s() : null,
+                item.containsKey("warm_session_id") ? item.get("warm_session_id").s() : null,
+                item.containsKey("s3_key") ? item.get("s3_key").s() : null,
+                item.containsKey("duration_ms") ? Long.parseLong(item.get("duration_ms").n()) : null
+            );
+        }
+
+        public String getSentenceId() {
+            return sentenceId;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getTranslation() {
+            return translation;
+        }
+
+        public String getSituation() {
+            return situation;
+        }
+
+        public String getWarmSessionId() {
+            return warmSessionId;
+        }
+
+        public String getS3Key() {
+            return s3Key;
+        }
+
+        public Long getDurationMs() {
+            return durationMs;
+        }
+
+        public boolean isAudioReady() {
+            return s3Key != null && !s3Key.isEmpty();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package sentences.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class TopicScenariosProvider {
@@ -132,4 +135,13 @@ public class TopicScenariosProvider {
     public static String getTopicScenarios(String topic) {
         return TOPIC_SCENARIOS.getOrDefault(topic, "General scenarios");
     }
+
+    /**
+     * 등록된 주제 목록 (문장 풀 사전 생성 대상)
+     */
+    public static List<String> getTopics() {
+        List<String> topics = new ArrayList<>(TOPIC_DESCRIPTIONS.keySet());
+        Collections.sort(topics);
+        return topics;
+    }
 }
@@ -0,0 +1,85 @@
+package sentences.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD(Additive Increase / Multiplicative Decrease) 동시성 제한
+ * - 성공할 때마다 한도를 1/limit씩 올리고(RTT당 +1 근사), 스로틀(429/529) 시 절반으로 줄인다.
+ * - 웜 컨테이너에서 호출 간 상태를 유지하도록 Worker에서 static으로 공유한다.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 슬롯 획득 (한도 초과 시 대기)
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                released.await(1, TimeUnit.SECONDS);
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 슬롯 반환
+     *
+     * @param throttled 상위 API가 429/529로 거절했는지 여부
+     */
+    public void release(boolean throttled) {
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - 1);
+            if (throttled) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 슬롯 반환 없이 스로틀만 반영 (호출 내부 재시도 중 관측된 429/529)
+     */
+    public void onThrottle() {
+        lock.lock();
+        try {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
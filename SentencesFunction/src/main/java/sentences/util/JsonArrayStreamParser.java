@@ -0,0 +1,104 @@
+package sentences.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 스트리밍으로 들어오는 JSON 배열 텍스트에서 최상위 객체가 닫히는 즉시 하나씩 역직렬화
+ * - 첫 '[' 이전의 텍스트(서두/코드블록 표시 등)는 무시
+ * - 문자열 안의 괄호/따옴표 이스케이프를 추적하므로 청크 경계가 어디서 끊겨도 된다.
+ * - 파싱 실패한 요소는 건너뛰고 다음 요소를 계속 처리
+ */
+public class JsonArrayStreamParser<T> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> elementType;
+    private final Consumer<T> onElement;
+    private final List<T> elements = new ArrayList<>();
+
+    private final StringBuilder current = new StringBuilder();
+    private boolean arrayStarted;
+    private boolean arrayEnded;
+    private int depth;          // 배열 안 객체 중첩 깊이 (0 = 요소 사이)
+    private boolean inString;
+    private boolean escaped;
+    private int skipped;
+
+    public JsonArrayStreamParser(ObjectMapper objectMapper, Class<T> elementType, Consumer<T> onElement) {
+        this.objectMapper = objectMapper;
+        this.elementType = elementType;
+        this.onElement = onElement;
+    }
+
+    public void feed(String chunk) {
+        if (chunk == null || arrayEnded) {
+            return;
+        }
+        for (int i = 0; i < chunk.length() && !arrayEnded; i++) {
+            char c = chunk.charAt(i);
+
+            if (!arrayStarted) {
+                if (c == '[') {
+                    arrayStarted = true;
+                }
+                continue;
+            }
+
+            if (depth == 0) {
+                if (c == '{') {
+                    depth = 1;
+                    current.setLength(0);
+                    current.append(c);
+                } else if (c == ']') {
+                    arrayEnded = true;
+                }
+                continue;
+            }
+
+            current.append(c);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    emit(current.toString());
+                }
+            }
+        }
+    }
+
+    private void emit(String json) {
+        T element;
+        try {
+            element = objectMapper.readValue(json, elementType);
+        } catch (Exception e) {
+            skipped++;
+            return;
+        }
+        elements.add(element);
+        if (onElement != null) {
+            onElement.accept(element);
+        }
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+}
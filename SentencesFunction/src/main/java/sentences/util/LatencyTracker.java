@@ -0,0 +1,76 @@
+package sentences.util;
+
+import java.util.Arrays;
+
+/**
+ * 최근 N건 호출의 지연 시간/성공 여부 슬라이딩 윈도우 (p50/p95, 에러율)
+ * - 고정 크기 링 버퍼라 웜 컨테이너에서 오래 돌아도 메모리가 늘지 않는다.
+ */
+public class LatencyTracker {
+
+    private final long[] latencies;
+    private final boolean[] errors;
+    private int next;
+    private int size;
+
+    public LatencyTracker(int windowSize) {
+        this.latencies = new long[Math.max(1, windowSize)];
+        this.errors = new boolean[latencies.length];
+    }
+
+    public synchronized void record(long latencyMs, boolean success) {
+        latencies[next] = latencyMs;
+        errors[next] = !success;
+        next = (next + 1) % latencies.length;
+        size = Math.min(size + 1, latencies.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long p50() {
+        return percentile(0.50);
+    }
+
+    public long p95() {
+        return percentile(0.95);
+    }
+
+    /**
+     * 성공한 호출 기준 백분위수 (샘플 없으면 -1)
+     */
+    public synchronized long percentile(double p) {
+        long[] samples = new long[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (!errors[i]) {
+                samples[n++] = latencies[i];
+            }
+        }
+        if (n == 0) {
+            return -1;
+        }
+        Arrays.sort(samples, 0, n);
+        int index = (int) Math.ceil(p * n) - 1;
+        return samples[Math.min(n - 1, Math.max(0, index))];
+    }
+
+    public synchronized double errorRate() {
+        if (size == 0) {
+            return 0;
+        }
+        int failed = 0;
+        for (int i = 0; i < size; i++) {
+            if (errors[i]) {
+                failed++;
+            }
+        }
+        return (double) failed / size;
+    }
+
+    public synchronized void reset() {
+        next = 0;
+        size = 0;
+    }
+}
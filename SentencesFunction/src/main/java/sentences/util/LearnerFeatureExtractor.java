@@ -0,0 +1,127 @@
+package sentences.util;
+
+import sentences.model.ConversationMessage;
+import sentences.model.LearnerFeatures;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * user 발화 1건 → LearnerFeatures 카운터 (메시지 저장 시 한 번만 계산)
+ * - 희귀어: 기본 어휘(고빈도 단어) 목록에 없는 3글자 이상 단어
+ * - 오류 신호: 한글 섞임, 소문자 i, 반복 단어, 자주 틀리는 수일치/관사 패턴
+ */
+public final class LearnerFeatureExtractor {
+
+    private static final Pattern WORD = Pattern.compile("[A-Za-z]+(?:'[A-Za-z]+)?");
+    private static final Pattern SENTENCE_END = Pattern.compile("[.!?]+(?:\\s|$)");
+    private static final Pattern HANGUL = Pattern.compile("[\\uAC00-\\uD7A3\\u3131-\\u318E]");
+    private static final Pattern LOWERCASE_I = Pattern.compile("(?:^|\\s)i(?:'m|'ve|'ll|'d)?(?=\\s|[.,!?]|$)");
+    private static final Pattern REPEATED_WORD = Pattern.compile("\\b(\\w+)\\s+\\1\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMMON_ERRORS = Pattern.compile(
+        "\\b(?:(?:he|she|it) (?:do|have|go|want|like|don't)"
+            + "|(?:you|we|they) (?:is|was|has|does|doesn't)"
+            + "|i (?:is|are|has|does)"
+            + "|a (?:[aeio][a-z]+)"
+            + "|(?:does|did|can|will|to) (?:went|goes|has|wants|likes)"
+            + "|more (?:better|easier|bigger|faster))\\b",
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> BASIC_WORDS = Set.of(
+        "the", "and", "you", "that", "was", "for", "are", "with", "his", "they", "this", "have", "from",
+        "one", "had", "word", "but", "not", "what", "all", "were", "when", "your", "can", "said", "there",
+        "use", "each", "which", "she", "how", "their", "will", "other", "about", "out", "many", "then",
+        "them", "these", "some", "her", "would", "make", "like", "him", "into", "time", "has", "look",
+        "two", "more", "write", "see", "number", "way", "could", "people", "than", "first", "water",
+        "been", "call", "who", "oil", "its", "now", "find", "long", "down", "day", "did", "get", "come",
+        "made", "may", "part", "over", "new", "sound", "take", "only", "little", "work", "know", "place",
+        "year", "live", "back", "give", "most", "very", "after", "thing", "our", "just", "name", "good",
+        "sentence", "man", "think", "say", "great", "where", "help", "through", "much", "before", "line",
+        "right", "too", "mean", "old", "any", "same", "tell", "boy", "follow", "came", "want", "show",
+        "also", "around", "form", "three", "small", "set", "put", "end", "does", "another", "well",
+        "large", "must", "big", "even", "such", "because", "turn", "here", "why", "ask", "went", "men",
+        "read", "need", "land", "different", "home", "move", "try", "kind", "hand", "picture", "again",
+        "change", "off", "play", "spell", "air", "away", "animal", "house", "point", "page", "letter",
+        "mother", "answer", "found", "study", "still", "learn", "should", "world", "high", "every",
+        "near", "add", "food", "between", "own", "below", "country", "plant", "last", "school", "father",
+        "keep", "tree", "never", "start", "city", "earth", "eye", "light", "thought", "head", "under",
+        "story", "saw", "left", "don't", "few", "while", "along", "might", "close", "something", "seem",
+        "next", "hard", "open", "example", "begin", "life", "always", "those", "both", "paper",
+        "together", "got", "group", "often", "run", "important", "until", "children", "side", "feet",
+        "car", "mile", "night", "walk", "white", "sea", "began", "grow", "took", "river", "four",
+        "carry", "state", "once", "book", "hear", "stop", "without", "second", "later", "miss", "idea",
+        "enough", "eat", "face", "watch", "far", "really", "almost", "let", "above", "girl", "sometimes",
+        "mountain", "cut", "young", "talk", "soon", "list", "song", "being", "leave", "family", "it's",
+        "yes", "yeah", "okay", "please", "thank", "thanks", "sorry", "hello", "today", "tomorrow",
+        "friend", "love", "nice", "sure", "fine", "going", "buy", "pay", "money", "coffee", "room",
+        "ticket", "order", "wait", "minute", "hour", "week", "morning", "i'm", "can't", "didn't",
+        "that's", "what's", "you're", "i'll", "i'd", "i've", "let's", "maybe", "lot", "better", "best",
+        "bad", "happy", "feel", "job", "today's", "anything", "everything", "nothing", "someone");
+
+    private LearnerFeatureExtractor() {}
+
+    public static LearnerFeatures extract(String text) {
+        if (text == null || text.isBlank()) {
+            return new LearnerFeatures();
+        }
+        String trimmed = text.trim();
+
+        long words = 0;
+        long rare = 0;
+        Set<String> distinct = new HashSet<>();
+        Matcher m = WORD.matcher(trimmed);
+        while (m.find()) {
+            String w = m.group().toLowerCase(Locale.ROOT);
+            words++;
+            distinct.add(w);
+            if (w.length() >= 3 && !BASIC_WORDS.contains(w)) {
+                rare++;
+            }
+        }
+
+        long sentences = 0;
+        Matcher s = SENTENCE_END.matcher(trimmed);
+        while (s.find()) {
+            sentences++;
+        }
+        // 마침표 없이 끝나는 마지막 문장
+        if (words > 0 && !trimmed.matches("(?s).*[.!?]\\s*$")) {
+            sentences++;
+        }
+
+        long errors = count(COMMON_ERRORS, trimmed) + count(REPEATED_WORD, trimmed)
+            + (LOWERCASE_I.matcher(trimmed).find() ? 1 : 0)
+            + (HANGUL.matcher(trimmed).find() ? 1 : 0);
+
+        return new LearnerFeatures(1, words, distinct.size(), sentences, rare, errors);
+    }
+
+    /**
+     * user 발화만 합산
+     */
+    public static LearnerFeatures extract(List<ConversationMessage> messages) {
+        LearnerFeatures total = new LearnerFeatures();
+        if (messages == null) {
+            return total;
+        }
+        for (ConversationMessage message : messages) {
+            if (message != null && "user".equalsIgnoreCase(message.getRole())) {
+                total.merge(extract(message.getContent()));
+            }
+        }
+        return total;
+    }
+
+    private static long count(Pattern pattern, String text) {
+        long n = 0;
+        Matcher m = pattern.matcher(text);
+        while (m.find()) {
+            n++;
+        }
+        return n;
+    }
+}
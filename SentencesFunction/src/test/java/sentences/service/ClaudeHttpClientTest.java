@@ -0,0 +1,47 @@
+package sentences.service;
+
+import okhttp3.Request;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClaudeHttpClientTest {
+
+    @After
+    public void clearDeadline() {
+        ClaudeHttpClient.setDeadline(0);
+    }
+
+    @Test
+    public void noDeadlineMeansUnlimited() {
+        ClaudeHttpClient.setDeadline(0);
+        assertTrue(ClaudeHttpClient.hasTimeForAttempt());
+    }
+
+    @Test
+    public void deadlineLeavesRoomForAttempt() {
+        ClaudeHttpClient.setDeadline(60_000);
+        assertTrue(ClaudeHttpClient.hasTimeForAttempt());
+        assertTrue(ClaudeHttpClient.remainingMs() <= 60_000);
+    }
+
+    @Test
+    public void nearDeadlineFailsWithoutSending() {
+        ClaudeHttpClient.setDeadline(500);
+        assertFalse(ClaudeHttpClient.hasTimeForAttempt());
+
+        // 요청을 보내기 전에 실패해야 함 (도달 불가능한 주소라도 연결 시도 없음)
+        Request request = new Request.Builder().url("http://127.0.0.1:9/v1/messages").get().build();
+        try {
+            ClaudeHttpClient.execute(request, 0).close();
+            fail("expected deadline failure");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("deadline"));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sentences.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AimdConcurrencyLimiterTest {
+
+    @Test
+    public void clampsInitialLimit() {
+        assertEquals(8, new AimdConcurrencyLimiter(20, 2, 8, 0.5).getLimit());
+        assertEquals(2, new AimdConcurrencyLimiter(0, 2, 8, 0.5).getLimit());
+        // min < 1, max < min 이어도 최소 1 슬롯
+        assertEquals(1, new AimdConcurrencyLimiter(0, 0, 0, 0.5).getLimit());
+    }
+
+    @Test
+    public void increasesAdditivelyOnSuccess() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 16, 0.5);
+
+        // 성공마다 +1/limit: 4 → 4.25 → 4.49 → 4.71 → 4.92 → 5.12 (한도 1 증가에 약 limit번)
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+            limiter.release(false);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.release(false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void stopsAtCeiling() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 6, 0.5);
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire();
+            limiter.release(false);
+        }
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    public void decreasesMultiplicativelyOnThrottleDownToFloor() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(16, 3, 16, 0.5);
+
+        limiter.acquire();
+        limiter.release(true);
+        assertEquals(8, limiter.getLimit());
+
+        limiter.onThrottle();
+        assertEquals(4, limiter.getLimit());
+
+        limiter.onThrottle();
+        limiter.onThrottle();
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void blocksAtLimitUntilRelease() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 2, 0.5);
+        limiter.acquire();
+        limiter.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        limiter.release(false);
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        waiter.join();
+    }
+}
@@ -0,0 +1,97 @@
+package sentences.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonArrayStreamParserTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // 문자열 안에 괄호, 이스케이프된 따옴표/역슬래시, 유니코드 이스케이프가 섞인 응답
+    private static final String RESPONSE = "Here are the sentences:\n```json\n["
+        + "{\"english\": \"He said \\\"hi\\\" {twice}\", \"korean\": \"그는 [두 번] 인사했다\"},\n"
+        + "{\"english\": \"C:\\\\path\\\\\", \"korean\": \"\\u0041}]\"},\n"
+        + "{\"english\": \"nested\", \"korean\": \"ok\", \"extra\": {\"list\": [1, {\"a\": \"]\"}]}}\n"
+        + "]\n```";
+
+    public static class Item {
+        public String english;
+        public String korean;
+    }
+
+    @Test
+    public void parsesWholeResponse() {
+        JsonArrayStreamParser<Item> parser = newParser(new ArrayList<>());
+        parser.feed(RESPONSE);
+
+        assertItems(parser.getElements());
+        assertEquals(0, parser.getSkipped());
+    }
+
+    @Test
+    public void parsesAtEveryChunkBoundary() {
+        // 모든 위치에서 두 조각으로 끊어 넣어도 (문자열/이스케이프 중간 포함) 결과가 같아야 한다
+        for (int cut = 0; cut <= RESPONSE.length(); cut++) {
+            List<Item> emitted = new ArrayList<>();
+            JsonArrayStreamParser<Item> parser = newParser(emitted);
+            parser.feed(RESPONSE.substring(0, cut));
+            parser.feed(RESPONSE.substring(cut));
+
+            assertItems(emitted);
+        }
+    }
+
+    @Test
+    public void parsesOneCharacterAtATime() {
+        List<Item> emitted = new ArrayList<>();
+        JsonArrayStreamParser<Item> parser = newParser(emitted);
+        for (int i = 0; i < RESPONSE.length(); i++) {
+            parser.feed(String.valueOf(RESPONSE.charAt(i)));
+        }
+
+        assertItems(emitted);
+    }
+
+    @Test
+    public void emitsEachElementAsSoonAsItCloses() {
+        List<Item> emitted = new ArrayList<>();
+        JsonArrayStreamParser<Item> parser = newParser(emitted);
+
+        parser.feed("[{\"english\": \"a\", \"korean\": \"가\"}, {\"english\": \"b\"");
+        assertEquals(1, emitted.size());
+
+        parser.feed(", \"korean\": \"나\"}");
+        assertEquals(2, emitted.size());
+        assertEquals("나", emitted.get(1).korean);
+    }
+
+    @Test
+    public void skipsMalformedElementAndIgnoresTextAfterArray() {
+        JsonArrayStreamParser<Item> parser = newParser(null);
+        parser.feed("[{\"english\": \"a\", \"korean\": }, {\"english\": \"b\", \"korean\": \"나\"}] [{\"english\": \"c\"}]");
+
+        assertEquals(1, parser.getElements().size());
+        assertEquals("b", parser.getElements().get(0).english);
+        assertEquals(1, parser.getSkipped());
+    }
+
+    private static JsonArrayStreamParser<Item> newParser(List<Item> emitted) {
+        return new JsonArrayStreamParser<>(OBJECT_MAPPER, Item.class, emitted == null ? null : emitted::add);
+    }
+
+    private static void assertItems(List<Item> items) {
+        assertEquals(3, items.size());
+        assertEquals("He said \"hi\" {twice}", items.get(0).english);
+        assertEquals("그는 [두 번] 인사했다", items.get(0).korean);
+        assertEquals("C:\\path\\", items.get(1).english);
+        assertEquals("A}]", items.get(1).korean);
+        assertEquals("nested", items.get(2).english);
+    }
+}
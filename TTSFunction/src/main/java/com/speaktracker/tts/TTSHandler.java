@@ -6,15 +6,24 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speaktracker.common.tts.MetricsLogger;
+import com.speaktracker.common.tts.PresignedUrlCache;
+import com.speaktracker.common.tts.TtsAudioProfile;
+import com.speaktracker.common.tts.TtsKeys;
+import com.speaktracker.tts.model.TTSBatchRequest;
 import com.speaktracker.tts.model.TTSRequest;
 import com.speaktracker.tts.model.TTSResponse;
 import com.speaktracker.tts.model.TTSJobMessage;
 import com.speaktracker.tts.model.JobStatus;
 import com.speaktracker.tts.service.PollyService;
+import com.speaktracker.tts.service.AudioExistenceIndex;
 import com.speaktracker.tts.service.S3Service;
+import com.speaktracker.tts.service.SynthesisCoalescer;
 import com.speaktracker.tts.service.SQSService;
 import com.speaktracker.tts.service.JobStatusService;
-import com.speaktracker.tts.util.TextHashUtil;
+import com.speaktracker.tts.service.InlineSynthesisPolicy;
+import com.speaktracker.tts.service.SentenceAudioService;
+import com.speaktracker.tts.service.SynthesisService;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -22,18 +31,37 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final PollyService pollyService;
     private final S3Service s3Service;
+    private final AudioExistenceIndex existenceIndex;
+    private final SynthesisCoalescer coalescer;
     private final SQSService sqsService;
     private final JobStatusService jobStatusService;
+    private final SynthesisService synthesisService;
+    private final InlineSynthesisPolicy inlinePolicy;
+    private final PresignedUrlCache presignedUrls;
     private final int presignedUrlExpiration;
+    private final int batchMaxItems;
+
+    // 상태 조회 long-poll (?waitMs=) 상한 / Lambda 타임아웃 전 여유
+    private static final long MAX_LONG_POLL_WAIT_MS = 20_000;
+    private static final long LONG_POLL_SAFETY_MS = 3_000;
+
+    private static final String METRIC_FUNCTION = "TTSHandler";
 
     public TTSHandler() {
         // AWS 클라이언트 초기화
@@ -61,15 +89,29 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
         String ttsBucket = System.getenv("TTS_BUCKET");
         String ttsQueueUrl = System.getenv("TTS_QUEUE_URL");
         String jobStatusTable = System.getenv("JOB_STATUS_TABLE");
+        String sentenceAudioTable = System.getenv("SENTENCE_AUDIO_TABLE");
         this.presignedUrlExpiration = Integer.parseInt(
             System.getenv().getOrDefault("PRESIGNED_URL_EXPIRATION", "3600")
         );
+        this.batchMaxItems = Integer.parseInt(
+            System.getenv().getOrDefault("TTS_BATCH_MAX_ITEMS", "50")
+        );
 
         // 서비스 초기화
-        this.pollyService = new PollyService(pollyClient);
+        this.pollyService = new PollyService(pollyClient, METRIC_FUNCTION);
         this.s3Service = new S3Service(s3Client, s3Presigner, ttsBucket);
+        this.existenceIndex = new AudioExistenceIndex(
+            s3Service, dynamoDbClient, System.getenv("TTS_AUDIO_INDEX_TABLE"), METRIC_FUNCTION);
         this.sqsService = new SQSService(sqsClient, ttsQueueUrl);
+        this.coalescer = new SynthesisCoalescer(dynamoDbClient, System.getenv("TTS_AUDIO_INDEX_TABLE"));
         this.jobStatusService = new JobStatusService(dynamoDbClient, jobStatusTable);
+        SentenceAudioService sentenceAudioService = (sentenceAudioTable == null || sentenceAudioTable.isBlank())
+            ? null
+            : new SentenceAudioService(dynamoDbClient, sentenceAudioTable);
+        this.synthesisService = new SynthesisService(
+            pollyService, s3Service, existenceIndex, jobStatusService, sentenceAudioService);
+        this.inlinePolicy = new InlineSynthesisPolicy(sqsService);
+        this.presignedUrls = new PresignedUrlCache(METRIC_FUNCTION, presignedUrlExpiration, s3Service::generatePresignedUrl);
     }
 
     @Override
@@ -92,6 +134,16 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
                 return handleKoreanStatusRequest(input, context);
             }
 
+            // POST /api/tts/batch - 여러 문장 TTS 일괄 변환
+            if ("POST".equals(httpMethod) && path.equals("/api/tts/batch")) {
+                return handleBatchRequest(input, context);
+            }
+
+            // GET /api/tts/batch/status/{batchId} - 일괄 변환 항목별 상태 조회
+            if ("GET".equals(httpMethod) && path.startsWith("/api/tts/batch/status/")) {
+                return handleBatchStatusRequest(input, context);
+            }
+
             // POST /api/tts - 영어 TTS 변환
             if ("POST".equals(httpMethod) && path.endsWith("/tts")) {
                 return handleTTSRequest(input, context);
@@ -108,6 +160,8 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
             context.getLogger().log("TTS Error: " + e.getMessage());
             e.printStackTrace();
             return createResponse(500, TTSResponse.error("Internal server error: " + e.getMessage()));
+        } finally {
+            presignedUrls.publishMetrics();
         }
     }
 
@@ -125,45 +179,27 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
                 "Korean TTS Request - Text length: %d, Voice: %s",
                 text.length(), voiceId));
 
-            // 텍스트 해시 및 S3 키 생성
-            String textHash = TextHashUtil.generateHash(text, voiceId);
-            String s3Key = TextHashUtil.generateS3Key(voiceId, textHash);
+            // 정규화 텍스트 기반 S3 키 생성
+            TtsAudioProfile profile = resolveProfile(ttsRequest.getFormat(), input);
+            String s3Key = TtsKeys.s3Key(text, voiceId, profile);
 
             context.getLogger().log("Generated S3 Key: " + s3Key);
 
-            // 캐시 확인
-            boolean cached = s3Service.exists(s3Key);
+            // 캐시 확인 (메모리 → 인덱스 테이블 → S3, 이전 키 규칙 객체는 현재 키로 복사해 재사용)
+            AudioExistenceIndex.Lookup lookup = existenceIndex.lookup(s3Key, legacyS3Key(text, voiceId, profile));
+            MetricsLogger.TTS.putCount(METRIC_FUNCTION, lookup.getMetricName());
+            boolean cached = lookup.isCached();
 
             if (!cached) {
-                // 캐시 미스 - SQS에 작업 전송 (비동기)
-                context.getLogger().log("Cache miss - sending to SQS queue");
-
-                String jobId = UUID.randomUUID().toString();
-                TTSJobMessage jobMessage = new TTSJobMessage(jobId, text, voiceId, s3Key);
-
-                // SQS에 메시지 전송
-                sqsService.sendTTSJob(jobMessage);
-
-                // DynamoDB에 작업 상태 저장
-                jobStatusService.createJob(jobId, "PROCESSING");
-
-                context.getLogger().log("Job created: " + jobId);
-
-                // 202 Accepted 응답
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("status", "PROCESSING");
-                response.put("jobId", jobId);
-                response.put("statusUrl", "/api/tts/korean/status/" + jobId);
-
-                return createResponse(202, response);
+                // 캐시 미스 - 짧은 문장은 인라인 합성, 나머지는 SQS (비동기)
+                return handleCacheMiss(text, voiceId, s3Key, profile, "/api/tts/korean/status/", context);
             } else {
                 // 캐시 히트 - 즉시 응답
                 context.getLogger().log("Cache hit - returning existing audio");
 
-                String presignedUrl = s3Service.generatePresignedUrl(s3Key, presignedUrlExpiration);
+                PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(s3Key);
                 TTSResponse response = TTSResponse.success(
-                    presignedUrl, presignedUrlExpiration, cached);
+                    presigned.getUrl(), presigned.getExpiresInSeconds(), cached, profile);
 
                 return createResponse(200, response);
             }
@@ -184,10 +220,13 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
             String path = input.getPath();
             String jobId = path.substring(path.lastIndexOf('/') + 1);
 
-            context.getLogger().log("Korean TTS status check for job: " + jobId);
+            long waitMs = resolveWaitMs(input, context);
+            context.getLogger().log("Korean TTS status check for job: " + jobId + " (waitMs=" + waitMs + ")");
 
-            // DynamoDB에서 작업 상태 조회
-            JobStatus jobStatus = jobStatusService.getJobStatus(jobId);
+            // DynamoDB에서 작업 상태 조회 (waitMs > 0이면 완료/실패까지 대기)
+            JobStatus jobStatus = waitMs > 0
+                ? jobStatusService.waitForJobStatus(jobId, waitMs)
+                : jobStatusService.getJobStatus(jobId);
 
             if (jobStatus == null) {
                 return createResponse(404, Map.of("error", "Job not found"));
@@ -199,8 +238,7 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
             response.put("jobId", jobStatus.getJobId());
 
             if ("COMPLETED".equals(jobStatus.getStatus())) {
-                response.put("audioUrl", jobStatus.getAudioUrl());
-                response.put("expiresIn", presignedUrlExpiration);
+                putCompletedAudio(response, jobStatus);
             } else if ("FAILED".equals(jobStatus.getStatus())) {
                 response.put("error", jobStatus.getError());
             }
@@ -228,45 +266,27 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
                 "TTS Request - Text length: %d, Voice: %s",
                 text.length(), voiceId));
 
-            // 텍스트 해시 및 S3 키 생성
-            String textHash = TextHashUtil.generateHash(text, voiceId);
-            String s3Key = TextHashUtil.generateS3Key(voiceId, textHash);
+            // 정규화 텍스트 기반 S3 키 생성
+            TtsAudioProfile profile = resolveProfile(ttsRequest.getFormat(), input);
+            String s3Key = TtsKeys.s3Key(text, voiceId, profile);
 
             context.getLogger().log("Generated S3 Key: " + s3Key);
 
-            // 캐시 확인
-            boolean cached = s3Service.exists(s3Key);
+            // 캐시 확인 (메모리 → 인덱스 테이블 → S3, 이전 키 규칙 객체는 현재 키로 복사해 재사용)
+            AudioExistenceIndex.Lookup lookup = existenceIndex.lookup(s3Key, legacyS3Key(text, voiceId, profile));
+            MetricsLogger.TTS.putCount(METRIC_FUNCTION, lookup.getMetricName());
+            boolean cached = lookup.isCached();
 
             if (!cached) {
-                // 캐시 미스 - SQS에 작업 전송 (비동기)
-                context.getLogger().log("Cache miss - sending to SQS queue");
-
-                String jobId = UUID.randomUUID().toString();
-                TTSJobMessage jobMessage = new TTSJobMessage(jobId, text, voiceId, s3Key);
-
-                // SQS에 메시지 전송
-                sqsService.sendTTSJob(jobMessage);
-
-                // DynamoDB에 작업 상태 저장
-                jobStatusService.createJob(jobId, "PROCESSING");
-
-                context.getLogger().log("Job created: " + jobId);
-
-                // 202 Accepted 응답
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("status", "PROCESSING");
-                response.put("jobId", jobId);
-                response.put("statusUrl", "/api/tts/status/" + jobId);
-
-                return createResponse(202, response);
+                // 캐시 미스 - 짧은 문장은 인라인 합성, 나머지는 SQS (비동기)
+                return handleCacheMiss(text, voiceId, s3Key, profile, "/api/tts/status/", context);
             } else {
                 // 캐시 히트 - 즉시 응답
                 context.getLogger().log("Cache hit - returning existing audio");
 
-                String presignedUrl = s3Service.generatePresignedUrl(s3Key, presignedUrlExpiration);
+                PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(s3Key);
                 TTSResponse response = TTSResponse.success(
-                    presignedUrl, presignedUrlExpiration, cached);
+                    presigned.getUrl(), presigned.getExpiresInSeconds(), cached, profile);
 
                 return createResponse(200, response);
             }
@@ -280,6 +300,356 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
         }
     }
 
+    /**
+     * 캐시 미스 처리
+     * - 인라인 대상이면 마커를 먼저 잡고 owner일 때 바로 합성 → 200 (실패 시 같은 마커로 SQS 전송)
+     * - 그 외에는 작업 row 생성 후 SQS 전송 → 202
+     */
+    private APIGatewayProxyResponseEvent handleCacheMiss(
+            String text, String voiceId, String s3Key, TtsAudioProfile profile, String statusPathPrefix,
+            Context context) {
+        String jobId = UUID.randomUUID().toString();
+        SynthesisCoalescer.Waiter self = new SynthesisCoalescer.Waiter(jobId, null, null);
+
+        SynthesisCoalescer.Claim claim;
+        if (inlinePolicy.shouldInline(text.length(), context.getRemainingTimeInMillis())) {
+            // 같은 s3Key 합성이 진행 중이면 그 작업에 붙기만 함
+            claim = coalescer.claim(s3Key, self);
+            if (claim.isOwner()) {
+                APIGatewayProxyResponseEvent inline = synthesizeInline(text, voiceId, s3Key, profile, claim, context);
+                if (inline != null) {
+                    return inline;
+                }
+            }
+            // waiter로 붙은 경우 owner가 먼저 완료 처리했을 수 있으므로 없을 때만 생성
+            jobStatusService.createJobIfAbsent(jobId, "PROCESSING");
+        } else {
+            // DynamoDB에 작업 상태 저장 (워커/owner가 먼저 완료해도 덮어쓰지 않도록 큐잉 전에 생성)
+            jobStatusService.createJob(jobId, "PROCESSING");
+
+            // 같은 s3Key 합성이 진행 중이면 그 작업에 붙기만 함 (SQS 전송 없음)
+            claim = coalescer.claim(s3Key, self);
+        }
+
+        if (claim.isOwner()) {
+            context.getLogger().log("Cache miss - sending to SQS queue");
+            TTSJobMessage jobMessage = new TTSJobMessage(jobId, text, voiceId, s3Key);
+            jobMessage.setFormat(profile.getId());
+            jobMessage.setInFlightClaimed(true);
+
+            // SQS에 메시지 전송
+            sendOwnedJob(jobMessage, claim);
+        } else {
+            MetricsLogger.TTS.putCount(METRIC_FUNCTION, "CoalescedAttach");
+        }
+
+        context.getLogger().log("Job created: " + jobId + (claim.isOwner() ? "" : " (coalesced)"));
+
+        // 202 Accepted 응답
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("status", "PROCESSING");
+        response.put("jobId", jobId);
+        response.put("statusUrl", statusPathPrefix + jobId);
+
+        return createResponse(202, response);
+    }
+
+    /**
+     * 인라인 합성 → 마커 해제 후 붙은 작업 완료 처리 → 200. 실패하면 null (마커는 유지한 채 비동기로 넘김)
+     */
+    private APIGatewayProxyResponseEvent synthesizeInline(
+            String text, String voiceId, String s3Key, TtsAudioProfile profile, SynthesisCoalescer.Claim claim,
+            Context context) {
+        int threshold = inlinePolicy.threshold();
+        long startedAt = System.currentTimeMillis();
+        Long durationMs;
+        try {
+            context.getLogger().log("Cache miss - synthesizing inline (threshold=" + threshold + "): " + s3Key);
+            durationMs = synthesisService.synthesizeAndUpload(
+                text, voiceId, s3Key, profile, false, Duration.ofMillis(inlinePolicy.budgetMs()));
+        } catch (Exception e) {
+            context.getLogger().log("Inline synthesis failed, falling back to SQS: " + e.getMessage());
+            // 타임아웃/실패도 예산 초과로 반영 → 다음 요청부터 인라인 기준 글자 수를 낮춤
+            inlinePolicy.record(text.length(), System.currentTimeMillis() - startedAt, false);
+            MetricsLogger.TTS.putCount(METRIC_FUNCTION, "InlineFallback");
+            return null;
+        }
+        long latencyMs = System.currentTimeMillis() - startedAt;
+        inlinePolicy.record(text.length(), latencyMs, true);
+        MetricsLogger.TTS.putCount(METRIC_FUNCTION, "InlineSynthesis");
+        MetricsLogger.TTS.putMetric(METRIC_FUNCTION, "InlineLatencyMs", latencyMs, "Milliseconds");
+        MetricsLogger.TTS.putMetric(METRIC_FUNCTION, "InlineThresholdChars", threshold, "Count");
+
+        PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(s3Key);
+        String presignedUrl = presigned.getUrl();
+
+        // 합성 중 붙은 작업(다른 요청/문장 세션) 완료 처리
+        List<SynthesisCoalescer.Waiter> waiters = coalescer.release(claim);
+        if (!waiters.isEmpty() && durationMs == null) {
+            durationMs = synthesisService.resolveCachedDurationMs(s3Key, profile);
+        }
+        for (SynthesisCoalescer.Waiter waiter : waiters) {
+            try {
+                synthesisService.completeJob(waiter, s3Key, durationMs, voiceId, presignedUrl);
+            } catch (Exception e) {
+                context.getLogger().log("Failed to complete coalesced job " + waiter.getJobId() + ": " + e.getMessage());
+            }
+        }
+        if (!waiters.isEmpty()) {
+            MetricsLogger.TTS.putMetric(METRIC_FUNCTION, "CoalescedCompleted", waiters.size(), "Count");
+        }
+
+        return createResponse(200, TTSResponse.success(presignedUrl, presigned.getExpiresInSeconds(), false, profile));
+    }
+
+    /**
+     * owner 작업 SQS 전송. 실패하면 마커를 풀고 그 사이 붙은 작업도 실패 처리 (만료까지 기다리지 않도록)
+     */
+    private void sendOwnedJob(TTSJobMessage jobMessage, SynthesisCoalescer.Claim claim) {
+        try {
+            sqsService.sendTTSJob(jobMessage);
+        } catch (RuntimeException e) {
+            failWaiters(claim, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void failWaiters(SynthesisCoalescer.Claim claim, String error) {
+        for (SynthesisCoalescer.Waiter waiter : coalescer.release(claim)) {
+            try {
+                jobStatusService.updateJobFailed(waiter.getJobId(), error);
+            } catch (Exception ignore) {
+                // noop
+            }
+        }
+    }
+
+    /**
+     * 일괄 변환
+     * - 항목별 존재 확인을 가상 스레드로 병렬 수행, 캐시 히트는 바로 URL 반환
+     * - 미스 항목은 작업 row를 한 번에 만들고 같은 s3Key 합성에 붙거나(owner가 아니면) SQS 배치 전송
+     * - 하나라도 미스면 202 + batchId (항목별 상태는 /api/tts/batch/status/{batchId})
+     */
+    private APIGatewayProxyResponseEvent handleBatchRequest(
+            APIGatewayProxyRequestEvent input, Context context) {
+        try {
+            TTSBatchRequest batchRequest = objectMapper.readValue(input.getBody(), TTSBatchRequest.class);
+            batchRequest.validate(batchMaxItems);
+            List<TTSRequest> requests = batchRequest.getItems();
+            int count = requests.size();
+
+            context.getLogger().log("Batch TTS Request - Items: " + count);
+
+            List<String> voiceIds = new ArrayList<>(count);
+            List<TtsAudioProfile> profiles = new ArrayList<>(count);
+            List<String> s3Keys = new ArrayList<>(count);
+            for (TTSRequest request : requests) {
+                String voiceId = request.getVoiceIdOrDefault();
+                TtsAudioProfile profile = resolveProfile(request.getFormat(), input);
+                voiceIds.add(voiceId);
+                profiles.add(profile);
+                s3Keys.add(TtsKeys.s3Key(request.getText(), voiceId, profile));
+            }
+
+            // 캐시 확인 (항목별 병렬)
+            List<AudioExistenceIndex.Lookup> lookups = new ArrayList<>(count);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<CompletableFuture<AudioExistenceIndex.Lookup>> futures = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String text = requests.get(i).getText();
+                    String voiceId = voiceIds.get(i);
+                    String s3Key = s3Keys.get(i);
+                    TtsAudioProfile profile = profiles.get(i);
+                    futures.add(CompletableFuture.supplyAsync(
+                        () -> existenceIndex.lookup(s3Key, legacyS3Key(text, voiceId, profile)), executor));
+                }
+                for (CompletableFuture<AudioExistenceIndex.Lookup> future : futures) {
+                    AudioExistenceIndex.Lookup lookup = future.join();
+                    MetricsLogger.TTS.putCount(METRIC_FUNCTION, lookup.getMetricName());
+                    lookups.add(lookup);
+                }
+            }
+
+            // 미스 항목 작업 row + 배치 row 생성 (워커/owner가 먼저 완료해도 덮어쓰지 않도록 큐잉 전에 생성)
+            List<JobStatusService.BatchItem> batchItems = new ArrayList<>(count);
+            int missCount = 0;
+            for (int i = 0; i < count; i++) {
+                boolean miss = !lookups.get(i).isCached();
+                batchItems.add(new JobStatusService.BatchItem(s3Keys.get(i), miss ? UUID.randomUUID().toString() : null));
+                if (miss) {
+                    missCount++;
+                }
+            }
+            String batchId = null;
+            if (missCount > 0) {
+                batchId = UUID.randomUUID().toString();
+                jobStatusService.createBatch(batchId, batchItems);
+                submitBatchMisses(requests, voiceIds, profiles, batchItems, context);
+            }
+            MetricsLogger.TTS.putMetric(METRIC_FUNCTION, "BatchItems", count, "Count");
+
+            List<Map<String, Object>> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                JobStatusService.BatchItem batchItem = batchItems.get(i);
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("index", i);
+                item.put("format", profiles.get(i).getId());
+                if (batchItem.getJobId() == null) {
+                    PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(batchItem.getS3Key());
+                    item.put("status", "COMPLETED");
+                    item.put("cached", true);
+                    item.put("audioUrl", presigned.getUrl());
+                    item.put("expiresIn", presigned.getExpiresInSeconds());
+                } else {
+                    item.put("status", "PROCESSING");
+                    item.put("cached", false);
+                    item.put("jobId", batchItem.getJobId());
+                }
+                items.add(item);
+            }
+
+            context.getLogger().log("Batch created: " + batchId + " (" + missCount + "/" + count + " pending)");
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("status", missCount > 0 ? "PROCESSING" : "COMPLETED");
+            response.put("items", items);
+            if (batchId != null) {
+                response.put("batchId", batchId);
+                response.put("statusUrl", "/api/tts/batch/status/" + batchId);
+            }
+
+            return createResponse(missCount > 0 ? 202 : 200, response);
+
+        } catch (IllegalArgumentException e) {
+            return createResponse(400, TTSResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            context.getLogger().log("Batch TTS processing error: " + e.getMessage());
+            e.printStackTrace();
+            return createResponse(500, TTSResponse.error("Failed to process batch TTS: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 미스 항목 마커 claim(병렬) → owner 작업만 SQS 배치 전송. 전송 실패 항목은 붙은 작업과 함께 실패 처리
+     */
+    private void submitBatchMisses(List<TTSRequest> requests, List<String> voiceIds, List<TtsAudioProfile> profiles,
+                                   List<JobStatusService.BatchItem> batchItems, Context context) {
+        Map<String, SynthesisCoalescer.Claim> claims = new HashMap<>();
+        Map<String, TTSJobMessage> messages = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, CompletableFuture<SynthesisCoalescer.Claim>> futures = new LinkedHashMap<>();
+            for (int i = 0; i < batchItems.size(); i++) {
+                JobStatusService.BatchItem batchItem = batchItems.get(i);
+                if (batchItem.getJobId() == null) {
+                    continue;
+                }
+                TTSJobMessage jobMessage = new TTSJobMessage(
+                    batchItem.getJobId(), requests.get(i).getText(), voiceIds.get(i), batchItem.getS3Key());
+                jobMessage.setFormat(profiles.get(i).getId());
+                jobMessage.setInFlightClaimed(true);
+                messages.put(batchItem.getJobId(), jobMessage);
+                futures.put(batchItem.getJobId(), CompletableFuture.supplyAsync(() -> coalescer.claim(
+                    batchItem.getS3Key(), new SynthesisCoalescer.Waiter(batchItem.getJobId(), null, null)), executor));
+            }
+            futures.forEach((jobId, future) -> claims.put(jobId, future.join()));
+        }
+
+        List<TTSJobMessage> owned = new ArrayList<>();
+        for (Map.Entry<String, SynthesisCoalescer.Claim> entry : claims.entrySet()) {
+            if (entry.getValue().isOwner()) {
+                owned.add(messages.get(entry.getKey()));
+            } else {
+                MetricsLogger.TTS.putCount(METRIC_FUNCTION, "CoalescedAttach");
+            }
+        }
+
+        for (TTSJobMessage failed : sqsService.sendTTSJobs(owned)) {
+            context.getLogger().log("Failed to queue batch item: " + failed.getJobId());
+            failWaiters(claims.get(failed.getJobId()), "Failed to send SQS message");
+            try {
+                jobStatusService.updateJobFailed(failed.getJobId(), "Failed to send SQS message");
+            } catch (Exception ignore) {
+                // noop
+            }
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handleBatchStatusRequest(
+            APIGatewayProxyRequestEvent input, Context context) {
+        try {
+            String path = input.getPath();
+            String batchId = path.substring(path.lastIndexOf('/') + 1);
+
+            context.getLogger().log("Batch status check: " + batchId);
+
+            List<JobStatusService.BatchItem> batchItems = jobStatusService.getBatchItems(batchId);
+            if (batchItems == null) {
+                return createResponse(404, Map.of("error", "Batch not found"));
+            }
+
+            List<String> jobIds = new ArrayList<>();
+            for (JobStatusService.BatchItem batchItem : batchItems) {
+                if (batchItem.getJobId() != null) {
+                    jobIds.add(batchItem.getJobId());
+                }
+            }
+            Map<String, JobStatus> statuses = jobStatusService.getJobStatuses(jobIds);
+
+            int completedCount = 0;
+            int failedCount = 0;
+            int pendingCount = 0;
+            List<Map<String, Object>> items = new ArrayList<>(batchItems.size());
+            for (int i = 0; i < batchItems.size(); i++) {
+                JobStatusService.BatchItem batchItem = batchItems.get(i);
+                JobStatus jobStatus = batchItem.getJobId() == null ? null : statuses.get(batchItem.getJobId());
+                String status = batchItem.getJobId() == null ? "COMPLETED"
+                    : jobStatus == null ? "PROCESSING" : jobStatus.getStatus();
+
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("index", i);
+                item.put("status", status);
+                if (batchItem.getJobId() != null) {
+                    item.put("jobId", batchItem.getJobId());
+                }
+                if ("COMPLETED".equals(status)) {
+                    // 같은 만료 구간 URL 재사용 (작업 row에 저장된 URL은 오래됐을 수 있음)
+                    PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(batchItem.getS3Key());
+                    item.put("audioUrl", presigned.getUrl());
+                    item.put("expiresIn", presigned.getExpiresInSeconds());
+                    completedCount++;
+                } else if ("FAILED".equals(status)) {
+                    item.put("error", jobStatus.getError());
+                    failedCount++;
+                } else {
+                    pendingCount++;
+                }
+                items.add(item);
+            }
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("totalCount", batchItems.size());
+            summary.put("completedCount", completedCount);
+            summary.put("failedCount", failedCount);
+            summary.put("pendingCount", pendingCount);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("batchId", batchId);
+            response.put("status", pendingCount > 0 ? "PROCESSING"
+                : failedCount == batchItems.size() ? "FAILED" : "COMPLETED");
+            response.put("items", items);
+            response.put("summary", summary);
+
+            return createResponse(200, response);
+
+        } catch (Exception e) {
+            context.getLogger().log("Batch status check error: " + e.getMessage());
+            e.printStackTrace();
+            return createResponse(500, Map.of("error", "Failed to check batch status: " + e.getMessage()));
+        }
+    }
+
     private APIGatewayProxyResponseEvent handleStatusRequest(
             APIGatewayProxyRequestEvent input, Context context) {
         try {
@@ -287,10 +657,13 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
             String path = input.getPath();
             String jobId = path.substring(path.lastIndexOf('/') + 1);
 
-            context.getLogger().log("Status check for job: " + jobId);
+            long waitMs = resolveWaitMs(input, context);
+            context.getLogger().log("Status check for job: " + jobId + " (waitMs=" + waitMs + ")");
 
-            // DynamoDB에서 작업 상태 조회
-            JobStatus jobStatus = jobStatusService.getJobStatus(jobId);
+            // DynamoDB에서 작업 상태 조회 (waitMs > 0이면 완료/실패까지 대기)
+            JobStatus jobStatus = waitMs > 0
+                ? jobStatusService.waitForJobStatus(jobId, waitMs)
+                : jobStatusService.getJobStatus(jobId);
 
             if (jobStatus == null) {
                 return createResponse(404, Map.of("error", "Job not found"));
@@ -302,8 +675,7 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
             response.put("jobId", jobStatus.getJobId());
 
             if ("COMPLETED".equals(jobStatus.getStatus())) {
-                response.put("audioUrl", jobStatus.getAudioUrl());
-                response.put("expiresIn", presignedUrlExpiration);
+                putCompletedAudio(response, jobStatus);
             } else if ("FAILED".equals(jobStatus.getStatus())) {
                 response.put("error", jobStatus.getError());
             }
@@ -317,6 +689,70 @@ public class TTSHandler implements RequestHandler<APIGatewayProxyRequestEvent, A
         }
     }
 
+    /**
+     * 완료된 작업의 오디오 URL
+     * - 작업 row에 저장된 URL은 완료 시점에 발급한 것이라 이미 만료됐을 수 있으므로 s3_key로 다시 발급
+     * - s3_key가 없는 이전 작업 row는 저장된 URL만 (남은 유효시간을 알 수 없어 expiresIn 생략)
+     */
+    private void putCompletedAudio(Map<String, Object> response, JobStatus jobStatus) {
+        if (jobStatus.getS3Key() == null) {
+            response.put("audioUrl", jobStatus.getAudioUrl());
+            return;
+        }
+        PresignedUrlCache.PresignedUrl presigned = presignedUrls.get(jobStatus.getS3Key());
+        response.put("audioUrl", presigned.getUrl());
+        response.put("expiresIn", presigned.getExpiresInSeconds());
+    }
+
+    /**
+     * 출력 프로필: 요청 format 우선, 없으면 Accept 헤더 협상 (+ Save-Data: on 이면 저용량 프로필)
+     */
+    private TtsAudioProfile resolveProfile(String format, APIGatewayProxyRequestEvent input) {
+        if (format != null && !format.isBlank()) {
+            return TtsAudioProfile.fromId(format);
+        }
+        TtsAudioProfile profile = TtsAudioProfile.negotiate(header(input, "Accept"));
+        return "on".equalsIgnoreCase(header(input, "Save-Data")) ? profile.lowVariant() : profile;
+    }
+
+    /**
+     * 이전 키 규칙 객체는 mp3만 존재
+     */
+    private static String legacyS3Key(String text, String voiceId, TtsAudioProfile profile) {
+        return profile == TtsAudioProfile.MP3 ? TtsKeys.legacyS3Key(text, voiceId) : null;
+    }
+
+    private static String header(APIGatewayProxyRequestEvent input, String name) {
+        Map<String, String> headers = input.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue() == null ? null : entry.getValue().trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ?waitMs= long-poll 대기 시간 (최대 20초, Lambda 남은 시간에서 여유분 제외). 없으면 0 (즉시 응답)
+     */
+    private long resolveWaitMs(APIGatewayProxyRequestEvent input, Context context) {
+        Map<String, String> params = input.getQueryStringParameters();
+        if (params == null || params.get("waitMs") == null) {
+            return 0;
+        }
+        long waitMs;
+        try {
+            waitMs = Long.parseLong(params.get("waitMs").trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        long budget = context.getRemainingTimeInMillis() - LONG_POLL_SAFETY_MS;
+        return Math.max(0, Math.min(Math.min(waitMs, MAX_LONG_POLL_WAIT_MS), budget));
+    }
+
     private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body) {
         Map<String, String> headers = new HashMap<>();
         headers.put("Content-Type", "application/json");
@@ -2,27 +2,46 @@ package com.speaktracker.tts;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speaktracker.common.tts.MetricsLogger;
+import com.speaktracker.common.tts.PresignedUrlCache;
+import com.speaktracker.common.tts.TtsAudioProfile;
+import com.speaktracker.common.tts.TtsKeys;
 import com.speaktracker.tts.model.TTSJobMessage;
 import com.speaktracker.tts.service.PollyService;
+import com.speaktracker.tts.service.AudioExistenceIndex;
 import com.speaktracker.tts.service.S3Service;
 import com.speaktracker.tts.service.JobStatusService;
 import com.speaktracker.tts.service.SentenceAudioService;
+import com.speaktracker.tts.service.SynthesisCoalescer;
+import com.speaktracker.tts.service.SynthesisService;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
-public class TTSWorker implements RequestHandler<SQSEvent, Void> {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TTSWorker implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final String METRIC_FUNCTION = "TTSWorker";
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final PollyService pollyService;
     private final S3Service s3Service;
+    private final AudioExistenceIndex existenceIndex;
+    private final SynthesisCoalescer coalescer;
     private final JobStatusService jobStatusService;
-    private final SentenceAudioService sentenceAudioService;
-    private final int presignedUrlExpiration;
+    private final SynthesisService synthesisService;
+    private final PresignedUrlCache presignedUrls;
+    private final int maxReceiveCount;
 
     public TTSWorker() {
         // AWS 클라이언트 초기화
@@ -46,114 +65,159 @@ public class TTSWorker implements RequestHandler<SQSEvent, Void> {
         String ttsBucket = System.getenv("TTS_BUCKET");
         String jobStatusTable = System.getenv("JOB_STATUS_TABLE");
         String sentenceAudioTable = System.getenv("SENTENCE_AUDIO_TABLE");
-        this.presignedUrlExpiration = Integer.parseInt(
+        int presignedUrlExpiration = Integer.parseInt(
             System.getenv().getOrDefault("PRESIGNED_URL_EXPIRATION", "3600")
         );
 
         // 서비스 초기화
-        this.pollyService = new PollyService(pollyClient);
+        this.pollyService = new PollyService(pollyClient, METRIC_FUNCTION);
         this.s3Service = new S3Service(s3Client, s3Presigner, ttsBucket);
+        this.existenceIndex = new AudioExistenceIndex(
+            s3Service, dynamoDbClient, System.getenv("TTS_AUDIO_INDEX_TABLE"), METRIC_FUNCTION);
+        this.coalescer = new SynthesisCoalescer(dynamoDbClient, System.getenv("TTS_AUDIO_INDEX_TABLE"));
         this.jobStatusService = new JobStatusService(dynamoDbClient, jobStatusTable);
-        this.sentenceAudioService = (sentenceAudioTable == null || sentenceAudioTable.isBlank())
+        SentenceAudioService sentenceAudioService = (sentenceAudioTable == null || sentenceAudioTable.isBlank())
             ? null
             : new SentenceAudioService(dynamoDbClient, sentenceAudioTable);
+        this.synthesisService = new SynthesisService(
+            pollyService, s3Service, existenceIndex, jobStatusService, sentenceAudioService);
+        this.presignedUrls = new PresignedUrlCache(METRIC_FUNCTION, presignedUrlExpiration, s3Service::generatePresignedUrl);
+        // TTSQueue RedrivePolicy.maxReceiveCount와 같은 값 (마지막 수신에서만 작업 실패 확정)
+        this.maxReceiveCount = Integer.parseInt(System.getenv().getOrDefault("TTS_MAX_RECEIVE_COUNT", "3"));
     }
 
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
-        for (SQSEvent.SQSMessage message : event.getRecords()) {
-            try {
-                context.getLogger().log("Processing TTS job from SQS: " + message.getMessageId());
-
-                // SQS 메시지 파싱
-                TTSJobMessage jobMessage = objectMapper.readValue(
-                    message.getBody(), TTSJobMessage.class);
-
-                String jobId = jobMessage.getJobId();
-                String text = jobMessage.getText();
-                String voiceId = jobMessage.getVoiceId();
-                String s3Key = jobMessage.getS3Key();
-                String sessionId = jobMessage.getSessionId();
-                Integer sentenceIndex = jobMessage.getSentenceIndex();
-                boolean trackDuration = jobMessage.isTrackDuration();
-
-                context.getLogger().log(String.format(
-                    "Job ID: %s, Text length: %d, Voice: %s",
-                    jobId, text.length(), voiceId));
-
-                // 캐시 확인 (이미 존재하면 Polly MP3 생략)
-                boolean cached = s3Service.exists(s3Key);
-                if (!cached) {
-                    // Polly TTS 변환
-                    context.getLogger().log("Calling Polly TTS...");
-                    byte[] audioBytes = pollyService.synthesizeSpeech(text, voiceId);
-
-                    // S3 업로드
-                    context.getLogger().log("Uploading to S3: " + s3Key);
-                    s3Service.uploadAudio(s3Key, audioBytes);
-                } else {
-                    context.getLogger().log("S3 cache hit - skip MP3 generation: " + s3Key);
-                }
-
-                // duration 추출(선택)
-                Long durationMs = null;
-                if (trackDuration) {
-                    durationMs = pollyService.tryGetDurationMs(text, voiceId);
-                }
-
-                // Presigned URL 생성
-                String presignedUrl = s3Service.generatePresignedUrl(s3Key, presignedUrlExpiration);
-
-                // DynamoDB 상태 업데이트 (COMPLETED)
-                jobStatusService.updateJobCompleted(jobId, presignedUrl);
-
-                // 문장 연습 세션 레코드 업데이트 (Optional)
-                if (sentenceAudioService != null && sessionId != null && !sessionId.isBlank()
-                    && sentenceIndex != null) {
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        // 레코드별로 가상 스레드에서 병렬 처리 (Polly 동시 호출 수는 PollyService에서 제한)
+        List<SQSBatchResponse.BatchItemFailure> failures = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SQSEvent.SQSMessage message : event.getRecords()) {
+                executor.submit(() -> {
                     try {
-                        sentenceAudioService.updateCompleted(
-                            sessionId, sentenceIndex, s3Key, durationMs, voiceId, jobId
-                        );
+                        processRecord(message, context);
                     } catch (Exception e) {
-                        context.getLogger().log("Failed to update SentenceAudioTable: " + e.getMessage());
+                        failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
                     }
-                }
-
-                context.getLogger().log("TTS job completed successfully: " + jobId);
+                });
+            }
+        }
 
-            } catch (Exception e) {
-                context.getLogger().log("Error processing TTS job: " + e.getMessage());
-                e.printStackTrace();
+        presignedUrls.publishMetrics();
+        if (!failures.isEmpty()) {
+            context.getLogger().log("TTS batch partial failure: " + failures.size() + "/" + event.getRecords().size());
+        }
+        return new SQSBatchResponse(new ArrayList<>(failures));
+    }
 
-                // 실패 상태 업데이트
+    private void processRecord(SQSEvent.SQSMessage message, Context context) {
+        TTSJobMessage jobMessage = null;
+        List<SynthesisCoalescer.Waiter> waiters = List.of();
+        boolean finalAttempt = isFinalAttempt(message);
+        try {
+            context.getLogger().log("Processing TTS job from SQS: " + message.getMessageId());
+
+            // SQS 메시지 파싱
+            jobMessage = objectMapper.readValue(message.getBody(), TTSJobMessage.class);
+
+            String jobId = jobMessage.getJobId();
+            String text = jobMessage.getText();
+            String voiceId = jobMessage.getVoiceId();
+            String s3Key = jobMessage.getS3Key();
+            boolean trackDuration = jobMessage.isTrackDuration();
+            TtsAudioProfile profile = TtsAudioProfile.fromId(jobMessage.getFormat());
+
+            context.getLogger().log(String.format(
+                "Job ID: %s, Text length: %d, Voice: %s",
+                jobId, text.length(), voiceId));
+
+            // 캐시 확인 (이미 존재하면 Polly MP3 생략, 이전 키 규칙 객체는 복사해 재사용)
+            AudioExistenceIndex.Lookup lookup = existenceIndex.lookup(
+                s3Key, profile == TtsAudioProfile.MP3 ? TtsKeys.legacyS3Key(text, voiceId) : null);
+            MetricsLogger.TTS.putCount(METRIC_FUNCTION, lookup.getMetricName());
+            Long durationMs = null;
+            if (!lookup.isCached()) {
+                // 같은 s3Key 합성이 진행 중이면 waiter로 붙고 끝 (owner가 함께 완료 처리)
+                SynthesisCoalescer.Claim claim = coalescer.claim(s3Key, waiterOf(jobMessage));
+                if (!claim.isOwner()) {
+                    context.getLogger().log("Attached to in-flight synthesis: " + s3Key);
+                    MetricsLogger.TTS.putCount(METRIC_FUNCTION, "CoalescedAttach");
+                    return;
+                }
                 try {
-                    TTSJobMessage jobMessage = objectMapper.readValue(
-                        message.getBody(), TTSJobMessage.class);
-                    jobStatusService.updateJobFailed(jobMessage.getJobId(), e.getMessage());
-
-                    if (sentenceAudioService != null
-                        && jobMessage.getSessionId() != null
-                        && jobMessage.getSentenceIndex() != null) {
-                        try {
-                            sentenceAudioService.updateFailed(
-                                jobMessage.getSessionId(),
-                                jobMessage.getSentenceIndex(),
-                                e.getMessage(),
-                                "TTS_WORKER_ERROR"
-                            );
-                        } catch (Exception ignore) {
-                            // noop
-                        }
+                    context.getLogger().log("Calling Polly TTS and streaming to S3: " + s3Key);
+                    durationMs = synthesisService.synthesizeAndUpload(text, voiceId, s3Key, profile, trackDuration);
+                } catch (Exception synthesisError) {
+                    // 재시도될 실패면 마커를 남긴다 (재전송된 이 메시지가 owner를 다시 잡고 waiter를 이어받음)
+                    if (finalAttempt) {
+                        waiters = coalescer.release(claim);
                     }
-                } catch (Exception updateError) {
-                    context.getLogger().log("Failed to update job status: " + updateError.getMessage());
+                    throw synthesisError;
+                }
+                waiters = coalescer.release(claim);
+            } else {
+                context.getLogger().log("S3 cache hit - skip MP3 generation: " + s3Key);
+                if (trackDuration) {
+                    durationMs = synthesisService.resolveCachedDurationMs(s3Key, profile);
                 }
+                // API 핸들러에서 마커를 잡고 보낸 작업이거나, 이전 수신에서 합성 실패 후 마커를 남긴 재전송이면
+                // 붙어 있던 waiter도 정리 (owner_job_id 조건이라 남의 마커는 지우지 않음)
+                if (jobMessage.isInFlightClaimed() || isRedelivery(message)) {
+                    waiters = coalescer.release(coalescer.ownedClaim(s3Key, jobId));
+                }
+            }
+
+            // Presigned URL (같은 만료 구간이면 컨테이너 캐시 재사용)
+            String presignedUrl = presignedUrls.get(s3Key).getUrl();
 
-                // SQS DLQ로 전달되도록 예외 재발생
-                throw new RuntimeException("TTS job processing failed", e);
+            synthesisService.completeJob(waiterOf(jobMessage), s3Key, durationMs, voiceId, presignedUrl);
+            for (SynthesisCoalescer.Waiter waiter : waiters) {
+                synthesisService.completeJob(waiter, s3Key, durationMs, voiceId, presignedUrl);
+            }
+            if (!waiters.isEmpty()) {
+                MetricsLogger.TTS.putMetric(METRIC_FUNCTION, "CoalescedCompleted", waiters.size(), "Count");
+            }
+
+            context.getLogger().log("TTS job completed successfully: " + jobId
+                + (waiters.isEmpty() ? "" : " (+" + waiters.size() + " coalesced)"));
+
+        } catch (Exception e) {
+            context.getLogger().log("Error processing TTS job: " + e.getMessage());
+            e.printStackTrace();
+
+            // 실패 상태 업데이트: 이 작업은 마지막 수신일 때만 (재시도 중엔 PROCESSING 유지),
+            // 이미 마커에서 넘겨받은 waiter는 다시 받을 방법이 없으므로 실패 처리
+            if (jobMessage != null && finalAttempt) {
+                synthesisService.failJob(waiterOf(jobMessage), e.getMessage());
+            }
+            for (SynthesisCoalescer.Waiter waiter : waiters) {
+                synthesisService.failJob(waiter, e.getMessage());
             }
+
+            // 배치 실패 항목으로 보고 → 재시도 후 DLQ
+            throw new RuntimeException("TTS job processing failed", e);
+        }
+    }
+
+    private static boolean isRedelivery(SQSEvent.SQSMessage message) {
+        String receiveCount = message.getAttributes() == null
+            ? null
+            : message.getAttributes().get("ApproximateReceiveCount");
+        return receiveCount != null && !"1".equals(receiveCount);
+    }
+
+    private boolean isFinalAttempt(SQSEvent.SQSMessage message) {
+        try {
+            String receiveCount = message.getAttributes() == null
+                ? null
+                : message.getAttributes().get("ApproximateReceiveCount");
+            return receiveCount == null || Integer.parseInt(receiveCount) >= maxReceiveCount;
+        } catch (NumberFormatException e) {
+            return true;
         }
+    }
 
-        return null;
+    private static SynthesisCoalescer.Waiter waiterOf(TTSJobMessage jobMessage) {
+        return new SynthesisCoalescer.Waiter(
+            jobMessage.getJobId(), jobMessage.getSessionId(), jobMessage.getSentenceIndex());
     }
 }
@@ -4,6 +4,7 @@ public class JobStatus {
     private String jobId;
     private String status; // PROCESSING, COMPLETED, FAILED
     private String audioUrl;
+    private String s3Key;
     private String error;
     private Long ttl;
 
@@ -54,6 +55,14 @@ public class JobStatus {
         this.audioUrl = audioUrl;
     }
 
+    public String getS3Key() {
+        return s3Key;
+    }
+
+    public void setS3Key(String s3Key) {
+        this.s3Key = s3Key;
+    }
+
     public String getError() {
         return error;
     }
@@ -0,0 +1,37 @@
+package com.speaktracker.tts.model;
+
+import java.util.List;
+
+public class TTSBatchRequest {
+    private List<TTSRequest> items;
+
+    public TTSBatchRequest() {}
+
+    public List<TTSRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<TTSRequest> items) {
+        this.items = items;
+    }
+
+    public void validate(int maxItems) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("items is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("items exceeds maximum of " + maxItems);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            TTSRequest item = items.get(i);
+            if (item == null) {
+                throw new IllegalArgumentException("items[" + i + "]: text is required");
+            }
+            try {
+                item.validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("items[" + i + "]: " + e.getMessage());
+            }
+        }
+    }
+}
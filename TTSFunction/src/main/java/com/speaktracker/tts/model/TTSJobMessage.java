@@ -11,6 +11,12 @@ public class TTSJobMessage {
     private Integer sentenceIndex;
     private boolean trackDuration;
 
+    // 출력 프로필 id (없으면 mp3, TtsAudioProfile)
+    private String format;
+
+    // API 핸들러가 in-flight 마커 owner로 보낸 작업 (워커가 캐시 히트여도 마커를 정리해야 함)
+    private boolean inFlightClaimed;
+
     public TTSJobMessage() {}
 
     public TTSJobMessage(String jobId, String text, String voiceId, String s3Key) {
@@ -79,4 +85,20 @@ public class TTSJobMessage {
     public void setTrackDuration(boolean trackDuration) {
         this.trackDuration = trackDuration;
     }
+
+    public boolean isInFlightClaimed() {
+        return inFlightClaimed;
+    }
+
+    public void setInFlightClaimed(boolean inFlightClaimed) {
+        this.inFlightClaimed = inFlightClaimed;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
 }
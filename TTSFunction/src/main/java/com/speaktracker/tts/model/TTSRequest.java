@@ -3,6 +3,8 @@ package com.speaktracker.tts.model;
 public class TTSRequest {
     private String text;
     private String voiceId;
+    // 출력 프로필 id (mp3, mp3-low, ogg, ogg-low, pcm). 없으면 Accept 헤더로 협상
+    private String format;
 
     public TTSRequest() {}
 
@@ -22,6 +24,14 @@ public class TTSRequest {
         this.voiceId = voiceId;
     }
 
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
     public void validate() {
         if (text == null || text.trim().isEmpty()) {
             throw new IllegalArgumentException("text is required");
@@ -1,10 +1,16 @@
 package com.speaktracker.tts.model;
 
+import com.speaktracker.common.tts.TtsAudioProfile;
+
 public class TTSResponse {
     private boolean success;
     private String audioUrl;
     private int expiresIn;
     private boolean cached;
+    private String format;
+    private String contentType;
+    // raw 포맷(pcm)의 샘플 인코딩 (예: s16le;rate=16000;channels=1)
+    private String encoding;
     private String error;
 
     public TTSResponse() {}
@@ -18,6 +24,14 @@ public class TTSResponse {
         return response;
     }
 
+    public static TTSResponse success(String audioUrl, int expiresIn, boolean cached, TtsAudioProfile profile) {
+        TTSResponse response = success(audioUrl, expiresIn, cached);
+        response.format = profile.getId();
+        response.contentType = profile.getContentType();
+        response.encoding = profile.getEncoding();
+        return response;
+    }
+
     public static TTSResponse error(String errorMessage) {
         TTSResponse response = new TTSResponse();
         response.success = false;
@@ -58,6 +72,30 @@ public class TTSResponse {
         this.cached = cached;
     }
 
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
     public String getError() {
         return error;
     }
@@ -0,0 +1,217 @@
+package com.speaktracker.tts.service;
+
+import com.speaktracker.common.tts.MetricsLogger;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TTS 오디오 존재 여부 계층 캐시 (요청마다 S3 HeadObject 하지 않도록)
+ * 1) 컨테이너 메모리 LRU: 존재 확인된 키(+재생 길이), 짧은 TTL의 부재 기록
+ * 2) DynamoDB 인덱스(TTS_AUDIO_INDEX_TABLE): 워커가 업로드 시 기록, 객체 만료 하루 전 TTL
+ * 3) S3 HeadObject (+ legacy 키 복사) → 결과를 1), 2)에 채움
+ * - 버킷 수명주기(TTS_AUDIO_RETENTION_DAYS, 기본 30일)로 객체가 지워지므로 모든 존재 기록은 그 전에 만료된다.
+ * - 인덱스 테이블이 없으면 메모리 + S3 만 사용
+ */
+public class AudioExistenceIndex {
+
+    /**
+     * 조회 결과 (LEGACY_ALIAS: 이전 키 규칙 객체를 현재 키로 복사해 재사용)
+     */
+    public enum Lookup {
+        HIT("CacheHit"),
+        LEGACY_ALIAS("LegacyAliasHit"),
+        MISS("CacheMiss");
+
+        private final String metricName;
+
+        Lookup(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public boolean isCached() {
+            return this != MISS;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final long NEGATIVE_TTL_MS = 5_000;
+    private static final Duration EXPIRY_MARGIN = Duration.ofDays(1);
+
+    private final S3Service s3Service;
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final String metricFunction;
+    private final Duration retention;
+    private final Map<String, Entry> memory;
+
+    public AudioExistenceIndex(S3Service s3Service, DynamoDbClient dynamoDbClient, String tableName,
+                               String metricFunction) {
+        this.s3Service = s3Service;
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = (tableName == null || tableName.isBlank()) ? null : tableName;
+        this.metricFunction = metricFunction;
+        this.retention = Duration.ofDays(parseIntEnv("TTS_AUDIO_RETENTION_DAYS", 30));
+        int capacity = parseIntEnv("TTS_EXISTENCE_CACHE_SIZE", 10_000);
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 현재 키 존재 여부 확인. 없으면 legacy 키 객체를 현재 키로 복사해 재사용
+     */
+    public Lookup lookup(String s3Key, String legacyS3Key) {
+        long now = System.currentTimeMillis();
+        Entry cached = getMemory(s3Key, now);
+        if (cached != null) {
+            MetricsLogger.TTS.putCount(metricFunction, cached.present ? "IndexMemoryHit" : "IndexNegativeHit");
+            return cached.present ? Lookup.HIT : Lookup.MISS;
+        }
+
+        Entry indexed = getIndexed(s3Key, now);
+        if (indexed != null) {
+            MetricsLogger.TTS.putCount(metricFunction, "IndexTableHit");
+            putMemory(s3Key, indexed);
+            return Lookup.HIT;
+        }
+
+        MetricsLogger.TTS.putCount(metricFunction, "S3Lookup");
+        Instant lastModified = s3Service.getLastModified(s3Key);
+        if (lastModified != null) {
+            record(s3Key, lastModified, null);
+            return Lookup.HIT;
+        }
+
+        if (legacyS3Key != null && !legacyS3Key.equals(s3Key) && s3Service.getLastModified(legacyS3Key) != null) {
+            try {
+                s3Service.copyObject(legacyS3Key, s3Key);
+                record(s3Key, Instant.now(), null);
+                return Lookup.LEGACY_ALIAS;
+            } catch (Exception e) {
+                System.err.println("Failed to alias legacy TTS object " + legacyS3Key + " -> " + s3Key + ": "
+                    + e.getMessage());
+            }
+        }
+
+        putMemory(s3Key, new Entry(false, null, now + NEGATIVE_TTL_MS));
+        return Lookup.MISS;
+    }
+
+    /**
+     * 워커 업로드 직후 기록 (다음 요청은 S3를 거치지 않음)
+     */
+    public void markPresent(String s3Key, Long durationMs) {
+        record(s3Key, Instant.now(), durationMs);
+    }
+
+    /**
+     * 메모리에 알려진 재생 길이 (없으면 null)
+     */
+    public Long knownDurationMs(String s3Key) {
+        Entry entry = getMemory(s3Key, System.currentTimeMillis());
+        return entry == null ? null : entry.durationMs;
+    }
+
+    private void record(String s3Key, Instant lastModified, Long durationMs) {
+        long expiresAt = lastModified.plus(retention).minus(EXPIRY_MARGIN).toEpochMilli();
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        putMemory(s3Key, new Entry(true, durationMs, expiresAt));
+
+        if (tableName == null) {
+            return;
+        }
+        try {
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("s3_key", AttributeValue.builder().s(s3Key).build());
+            item.put("ttl", AttributeValue.builder().n(String.valueOf(expiresAt / 1000)).build());
+            if (durationMs != null) {
+                item.put("duration_ms", AttributeValue.builder().n(String.valueOf(durationMs)).build());
+            }
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(item)
+                .build());
+        } catch (Exception e) {
+            System.err.println("Failed to write TTS audio index: " + e.getMessage());
+        }
+    }
+
+    private Entry getIndexed(String s3Key, long now) {
+        if (tableName == null) {
+            return null;
+        }
+        try {
+            GetItemResponse resp = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("s3_key", AttributeValue.builder().s(s3Key).build()))
+                .build());
+            if (!resp.hasItem() || resp.item().isEmpty()) {
+                return null;
+            }
+            Map<String, AttributeValue> item = resp.item();
+            // TTL 삭제는 지연될 수 있으므로 직접 확인
+            long expiresAt = Long.parseLong(item.get("ttl").n()) * 1000;
+            if (expiresAt <= now) {
+                return null;
+            }
+            AttributeValue duration = item.get("duration_ms");
+            return new Entry(true, duration == null ? null : Long.parseLong(duration.n()), expiresAt);
+        } catch (Exception e) {
+            System.err.println("Failed to read TTS audio index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized Entry getMemory(String s3Key, long now) {
+        Entry entry = memory.get(s3Key);
+        if (entry != null && entry.expiresAt <= now) {
+            memory.remove(s3Key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void putMemory(String s3Key, Entry entry) {
+        memory.put(s3Key, entry);
+    }
+
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
+    private static final class Entry {
+        private final boolean present;
+        private final Long durationMs;
+        private final long expiresAt;
+
+        private Entry(boolean present, Long durationMs, long expiresAt) {
+            this.present = present;
+            this.durationMs = durationMs;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
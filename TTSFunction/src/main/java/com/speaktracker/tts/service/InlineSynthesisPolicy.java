@@ -0,0 +1,104 @@
+package com.speaktracker.tts.service;
+
+/**
+ * API 핸들러에서 바로 합성(동기 응답)할지 판단
+ * - 짧은 문장(threshold 이하)은 큐를 거치지 않고 인라인 합성 → 200 + presigned URL
+ * - 큐가 밀려 있으면(TTS_INLINE_BACKLOG 이상) TTS_INLINE_MAX_CHARS 까지 인라인으로 흡수
+ * - threshold는 관측한 Polly 지연(글자당 ms, EWMA)으로 TTS_INLINE_BUDGET_MS 안에 끝날 길이로 조정
+ * - 인라인 Polly 호출은 예산을 apiCallTimeout으로 걸고, 실패/타임아웃은 예산 초과로 기록해 threshold를 낮춤
+ * - TTS_INLINE_CHARS=0 이면 비활성 (항상 비동기)
+ */
+public class InlineSynthesisPolicy {
+
+    // 글자 수와 무관한 고정 비용(요청/업로드)을 글자 수로 환산한 값
+    private static final int OVERHEAD_CHARS = 50;
+    private static final int MIN_THRESHOLD_CHARS = 40;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final long BACKLOG_CACHE_MS = 10_000;
+    // 실패/타임아웃은 실제 걸렸을 시간을 모르므로 예산의 2배가 걸린 것으로 본다
+    private static final double MISS_PENALTY = 2.0;
+
+    private final SQSService sqsService;
+    private final int configuredChars;
+    private final int maxChars;
+    private final long budgetMs;
+    private final int backlogThreshold;
+
+    private double msPerChar = -1;
+    private int backlog;
+    private long backlogCheckedAt;
+
+    public InlineSynthesisPolicy(SQSService sqsService) {
+        this.sqsService = sqsService;
+        this.configuredChars = parseIntEnv("TTS_INLINE_CHARS", 150);
+        this.maxChars = Math.max(configuredChars, parseIntEnv("TTS_INLINE_MAX_CHARS", 400));
+        this.budgetMs = parseIntEnv("TTS_INLINE_BUDGET_MS", 2000);
+        this.backlogThreshold = parseIntEnv("TTS_INLINE_BACKLOG", 20);
+    }
+
+    /**
+     * @param chars       요청 텍스트 길이
+     * @param remainingMs Lambda 남은 시간 (예산의 2배 미만이면 인라인 안 함)
+     */
+    public boolean shouldInline(int chars, long remainingMs) {
+        if (configuredChars <= 0 || remainingMs < budgetMs * 2) {
+            return false;
+        }
+        if (chars <= threshold()) {
+            return true;
+        }
+        return chars <= maxChars && backlog() >= backlogThreshold;
+    }
+
+    /**
+     * 인라인 합성에 허용하는 시간 (Polly 호출 제한)
+     */
+    public long budgetMs() {
+        return budgetMs;
+    }
+
+    /**
+     * 인라인 합성 결과 기록 → threshold 갱신
+     *
+     * @param succeeded false면 실패/타임아웃 → 예산 초과로 간주 (최소 budget × MISS_PENALTY)
+     */
+    public synchronized void record(int chars, long latencyMs, boolean succeeded) {
+        double effectiveMs = succeeded ? latencyMs : Math.max(latencyMs, budgetMs * MISS_PENALTY);
+        double sample = effectiveMs / (chars + OVERHEAD_CHARS);
+        msPerChar = msPerChar < 0 ? sample : msPerChar + EWMA_ALPHA * (sample - msPerChar);
+    }
+
+    /**
+     * 현재 인라인 기준 글자 수 (관측값이 없으면 설정값)
+     */
+    public synchronized int threshold() {
+        if (configuredChars <= 0) {
+            return 0;
+        }
+        if (msPerChar <= 0) {
+            return configuredChars;
+        }
+        long chars = (long) (budgetMs / msPerChar) - OVERHEAD_CHARS;
+        return (int) Math.max(MIN_THRESHOLD_CHARS, Math.min(maxChars, chars));
+    }
+
+    private synchronized int backlog() {
+        long now = System.currentTimeMillis();
+        if (now - backlogCheckedAt >= BACKLOG_CACHE_MS) {
+            backlog = sqsService.getApproximateBacklog();
+            backlogCheckedAt = now;
+        }
+        return backlog;
+    }
+
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v >= 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+}
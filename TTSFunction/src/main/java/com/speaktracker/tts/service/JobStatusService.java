@@ -6,10 +6,18 @@ import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class JobStatusService {
+    private static final String BATCH_STATUS = "BATCH";
+    private static final int BATCH_WRITE_LIMIT = 25;
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final int BATCH_MAX_ATTEMPTS = 5;
+
     private final DynamoDbClient dynamoDbClient;
     private final String tableName;
     private final ObjectMapper objectMapper;
@@ -34,18 +42,158 @@ public class JobStatusService {
         dynamoDbClient.putItem(request);
     }
 
-    public void updateJobCompleted(String jobId, String audioUrl) {
+    /**
+     * 작업 row가 없을 때만 생성 (합성 owner가 먼저 완료 처리한 row는 덮어쓰지 않음)
+     */
+    public void createJobIfAbsent(String jobId, String status) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("job_id", AttributeValue.builder().s(jobId).build());
+        item.put("status", AttributeValue.builder().s(status).build());
+        item.put("ttl", AttributeValue.builder().n(String.valueOf(Instant.now().getEpochSecond() + 3600)).build());
+
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(tableName)
+                .item(item)
+                .conditionExpression("attribute_not_exists(job_id)")
+                .build();
+
+        try {
+            dynamoDbClient.putItem(request);
+        } catch (ConditionalCheckFailedException e) {
+            // 이미 완료/실패 처리됨
+        }
+    }
+
+    /**
+     * 배치 요청 row + 캐시 미스 항목 작업 row(PROCESSING)를 BatchWriteItem으로 생성
+     * - 배치 row(status=BATCH)는 항목 순서대로 s3_key와 (미스 항목만) job_id를 보관
+     */
+    public void createBatch(String batchId, List<BatchItem> items) {
+        long ttl = Instant.now().getEpochSecond() + 3600;
+        List<Map<String, AttributeValue>> rows = new ArrayList<>();
+
+        List<AttributeValue> itemValues = new ArrayList<>();
+        for (BatchItem item : items) {
+            Map<String, AttributeValue> value = new HashMap<>();
+            value.put("s3_key", AttributeValue.builder().s(item.getS3Key()).build());
+            if (item.getJobId() != null) {
+                value.put("job_id", AttributeValue.builder().s(item.getJobId()).build());
+
+                Map<String, AttributeValue> jobRow = new HashMap<>();
+                jobRow.put("job_id", AttributeValue.builder().s(item.getJobId()).build());
+                jobRow.put("status", AttributeValue.builder().s("PROCESSING").build());
+                jobRow.put("ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
+                rows.add(jobRow);
+            }
+            itemValues.add(AttributeValue.builder().m(value).build());
+        }
+
+        Map<String, AttributeValue> batchRow = new HashMap<>();
+        batchRow.put("job_id", AttributeValue.builder().s(batchId).build());
+        batchRow.put("status", AttributeValue.builder().s(BATCH_STATUS).build());
+        batchRow.put("items", AttributeValue.builder().l(itemValues).build());
+        batchRow.put("ttl", AttributeValue.builder().n(String.valueOf(ttl)).build());
+        rows.add(batchRow);
+
+        for (int i = 0; i < rows.size(); i += BATCH_WRITE_LIMIT) {
+            List<WriteRequest> writes = new ArrayList<>();
+            for (Map<String, AttributeValue> row : rows.subList(i, Math.min(i + BATCH_WRITE_LIMIT, rows.size()))) {
+                writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(row).build()).build());
+            }
+
+            Map<String, List<WriteRequest>> pending = Map.of(tableName, writes);
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                BatchWriteItemResponse resp = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                pending = resp.hasUnprocessedItems() ? resp.unprocessedItems() : Map.of();
+                if (pending.isEmpty()) {
+                    break;
+                }
+                if (attempt >= BATCH_MAX_ATTEMPTS) {
+                    throw new RuntimeException("Failed to create batch job rows: "
+                            + pending.getOrDefault(tableName, List.of()).size() + " unprocessed");
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * 배치 row의 항목 목록 (없거나 배치 row가 아니면 null)
+     */
+    public List<BatchItem> getBatchItems(String batchId) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("job_id", AttributeValue.builder().s(batchId).build()))
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return null;
+        }
+        Map<String, AttributeValue> item = response.item();
+        if (!item.containsKey("status") || !BATCH_STATUS.equals(item.get("status").s()) || !item.containsKey("items")) {
+            return null;
+        }
+
+        List<BatchItem> items = new ArrayList<>();
+        for (AttributeValue value : item.get("items").l()) {
+            Map<String, AttributeValue> m = value.m();
+            items.add(new BatchItem(m.get("s3_key").s(), m.containsKey("job_id") ? m.get("job_id").s() : null));
+        }
+        return items;
+    }
+
+    /**
+     * 여러 작업 상태를 BatchGetItem으로 조회 (없는 작업은 결과에 없음)
+     */
+    public Map<String, JobStatus> getJobStatuses(Collection<String> jobIds) {
+        Map<String, JobStatus> result = new HashMap<>();
+        List<String> ids = new ArrayList<>(jobIds);
+        for (int i = 0; i < ids.size(); i += BATCH_GET_LIMIT) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String jobId : ids.subList(i, Math.min(i + BATCH_GET_LIMIT, ids.size()))) {
+                keys.add(Map.of("job_id", AttributeValue.builder().s(jobId).build()));
+            }
+
+            Map<String, KeysAndAttributes> pending = Map.of(tableName, KeysAndAttributes.builder().keys(keys).build());
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                BatchGetItemResponse resp = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                for (Map<String, AttributeValue> item : resp.responses().getOrDefault(tableName, List.of())) {
+                    JobStatus jobStatus = toJobStatus(item.get("job_id").s(), item);
+                    result.put(jobStatus.getJobId(), jobStatus);
+                }
+                pending = resp.hasUnprocessedKeys() ? resp.unprocessedKeys() : Map.of();
+                if (pending.isEmpty()) {
+                    break;
+                }
+                if (attempt >= BATCH_MAX_ATTEMPTS) {
+                    // 못 읽은 작업은 진행 중으로 보인다.
+                    break;
+                }
+                backoff(attempt);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 완료 처리 - s3_key도 함께 저장해 상태 조회 시 만료되지 않은 URL을 다시 발급할 수 있게 한다.
+     */
+    public void updateJobCompleted(String jobId, String audioUrl, String s3Key) {
         Map<String, AttributeValue> key = new HashMap<>();
         key.put("job_id", AttributeValue.builder().s(jobId).build());
 
         Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
         expressionAttributeValues.put(":status", AttributeValue.builder().s("COMPLETED").build());
         expressionAttributeValues.put(":audioUrl", AttributeValue.builder().s(audioUrl).build());
+        expressionAttributeValues.put(":s3Key", AttributeValue.builder().s(s3Key).build());
 
         UpdateItemRequest request = UpdateItemRequest.builder()
                 .tableName(tableName)
                 .key(key)
-                .updateExpression("SET #status = :status, audio_url = :audioUrl")
+                .updateExpression("SET #status = :status, audio_url = :audioUrl, s3_key = :s3Key")
                 .expressionAttributeNames(Map.of("#status", "status"))
                 .expressionAttributeValues(expressionAttributeValues)
                 .build();
@@ -72,22 +220,55 @@ public class JobStatusService {
         dynamoDbClient.updateItem(request);
     }
 
+    /**
+     * 단건 작업 상태 (없거나 배치 row면 null - 배치 id는 작업 상태 API로 조회하지 않음)
+     */
     public JobStatus getJobStatus(String jobId) {
+        return getJobStatus(jobId, false);
+    }
+
+    /**
+     * 작업이 COMPLETED/FAILED가 되거나 waitMs가 지날 때까지 대기 (long-poll)
+     * - 조회 간격은 100ms에서 시작해 1.5배씩 늘려 최대 1초 (완료 직후 응답 + 긴 작업은 조회 수 절감)
+     *
+     * @return 마지막으로 조회한 상태 (작업이 없으면 null)
+     */
+    public JobStatus waitForJobStatus(String jobId, long waitMs) {
+        long deadline = System.currentTimeMillis() + waitMs;
+        long delayMs = 100;
+        while (true) {
+            JobStatus jobStatus = getJobStatus(jobId, true);
+            if (jobStatus == null || isTerminal(jobStatus.getStatus())) {
+                return jobStatus;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || !sleepQuietly(Math.min(delayMs, remaining))) {
+                return jobStatus;
+            }
+            delayMs = Math.min(1000, delayMs * 3 / 2);
+        }
+    }
+
+    private JobStatus getJobStatus(String jobId, boolean consistentRead) {
         Map<String, AttributeValue> key = new HashMap<>();
         key.put("job_id", AttributeValue.builder().s(jobId).build());
 
         GetItemRequest request = GetItemRequest.builder()
                 .tableName(tableName)
                 .key(key)
+                .consistentRead(consistentRead)
                 .build();
 
         GetItemResponse response = dynamoDbClient.getItem(request);
 
-        if (!response.hasItem()) {
+        if (!response.hasItem() || isBatchRow(response.item())) {
             return null;
         }
 
-        Map<String, AttributeValue> item = response.item();
+        return toJobStatus(jobId, response.item());
+    }
+
+    private static JobStatus toJobStatus(String jobId, Map<String, AttributeValue> item) {
         JobStatus jobStatus = new JobStatus();
         jobStatus.setJobId(jobId);
         jobStatus.setStatus(item.get("status").s());
@@ -96,10 +277,63 @@ public class JobStatusService {
             jobStatus.setAudioUrl(item.get("audio_url").s());
         }
 
+        if (item.containsKey("s3_key")) {
+            jobStatus.setS3Key(item.get("s3_key").s());
+        }
+
         if (item.containsKey("error")) {
             jobStatus.setError(item.get("error").s());
         }
 
         return jobStatus;
     }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(25L << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying job status batch", e);
+        }
+    }
+
+    private static boolean isBatchRow(Map<String, AttributeValue> item) {
+        AttributeValue status = item.get("status");
+        return status != null && BATCH_STATUS.equals(status.s());
+    }
+
+    private static boolean isTerminal(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status);
+    }
+
+    private static boolean sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 배치 항목 (캐시 히트 항목은 jobId 없음)
+     */
+    public static class BatchItem {
+        private final String s3Key;
+        private final String jobId;
+
+        public BatchItem(String s3Key, String jobId) {
+            this.s3Key = s3Key;
+            this.jobId = jobId;
+        }
+
+        public String getS3Key() {
+            return s3Key;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+    }
 }
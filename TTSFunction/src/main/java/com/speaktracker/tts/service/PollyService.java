@@ -1,102 +1,118 @@
 package com.speaktracker.tts.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speaktracker.common.tts.MetricsLogger;
+import com.speaktracker.common.tts.TtsAudioProfile;
+import com.speaktracker.tts.util.PollyRateLimiter;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.polly.model.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
+import java.io.InputStream;
+import java.time.Duration;
 
 public class PollyService {
 
+    /**
+     * 컨테이너 내 Polly 호출 속도 상한 (초당 호출 수)
+     * - 계정 한도(Neural SynthesizeSpeech TPS)를 워커 최대 동시 실행 수(ScalingConfig.MaximumConcurrency)로 나눈 값
+     * - 스로틀이 나면 절반으로 줄이고 성공하면 다시 올린다 (인라인 합성 등 다른 호출자와 한도를 나눠 쓰므로)
+     * - 웜 컨테이너에서 호출 간 학습된 속도를 유지하도록 static으로 공유
+     */
+    private static final PollyRateLimiter POLLY_LIMITER = new PollyRateLimiter(
+        parseIntEnv("POLLY_MAX_TPS", 4), 0.5, 0.5);
+
     private final PollyClient pollyClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String metricFunction;
 
-    public PollyService(PollyClient pollyClient) {
+    /**
+     * @param metricFunction 스로틀 메트릭의 Function 디멘션 (호출한 Lambda)
+     */
+    public PollyService(PollyClient pollyClient, String metricFunction) {
         this.pollyClient = pollyClient;
+        this.metricFunction = metricFunction;
     }
 
     /**
-     * 텍스트를 음성으로 변환 (Joanna 여성 음성, Neural 엔진)
+     * 합성된 오디오 스트림 처리 (스트림은 호출 안에서만 유효)
      */
-    public byte[] synthesizeSpeech(String text, String voiceId) {
-        SynthesizeSpeechRequest request = SynthesizeSpeechRequest.builder()
-            .text(text)
-            .voiceId(VoiceId.fromValue(voiceId))
-            .engine(Engine.NEURAL)
-            .outputFormat(OutputFormat.MP3)
-            .build();
-
-        try (ResponseInputStream<SynthesizeSpeechResponse> responseStream =
-                 pollyClient.synthesizeSpeech(request)) {
-
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            byte[] data = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = responseStream.read(data, 0, data.length)) != -1) {
-                buffer.write(data, 0, bytesRead);
-            }
-            return buffer.toByteArray();
+    @FunctionalInterface
+    public interface AudioStreamConsumer<T> {
+        T accept(InputStream audio) throws IOException;
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read Polly response stream", e);
-        }
+    /**
+     * 텍스트를 음성으로 변환 (Joanna 여성 음성, Neural 엔진)
+     * - 출력 포맷/샘플레이트는 프로필대로 (mp3 프로필은 엔진 기본 샘플레이트)
+     * - 응답을 메모리에 모으지 않고 consumer(S3 업로드 등)에 스트림 그대로 전달
+     */
+    public <T> T synthesizeSpeech(String text, String voiceId, TtsAudioProfile profile,
+                                  AudioStreamConsumer<T> consumer) {
+        return synthesizeSpeech(text, voiceId, profile, null, consumer);
     }
 
     /**
-     * SpeechMarks 기반 duration(ms) 추출.
-     * - Polly의 time은 "mark 시작 시각(ms)"이며, 정확한 끝 시각이 아닐 수 있음.
-     * - 실패 시 null 반환(오디오 생성 자체는 성공으로 처리 가능).
+     * @param callTimeout 속도 제한 대기 + Polly 호출(SDK 재시도 포함) 전체 상한. null이면 클라이언트 기본값
      */
-    public Long tryGetDurationMs(String text, String voiceId) {
-        SynthesizeSpeechRequest request = SynthesizeSpeechRequest.builder()
+    public <T> T synthesizeSpeech(String text, String voiceId, TtsAudioProfile profile, Duration callTimeout,
+                                  AudioStreamConsumer<T> consumer) {
+        SynthesizeSpeechRequest.Builder builder = SynthesizeSpeechRequest.builder()
             .text(text)
             .voiceId(VoiceId.fromValue(voiceId))
             .engine(Engine.NEURAL)
-            .outputFormat(OutputFormat.JSON)
-            .speechMarkTypes(SpeechMarkType.WORD)
-            .build();
-
-        try (ResponseInputStream<SynthesizeSpeechResponse> responseStream =
-                 pollyClient.synthesizeSpeech(request)) {
-
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            byte[] data = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = responseStream.read(data, 0, data.length)) != -1) {
-                buffer.write(data, 0, bytesRead);
-            }
+            .outputFormat(OutputFormat.fromValue(profile.getOutputFormat()));
+        if (profile.getSampleRate() != null) {
+            builder.sampleRate(profile.getSampleRate());
+        }
 
-            String body = buffer.toString(StandardCharsets.UTF_8);
-            if (body == null || body.isBlank()) {
-                return null;
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (callTimeout == null) {
+                POLLY_LIMITER.acquire();
+            } else if (!POLLY_LIMITER.tryAcquire(callTimeout.toMillis())) {
+                throw new RuntimeException("Polly rate limit wait exceeds call timeout: " + callTimeout.toMillis() + "ms");
             }
-
-            long maxTime = -1;
-            String[] lines = body.split("\n");
-            for (String line : lines) {
-                if (line == null || line.isBlank()) continue;
-                try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> m = objectMapper.readValue(line, Map.class);
-                    Object t = m.get("time");
-                    if (t instanceof Number) {
-                        maxTime = Math.max(maxTime, ((Number) t).longValue());
-                    } else if (t != null) {
-                        maxTime = Math.max(maxTime, Long.parseLong(String.valueOf(t)));
-                    }
-                } catch (Exception ignore) {
-                    // 일부 라인 파싱 실패는 무시하고 계속
-                }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Polly rate limit", e);
+        }
+        if (callTimeout != null) {
+            // 대기한 만큼 뺀 나머지를 API 호출 제한으로 (최소 1ms)
+            long remainingMs = Math.max(1, callTimeout.toMillis() - (System.currentTimeMillis() - startedAt));
+            builder.overrideConfiguration(AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMillis(remainingMs))
+                .build());
+        }
+        SynthesizeSpeechRequest request = builder.build();
+        ResponseInputStream<SynthesizeSpeechResponse> responseStream;
+        try {
+            responseStream = pollyClient.synthesizeSpeech(request);
+        } catch (PollyException e) {
+            // SDK 재시도 후에도 한도 초과 → 속도 절반, 호출자는 SQS 재시도/비동기 전환
+            if (e.isThrottlingException()) {
+                POLLY_LIMITER.onThrottle();
+                MetricsLogger.TTS.putCount(metricFunction, "PollyThrottled");
             }
+            throw e;
+        }
+        POLLY_LIMITER.onSuccess();
 
-            return maxTime >= 0 ? maxTime : null;
+        try (ResponseInputStream<SynthesizeSpeechResponse> audio = responseStream) {
+            return consumer.accept(audio);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Polly response stream", e);
+        }
+    }
 
-        } catch (Exception e) {
-            return null;
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
         }
     }
 }
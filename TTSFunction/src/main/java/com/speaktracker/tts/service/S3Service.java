@@ -1,5 +1,6 @@
 package com.speaktracker.tts.service;
 
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
@@ -7,10 +8,26 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class S3Service {
 
+    // 업로드 시 계산한 재생 길이(ms)를 담는 사용자 메타데이터 (x-amz-meta-duration-ms)
+    private static final String DURATION_METADATA = "duration-ms";
+
+    // multipart 최소 파트 크기 = 스트리밍 업로드 시 최대 버퍼 크기
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
     private final String bucketName;
@@ -22,16 +39,135 @@ public class S3Service {
     }
 
     /**
-     * 오디오 byte 배열을 S3에 업로드
+     * 오디오 스트림을 힙에 통째로 올리지 않고 업로드 (최대 PART_SIZE만 버퍼링)
+     * - 한 파트 안에 끝나면 PutObject 1회 (재생 길이 메타데이터 포함)
+     * - 넘으면 multipart 업로드 후 재생 길이 메타데이터를 복사로 추가
+     *
+     * @param contentType 출력 프로필의 Content-Type
+     * @param durationMs  본문을 끝까지 읽은 뒤 호출되는 재생 길이 (스트림을 tee 하는 scanner)
      */
-    public void uploadAudio(String s3Key, byte[] audioBytes) {
-        PutObjectRequest putRequest = PutObjectRequest.builder()
+    public void uploadAudio(String s3Key, InputStream audio, String contentType, Supplier<Long> durationMs)
+            throws IOException {
+        byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        while (length < PART_SIZE) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, PART_SIZE));
+            }
+            int n = audio.read(buffer, length, buffer.length - length);
+            if (n == -1) {
+                break;
+            }
+            length += n;
+        }
+
+        int next = length < PART_SIZE ? -1 : audio.read();
+        if (next == -1) {
+            PutObjectRequest.Builder putRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .contentType(contentType);
+            Long duration = durationMs.get();
+            if (duration != null) {
+                putRequest.metadata(Map.of(DURATION_METADATA, String.valueOf(duration)));
+            }
+            s3Client.putObject(putRequest.build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+            return;
+        }
+
+        uploadMultipart(s3Key, contentType, buffer, length, next, audio);
+        Long duration = durationMs.get();
+        if (duration != null) {
+            putDurationMetadata(s3Key, duration, contentType);
+        }
+    }
+
+    private void uploadMultipart(String s3Key, String contentType, byte[] buffer, int length, int next,
+                                 InputStream audio) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
             .bucket(bucketName)
             .key(s3Key)
-            .contentType("audio/mpeg")
-            .build();
+            .contentType(contentType)
+            .build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            while (length > 0) {
+                int partNumber = parts.size() + 1;
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(s3Key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) length)
+                        .build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+
+                // 다음 파트 채우기 (직전 파트 판정 때 읽은 1바이트부터)
+                length = 0;
+                if (next != -1) {
+                    buffer[length++] = (byte) next;
+                    int n;
+                    while (length < PART_SIZE && (n = audio.read(buffer, length, PART_SIZE - length)) != -1) {
+                        length += n;
+                    }
+                    next = length < PART_SIZE ? -1 : audio.read();
+                }
+            }
 
-        s3Client.putObject(putRequest, RequestBody.fromBytes(audioBytes));
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build());
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(uploadId)
+                .build());
+            throw e;
+        }
+    }
+
+    public ResponseInputStream<GetObjectResponse> openAudio(String s3Key) {
+        return s3Client.getObject(GetObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .build());
+    }
+
+    /**
+     * 메타데이터에 저장된 재생 길이(ms), 없으면 null
+     */
+    public Long getDurationMs(String s3Key) {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .build());
+        String raw = head.metadata().get(DURATION_METADATA);
+        try {
+            return raw == null ? null : Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 기존 객체에 재생 길이 메타데이터 추가 (자기 자신으로 복사하며 메타데이터 교체)
+     */
+    public void putDurationMetadata(String s3Key, long durationMs, String contentType) {
+        s3Client.copyObject(CopyObjectRequest.builder()
+            .sourceBucket(bucketName)
+            .sourceKey(s3Key)
+            .destinationBucket(bucketName)
+            .destinationKey(s3Key)
+            .metadataDirective(MetadataDirective.REPLACE)
+            .contentType(contentType)
+            .metadata(Map.of(DURATION_METADATA, String.valueOf(durationMs)))
+            .build());
     }
 
     /**
@@ -53,20 +189,28 @@ public class S3Service {
     }
 
     /**
-     * S3에 해당 키의 파일이 존재하는지 확인
+     * 객체 최종 수정 시각 (없으면 null). 버킷 수명주기 만료 시점 계산용
      */
-    public boolean exists(String s3Key) {
+    public Instant getLastModified(String s3Key) {
         try {
-            HeadObjectRequest headRequest = HeadObjectRequest.builder()
+            return s3Client.headObject(HeadObjectRequest.builder()
                 .bucket(bucketName)
                 .key(s3Key)
-                .build();
-
-            s3Client.headObject(headRequest);
-            return true;
-
+                .build()).lastModified();
         } catch (NoSuchKeyException e) {
-            return false;
+            return null;
         }
     }
+
+    /**
+     * 같은 버킷 안에서 서버측 복사
+     */
+    public void copyObject(String sourceKey, String destinationKey) {
+        s3Client.copyObject(CopyObjectRequest.builder()
+            .sourceBucket(bucketName)
+            .sourceKey(sourceKey)
+            .destinationBucket(bucketName)
+            .destinationKey(destinationKey)
+            .build());
+    }
 }
@@ -3,8 +3,16 @@ package com.speaktracker.tts.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.speaktracker.tts.model.TTSJobMessage;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SQSService {
     private final SqsClient sqsClient;
     private final String queueUrl;
@@ -30,4 +38,56 @@ public class SQSService {
             throw new RuntimeException("Failed to send SQS message", e);
         }
     }
+
+    /**
+     * 최대 10개 단위로 배치 전송.
+     *
+     * @return 전송하지 못한 메시지 (호출 측에서 실패 처리)
+     */
+    public List<TTSJobMessage> sendTTSJobs(List<TTSJobMessage> jobMessages) {
+        List<TTSJobMessage> failed = new ArrayList<>();
+        for (int i = 0; i < jobMessages.size(); i += 10) {
+            List<TTSJobMessage> chunk = jobMessages.subList(i, Math.min(i + 10, jobMessages.size()));
+            try {
+                List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+                for (int j = 0; j < chunk.size(); j++) {
+                    // 배치 엔트리 id는 요청 내에서만 유니크하면 됨
+                    entries.add(SendMessageBatchRequestEntry.builder()
+                            .id(String.valueOf(j))
+                            .messageBody(objectMapper.writeValueAsString(chunk.get(j)))
+                            .build());
+                }
+
+                SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                        .queueUrl(queueUrl)
+                        .entries(entries)
+                        .build());
+                if (response.hasFailed()) {
+                    response.failed().forEach(entry -> failed.add(chunk.get(Integer.parseInt(entry.id()))));
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to send SQS batch: " + e.getMessage());
+                failed.addAll(chunk);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 대기 중인 메시지 수 (근사값, 조회 실패 시 0)
+     */
+    public int getApproximateBacklog() {
+        try {
+            String value = sqsClient.getQueueAttributes(GetQueueAttributesRequest.builder()
+                    .queueUrl(queueUrl)
+                    .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES)
+                    .build())
+                .attributes()
+                .get(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES);
+            return value == null ? 0 : Integer.parseInt(value);
+        } catch (Exception e) {
+            System.err.println("Failed to read TTS queue backlog: " + e.getMessage());
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package com.speaktracker.tts.service;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 같은 s3Key 합성 요청 single-flight
+ * - 인덱스 테이블에 "inflight#{s3Key}" 마커를 조건부 put 한 요청이 합성 owner
+ * - 이미 마커가 있으면 waiters(String Set)에 자기 작업을 붙이고 끝 (SQS/Polly 호출 없음)
+ * - owner는 업로드 후 마커를 삭제하며 붙은 waiter 목록을 받아 함께 완료/실패 처리
+ * - owner 지정은 UpdateItem이라 마커를 다시 잡아도 waiters가 그대로 남는다.
+ *   재전송된 owner 메시지(같은 jobId)나 만료(IN_FLIGHT_TTL_MS) 후 넘겨받은 요청이 기존 waiter를 이어받는다.
+ * - 테이블이 없으면 항상 owner (기존 동작)
+ */
+public class SynthesisCoalescer {
+
+    private static final String KEY_PREFIX = "inflight#";
+    // 워커 타임아웃(120초) + 여유
+    private static final long IN_FLIGHT_TTL_MS = 150_000;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public SynthesisCoalescer(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = (tableName == null || tableName.isBlank()) ? null : tableName;
+    }
+
+    /**
+     * 합성 owner가 되거나, 진행 중인 합성에 waiter로 붙는다.
+     */
+    public Claim claim(String s3Key, Waiter self) {
+        if (tableName == null) {
+            return new Claim(true, s3Key, self.getJobId());
+        }
+        Map<String, AttributeValue> key = markerKey(s3Key);
+
+        for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+            long now = System.currentTimeMillis();
+            long expiresAt = now + IN_FLIGHT_TTL_MS;
+
+            try {
+                // 재전송된 owner 메시지도 다시 owner가 되도록 owner_job_id 일치 허용 (waiters는 유지)
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .updateExpression("SET owner_job_id = :jobId, expires_at = :expiresAt, #ttl = :ttl")
+                    .conditionExpression("attribute_not_exists(s3_key) OR expires_at < :now OR owner_job_id = :jobId")
+                    .expressionAttributeNames(Map.of("#ttl", "ttl"))
+                    .expressionAttributeValues(Map.of(
+                        ":jobId", AttributeValue.builder().s(self.getJobId()).build(),
+                        ":expiresAt", AttributeValue.builder().n(String.valueOf(expiresAt)).build(),
+                        ":ttl", AttributeValue.builder().n(String.valueOf(expiresAt / 1000 + 3600)).build(),
+                        ":now", AttributeValue.builder().n(String.valueOf(now)).build()))
+                    .build());
+                return new Claim(true, s3Key, self.getJobId());
+            } catch (ConditionalCheckFailedException e) {
+                // 다른 요청이 합성 중
+            }
+
+            try {
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .updateExpression("ADD waiters :waiter")
+                    .conditionExpression("attribute_exists(s3_key) AND expires_at >= :now")
+                    .expressionAttributeValues(Map.of(
+                        ":waiter", AttributeValue.builder().ss(self.encode()).build(),
+                        ":now", AttributeValue.builder().n(String.valueOf(now)).build()))
+                    .build());
+                return new Claim(false, s3Key, self.getJobId());
+            } catch (ConditionalCheckFailedException e) {
+                // 그 사이 owner가 끝났거나 만료됨 → owner 시도부터 다시
+            }
+        }
+        return new Claim(true, s3Key, self.getJobId());
+    }
+
+    /**
+     * 다른 곳(API 핸들러)에서 jobId로 잡은 마커를 정리할 때 사용하는 owner claim
+     */
+    public Claim ownedClaim(String s3Key, String jobId) {
+        return new Claim(true, s3Key, jobId);
+    }
+
+    /**
+     * owner 합성 종료 시 마커 삭제 → 완료/실패 처리할 waiter 목록
+     * - 재시도될 실패라면 호출하지 않는다. (마커를 남겨 두면 재전송된 owner가 waiter를 이어받음)
+     */
+    public List<Waiter> release(Claim claim) {
+        if (tableName == null || !claim.isOwner()) {
+            return List.of();
+        }
+        List<Waiter> waiters = new ArrayList<>();
+        try {
+            DeleteItemResponse resp = dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(markerKey(claim.s3Key))
+                .conditionExpression("owner_job_id = :jobId")
+                .expressionAttributeValues(Map.of(":jobId", AttributeValue.builder().s(claim.ownerJobId).build()))
+                .returnValues(ReturnValue.ALL_OLD)
+                .build());
+            waiters.addAll(waitersOf(resp.attributes()));
+        } catch (ConditionalCheckFailedException e) {
+            // 만료 후 다른 owner가 넘겨받음 (마커의 waiter도 그쪽이 처리)
+        } catch (Exception e) {
+            System.err.println("Failed to release in-flight marker for " + claim.s3Key + ": " + e.getMessage());
+        }
+        return waiters;
+    }
+
+    private static Map<String, AttributeValue> markerKey(String s3Key) {
+        return Map.of("s3_key", AttributeValue.builder().s(KEY_PREFIX + s3Key).build());
+    }
+
+    private static List<Waiter> waitersOf(Map<String, AttributeValue> item) {
+        if (item == null || !item.containsKey("waiters")) {
+            return List.of();
+        }
+        List<Waiter> waiters = new ArrayList<>();
+        for (String encoded : item.get("waiters").ss()) {
+            Waiter w = Waiter.decode(encoded);
+            if (w != null) {
+                waiters.add(w);
+            }
+        }
+        return waiters;
+    }
+
+    public static class Claim {
+        private final boolean owner;
+        private final String s3Key;
+        private final String ownerJobId;
+
+        private Claim(boolean owner, String s3Key, String ownerJobId) {
+            this.owner = owner;
+            this.s3Key = s3Key;
+            this.ownerJobId = ownerJobId;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+    }
+
+    /**
+     * 합성 결과를 기다리는 작업 (jobId + 선택적 문장 세션 row)
+     */
+    public static class Waiter {
+        private final String jobId;
+        private final String sessionId;
+        private final Integer sentenceIndex;
+
+        public Waiter(String jobId, String sessionId, Integer sentenceIndex) {
+            this.jobId = jobId;
+            this.sessionId = sessionId;
+            this.sentenceIndex = sentenceIndex;
+        }
+
+        private String encode() {
+            return jobId + "|" + (sessionId == null ? "" : sessionId) + "|"
+                + (sentenceIndex == null ? "" : sentenceIndex);
+        }
+
+        private static Waiter decode(String encoded) {
+            String[] parts = encoded.split("\\|", -1);
+            if (parts.length != 3 || parts[0].isEmpty()) {
+                return null;
+            }
+            try {
+                return new Waiter(parts[0], parts[1].isEmpty() ? null : parts[1],
+                    parts[2].isEmpty() ? null : Integer.valueOf(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public Integer getSentenceIndex() {
+            return sentenceIndex;
+        }
+    }
+}
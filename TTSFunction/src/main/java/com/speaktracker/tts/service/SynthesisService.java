@@ -0,0 +1,128 @@
+package com.speaktracker.tts.service;
+
+import com.speaktracker.common.tts.TtsAudioProfile;
+import com.speaktracker.common.tts.TtsTextNormalizer;
+import com.speaktracker.tts.util.AudioDurationScanner;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * 합성/업로드/작업 완료 처리 (TTSWorker 비동기 처리와 TTSHandler 인라인 처리 공용)
+ */
+public class SynthesisService {
+
+    private final PollyService pollyService;
+    private final S3Service s3Service;
+    private final AudioExistenceIndex existenceIndex;
+    private final JobStatusService jobStatusService;
+    private final SentenceAudioService sentenceAudioService;
+
+    public SynthesisService(PollyService pollyService, S3Service s3Service, AudioExistenceIndex existenceIndex,
+                            JobStatusService jobStatusService, SentenceAudioService sentenceAudioService) {
+        this.pollyService = pollyService;
+        this.s3Service = s3Service;
+        this.existenceIndex = existenceIndex;
+        this.jobStatusService = jobStatusService;
+        this.sentenceAudioService = sentenceAudioService;
+    }
+
+    /**
+     * Polly 합성 → S3 스트리밍 업로드 → 존재 인덱스 기록 (owner가 된 뒤 이미 올라와 있으면 생략)
+     *
+     * @return 재생 길이(ms), 모르면 null
+     */
+    public Long synthesizeAndUpload(String text, String voiceId, String s3Key, TtsAudioProfile profile,
+                                    boolean trackDuration) {
+        return synthesizeAndUpload(text, voiceId, s3Key, profile, trackDuration, null);
+    }
+
+    /**
+     * @param pollyTimeout Polly 호출 상한 (인라인 합성 예산), null이면 클라이언트 기본값
+     */
+    public Long synthesizeAndUpload(String text, String voiceId, String s3Key, TtsAudioProfile profile,
+                                    boolean trackDuration, Duration pollyTimeout) {
+        if (s3Service.getLastModified(s3Key) != null) {
+            return trackDuration ? resolveCachedDurationMs(s3Key, profile) : null;
+        }
+
+        // 키 계산에 쓴 정규화 텍스트로 합성해야 같은 키 = 같은 오디오가 보장됨
+        String spokenText = TtsTextNormalizer.normalize(text);
+
+        // Polly 응답 스트림 → S3 업로드 (재생 길이는 흘러가는 프레임/페이지에서 함께 계산해 메타데이터로 저장)
+        AudioDurationScanner scanner = AudioDurationScanner.forProfile(profile);
+        pollyService.synthesizeSpeech(spokenText, voiceId, profile, pollyTimeout, audio -> {
+            s3Service.uploadAudio(s3Key, scanner.tee(audio), profile.getContentType(), scanner::durationMs);
+            return null;
+        });
+
+        Long durationMs = scanner.durationMs();
+        existenceIndex.markPresent(s3Key, durationMs);
+        return durationMs;
+    }
+
+    /**
+     * 캐시 히트 시 재생 길이: 존재 인덱스 → 메타데이터 → 없으면(이전 객체) 내려받아 계산 후 메타데이터 보강
+     */
+    public Long resolveCachedDurationMs(String s3Key, TtsAudioProfile profile) {
+        try {
+            Long durationMs = existenceIndex.knownDurationMs(s3Key);
+            if (durationMs != null) {
+                return durationMs;
+            }
+            durationMs = s3Service.getDurationMs(s3Key);
+            if (durationMs != null) {
+                return durationMs;
+            }
+            try (InputStream audio = s3Service.openAudio(s3Key)) {
+                durationMs = AudioDurationScanner.forProfile(profile).scan(audio);
+            }
+            if (durationMs != null) {
+                s3Service.putDurationMetadata(s3Key, durationMs, profile.getContentType());
+            }
+            return durationMs;
+        } catch (Exception e) {
+            System.err.println("Failed to resolve cached audio duration: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void completeJob(SynthesisCoalescer.Waiter job, String s3Key, Long durationMs, String voiceId,
+                            String presignedUrl) {
+        // DynamoDB 상태 업데이트 (COMPLETED)
+        jobStatusService.updateJobCompleted(job.getJobId(), presignedUrl, s3Key);
+
+        // 문장 연습 세션 레코드 업데이트 (Optional)
+        if (sentenceAudioService != null && job.getSessionId() != null && !job.getSessionId().isBlank()
+            && job.getSentenceIndex() != null) {
+            try {
+                sentenceAudioService.updateCompleted(
+                    job.getSessionId(), job.getSentenceIndex(), s3Key, durationMs, voiceId, job.getJobId()
+                );
+            } catch (Exception e) {
+                System.err.println("Failed to update SentenceAudioTable: " + e.getMessage());
+            }
+        }
+    }
+
+    public void failJob(SynthesisCoalescer.Waiter job, String error) {
+        try {
+            jobStatusService.updateJobFailed(job.getJobId(), error);
+
+            if (sentenceAudioService != null && job.getSessionId() != null && job.getSentenceIndex() != null) {
+                try {
+                    sentenceAudioService.updateFailed(
+                        job.getSessionId(),
+                        job.getSentenceIndex(),
+                        error,
+                        "TTS_WORKER_ERROR"
+                    );
+                } catch (Exception ignore) {
+                    // noop
+                }
+            }
+        } catch (Exception updateError) {
+            System.err.println("Failed to update job status: " + updateError.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.speaktracker.tts.util;
+
+import com.speaktracker.common.tts.TtsAudioProfile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 오디오 바이트를 흘려보내며 재생 길이(ms)를 증분 계산 (출력 프로필별 구현)
+ */
+public abstract class AudioDurationScanner {
+
+    public static AudioDurationScanner forProfile(TtsAudioProfile profile) {
+        switch (profile.getOutputFormat()) {
+            case "ogg_vorbis":
+                return new OggDurationScanner(profile.getSampleRateHz());
+            case "pcm":
+                return new PcmDurationScanner(profile.getSampleRateHz());
+            default:
+                return new Mp3DurationScanner();
+        }
+    }
+
+    public abstract void update(byte[] buf, int off, int len);
+
+    /**
+     * @return 지금까지 받은 데이터 기준 재생 길이(ms), 계산할 수 없으면 null
+     */
+    public abstract Long durationMs();
+
+    /**
+     * 스트림을 끝까지 읽어 재생 길이 계산
+     */
+    public Long scan(InputStream in) throws IOException {
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            update(buf, 0, n);
+        }
+        return durationMs();
+    }
+
+    /**
+     * 읽히는 바이트를 그대로 scanner에 흘려보내는 스트림 (업로드 등과 동시에 계산)
+     */
+    public InputStream tee(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    update(new byte[]{(byte) b}, 0, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    update(b, off, n);
+                }
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.speaktracker.tts.util;
+
+/**
+ * MP3 프레임 헤더를 순회해 재생 길이(ms) 계산 (스트림으로 흘려보내며 증분 계산)
+ * - 앞쪽 ID3v2 태그 건너뜀, 헤더가 아닌 바이트는 1바이트씩 밀며 재동기화
+ * - Xing/Info(VBR 정보) 프레임은 오디오가 아니므로 제외
+ * - 끝까지 받지 못한 마지막 프레임은 길이에 넣지 않는다.
+ * - 프레임 데이터는 건너뛰고 헤더(최대 40바이트)만 고정 버퍼에 모으므로 입력 길이와 무관하게 메모리가 일정하다.
+ */
+public final class Mp3DurationScanner extends AudioDurationScanner {
+
+    // [MPEG1][Layer I, II, III] / [MPEG2·2.5][Layer I, II·III] 비트레이트 (kbps), index 0/15는 무효
+    private static final int[][] BITRATES_V1 = {
+        {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+        {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+        {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+    };
+    private static final int[][] BITRATES_V2 = {
+        {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+        {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+    };
+    private static final int[] SAMPLE_RATES_V1 = {44100, 48000, 32000};
+
+    private static final int ID3_HEADER = 10;
+    private static final int FRAME_HEADER = 4;
+    // 첫 프레임: 헤더 4 + side info 최대 32 + "Xing"/"Info" 4
+    private static final int FIRST_FRAME_PROBE = 40;
+
+    private final byte[] carry = new byte[FIRST_FRAME_PROBE];
+    private int carryLen;
+    private boolean started;
+    private long skip;
+    private long pendingMicros;
+    private long totalMicros;
+    private int frames;
+
+    public Mp3DurationScanner() {}
+
+    @Override
+    public void update(byte[] buf, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (skip > 0) {
+                int n = (int) Math.min(skip, end - off);
+                skip -= n;
+                off += n;
+                if (skip == 0) {
+                    completeFrame();
+                }
+                continue;
+            }
+
+            int need = !started ? ID3_HEADER : frames == 0 ? FIRST_FRAME_PROBE : FRAME_HEADER;
+            int n = Math.min(need - carryLen, end - off);
+            System.arraycopy(buf, off, carry, carryLen, n);
+            carryLen += n;
+            off += n;
+            if (carryLen < need) {
+                return;
+            }
+            processCarry();
+        }
+    }
+
+    /**
+     * @return 지금까지 끝까지 받은 프레임 기준 재생 길이(ms), 유효한 프레임이 없으면 null
+     */
+    @Override
+    public Long durationMs() {
+        return totalMicros > 0 ? totalMicros / 1000 : null;
+    }
+
+    private void processCarry() {
+        if (!started) {
+            started = true;
+            if (carry[0] == 'I' && carry[1] == 'D' && carry[2] == '3') {
+                // synchsafe 정수 (바이트당 7비트)
+                int size = ((carry[6] & 0x7f) << 21) | ((carry[7] & 0x7f) << 14)
+                    | ((carry[8] & 0x7f) << 7) | (carry[9] & 0x7f);
+                boolean hasFooter = (carry[5] & 0x10) != 0;
+                carryLen = 0;
+                skip = size + (hasFooter ? 10 : 0);
+                return;
+            }
+        }
+
+        while (carryLen >= FRAME_HEADER) {
+            int frameLength = frameLength(carry);
+            if (frameLength <= 0) {
+                // 동기화 깨짐: 한 바이트 밀고 다시 탐색
+                shift(1);
+                continue;
+            }
+            if (frames == 0 && carryLen < FIRST_FRAME_PROBE) {
+                // 첫 프레임은 Xing/Info 태그 위치까지 모은 뒤 판단 (ID3 없이 바로 시작하는 스트림)
+                return;
+            }
+            boolean infoFrame = frames == 0 && isInfoFrame(carry);
+            pendingMicros = infoFrame ? 0 : frameMicros(carry);
+            frames++;
+
+            int consumed = Math.min(frameLength, carryLen);
+            shift(consumed);
+            skip = frameLength - consumed;
+            if (skip == 0) {
+                completeFrame();
+                continue;
+            }
+            return;
+        }
+    }
+
+    private void completeFrame() {
+        totalMicros += pendingMicros;
+        pendingMicros = 0;
+    }
+
+    private void shift(int n) {
+        System.arraycopy(carry, n, carry, 0, carryLen - n);
+        carryLen -= n;
+    }
+
+    /**
+     * 프레임 헤더를 해석해 프레임 길이(byte) 반환, 헤더가 아니면 -1
+     */
+    private static int frameLength(byte[] header) {
+        int b1 = header[0] & 0xff;
+        int b2 = header[1] & 0xff;
+        int b3 = header[2] & 0xff;
+        if (b1 != 0xff || (b2 & 0xe0) != 0xe0) {
+            return -1;
+        }
+        int version = (b2 >> 3) & 0x03;   // 0: MPEG2.5, 1: reserved, 2: MPEG2, 3: MPEG1
+        int layer = (b2 >> 1) & 0x03;     // 1: III, 2: II, 3: I
+        int bitrateIndex = (b3 >> 4) & 0x0f;
+        int sampleRateIndex = (b3 >> 2) & 0x03;
+        if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return -1;
+        }
+        int padding = (b3 >> 1) & 0x01;
+        int bitrate = bitrateKbps(version, layer, bitrateIndex) * 1000;
+        int sampleRate = sampleRate(version, sampleRateIndex);
+
+        if (layer == 3) {
+            return (12 * bitrate / sampleRate + padding) * 4;
+        }
+        int coefficient = (layer == 1 && version != 3) ? 72 : 144;
+        return coefficient * bitrate / sampleRate + padding;
+    }
+
+    private static long frameMicros(byte[] header) {
+        int b2 = header[1] & 0xff;
+        int version = (b2 >> 3) & 0x03;
+        int layer = (b2 >> 1) & 0x03;
+        int sampleRate = sampleRate(version, ((header[2] & 0xff) >> 2) & 0x03);
+        int samples = layer == 3 ? 384 : (layer == 1 && version != 3) ? 576 : 1152;
+        return samples * 1_000_000L / sampleRate;
+    }
+
+    /**
+     * 첫 프레임의 side info 뒤에 Xing/Info 태그가 있으면 VBR 정보 프레임 (무음, 길이에서 제외)
+     */
+    private static boolean isInfoFrame(byte[] frame) {
+        int version = ((frame[1] & 0xff) >> 3) & 0x03;
+        boolean mono = ((frame[3] & 0xff) >> 6) == 3;
+        int tag = FRAME_HEADER + (version == 3 ? (mono ? 17 : 32) : (mono ? 9 : 17));
+        return (frame[tag] == 'X' && frame[tag + 1] == 'i' && frame[tag + 2] == 'n' && frame[tag + 3] == 'g')
+            || (frame[tag] == 'I' && frame[tag + 1] == 'n' && frame[tag + 2] == 'f' && frame[tag + 3] == 'o');
+    }
+
+    private static int bitrateKbps(int version, int layer, int index) {
+        if (version == 3) {
+            return BITRATES_V1[3 - layer][index];
+        }
+        return BITRATES_V2[layer == 3 ? 0 : 1][index];
+    }
+
+    private static int sampleRate(int version, int index) {
+        int base = SAMPLE_RATES_V1[index];
+        return version == 3 ? base : version == 2 ? base / 2 : base / 4;
+    }
+}
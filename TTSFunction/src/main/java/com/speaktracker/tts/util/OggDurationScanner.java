@@ -0,0 +1,98 @@
+package com.speaktracker.tts.util;
+
+/**
+ * Ogg 페이지 헤더를 순회해 재생 길이(ms) 계산
+ * - 마지막으로 끝까지 받은 페이지의 granule position(누적 샘플 수) / 샘플레이트
+ * - 페이지 본문은 건너뛰고 헤더(27바이트 + 세그먼트 테이블)만 모은다.
+ * - "OggS"가 아닌 위치는 1바이트씩 밀며 재동기화
+ */
+public final class OggDurationScanner extends AudioDurationScanner {
+
+    private static final int PAGE_HEADER = 27;
+    private static final int MAX_SEGMENTS = 255;
+
+    private final int sampleRate;
+    private final byte[] carry = new byte[PAGE_HEADER + MAX_SEGMENTS];
+    private int carryLen;
+    private long skip;
+    private long pendingGranule = -1;
+    private long granule = -1;
+
+    public OggDurationScanner(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void update(byte[] buf, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (skip > 0) {
+                int n = (int) Math.min(skip, end - off);
+                skip -= n;
+                off += n;
+                if (skip == 0) {
+                    completePage();
+                }
+                continue;
+            }
+
+            int need = carryLen < PAGE_HEADER || !isPageStart() ? PAGE_HEADER : PAGE_HEADER + (carry[26] & 0xff);
+            int n = Math.min(need - carryLen, end - off);
+            System.arraycopy(buf, off, carry, carryLen, n);
+            carryLen += n;
+            off += n;
+            if (carryLen < need) {
+                return;
+            }
+            processCarry();
+        }
+    }
+
+    @Override
+    public Long durationMs() {
+        return granule > 0 ? granule * 1000 / sampleRate : null;
+    }
+
+    private void processCarry() {
+        while (carryLen >= PAGE_HEADER) {
+            if (!isPageStart()) {
+                // 동기화 깨짐: 한 바이트 밀고 다시 탐색
+                System.arraycopy(carry, 1, carry, 0, carryLen - 1);
+                carryLen--;
+                continue;
+            }
+            int segments = carry[26] & 0xff;
+            if (carryLen < PAGE_HEADER + segments) {
+                return;
+            }
+            long bodyLength = 0;
+            for (int i = 0; i < segments; i++) {
+                bodyLength += carry[PAGE_HEADER + i] & 0xff;
+            }
+            // granule position: 6~13 바이트 (little endian, -1이면 이 페이지에서 끝나는 패킷 없음)
+            long position = 0;
+            for (int i = 13; i >= 6; i--) {
+                position = (position << 8) | (carry[i] & 0xff);
+            }
+            pendingGranule = position;
+
+            carryLen = 0;
+            skip = bodyLength;
+            if (skip == 0) {
+                completePage();
+            }
+            return;
+        }
+    }
+
+    private boolean isPageStart() {
+        return carry[0] == 'O' && carry[1] == 'g' && carry[2] == 'g' && carry[3] == 'S';
+    }
+
+    private void completePage() {
+        if (pendingGranule > 0) {
+            granule = pendingGranule;
+        }
+        pendingGranule = -1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.speaktracker.tts.util;
+
+/**
+ * raw PCM(16bit mono) 재생 길이 = 바이트 수 / (2 * 샘플레이트)
+ */
+public final class PcmDurationScanner extends AudioDurationScanner {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final int sampleRate;
+    private long bytes;
+
+    public PcmDurationScanner(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void update(byte[] buf, int off, int len) {
+        bytes += len;
+    }
+
+    @Override
+    public Long durationMs() {
+        long samples = bytes / BYTES_PER_SAMPLE;
+        return samples > 0 ? samples * 1000 / sampleRate : null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.speaktracker.tts.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 컨테이너 단위 Polly 호출 속도 제한 (초당 호출 수, AIMD)
+ * - 호출 시작 시각을 1/rate 초 간격으로 예약해 순간 몰림 없이 rate TPS 이하로 흘린다.
+ * - 성공할 때마다 rate를 1/rate씩 올리고(초당 약 +1 TPS), 스로틀 시 절반으로 줄인다.
+ * - 계정 전체 한도는 워커 최대 동시 실행 수(ScalingConfig) × maxTps 로 맞춘다.
+ */
+public class PollyRateLimiter {
+
+    private final double minTps;
+    private final double maxTps;
+    private final double backoffRatio;
+    private final LongSupplier clockMs;
+
+    private double rate;
+    private double nextSlotMs;
+
+    public PollyRateLimiter(double maxTps, double minTps, double backoffRatio) {
+        this(maxTps, minTps, backoffRatio, System::currentTimeMillis);
+    }
+
+    PollyRateLimiter(double maxTps, double minTps, double backoffRatio, LongSupplier clockMs) {
+        this.maxTps = Math.max(0.1, maxTps);
+        this.minTps = Math.min(this.maxTps, Math.max(0.1, minTps));
+        this.backoffRatio = backoffRatio;
+        this.clockMs = clockMs;
+        this.rate = this.maxTps;
+    }
+
+    /**
+     * 다음 호출 슬롯까지 대기
+     */
+    public void acquire() throws InterruptedException {
+        long waitMs = reserve();
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    /**
+     * maxWaitMs 안에 슬롯이 나면 대기 후 true, 아니면 예약하지 않고 바로 false (시간 예산이 있는 호출용)
+     */
+    public boolean tryAcquire(long maxWaitMs) throws InterruptedException {
+        long waitMs = reserve(maxWaitMs);
+        if (waitMs < 0) {
+            return false;
+        }
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+        return true;
+    }
+
+    synchronized long reserve() {
+        return reserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * 다음 호출 슬롯 예약
+     *
+     * @return 슬롯까지 남은 시간(ms), 바로 호출 가능하면 0, maxWaitMs를 넘으면 -1 (예약 안 함)
+     */
+    synchronized long reserve(long maxWaitMs) {
+        long now = clockMs.getAsLong();
+        double slot = Math.max(now, nextSlotMs);
+        long waitMs = (long) Math.ceil(slot - now);
+        if (waitMs > maxWaitMs) {
+            return -1;
+        }
+        nextSlotMs = slot + 1000.0 / rate;
+        return waitMs;
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxTps, rate + 1.0 / rate);
+    }
+
+    /**
+     * 스로틀 관측 → rate 절반 (이미 예약된 슬롯 간격은 그대로, 다음 예약부터 반영)
+     */
+    public synchronized void onThrottle() {
+        rate = Math.max(minTps, rate * backoffRatio);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+}
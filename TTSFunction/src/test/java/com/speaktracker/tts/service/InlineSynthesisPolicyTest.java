@@ -0,0 +1,47 @@
+package com.speaktracker.tts.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 기본 설정 기준 (TTS_INLINE_CHARS=150, TTS_INLINE_MAX_CHARS=400, TTS_INLINE_BUDGET_MS=2000)
+ */
+public class InlineSynthesisPolicyTest {
+
+    @Test
+    public void usesConfiguredThresholdUntilObserved() {
+        InlineSynthesisPolicy policy = new InlineSynthesisPolicy(null);
+        assertEquals(150, policy.threshold());
+        assertEquals(2000, policy.budgetMs());
+    }
+
+    @Test
+    public void fastSuccessRaisesThresholdUpToMax() {
+        InlineSynthesisPolicy policy = new InlineSynthesisPolicy(null);
+
+        // 100자 500ms → 글자당 3.33ms → 2000ms 예산이면 550자 → 상한 400
+        policy.record(100, 500, true);
+        assertEquals(400, policy.threshold());
+    }
+
+    @Test
+    public void failureCountsAsBudgetMiss() {
+        InlineSynthesisPolicy policy = new InlineSynthesisPolicy(null);
+        policy.record(100, 500, true);
+
+        // 300ms 만에 실패해도 예산 2배(4000ms)로 기록: 3.33 + 0.2 × (26.67 - 3.33) = 8ms/글자 → 200자
+        policy.record(100, 300, false);
+        assertEquals(200, policy.threshold());
+    }
+
+    @Test
+    public void repeatedMissesBottomOutAtFloor() {
+        InlineSynthesisPolicy policy = new InlineSynthesisPolicy(null);
+        // 짧은 문장도 계속 실패하면 4000ms / 90 ≈ 44ms/글자 → 하한 40자
+        for (int i = 0; i < 50; i++) {
+            policy.record(40, 2000, false);
+        }
+        assertEquals(40, policy.threshold());
+    }
+}
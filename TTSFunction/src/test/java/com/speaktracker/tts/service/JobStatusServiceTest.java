@@ -0,0 +1,75 @@
+package com.speaktracker.tts.service;
+
+import com.speaktracker.tts.model.JobStatus;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JobStatusServiceTest {
+
+    private final JobTable table = new JobTable();
+    private final JobStatusService service = new JobStatusService(table, "jobs");
+
+    @Test
+    public void batchRowIsNotAJob() {
+        service.createBatch("batch-1", List.of(
+            new JobStatusService.BatchItem("audio/a.mp3", "job-a"),
+            new JobStatusService.BatchItem("audio/b.mp3", null)));
+
+        // 배치 id로 단건 상태를 조회하면 없는 작업과 같이 처리 (→ 404)
+        assertNull(service.getJobStatus("batch-1"));
+        assertNull(service.waitForJobStatus("batch-1", 1_000));
+
+        // 배치 안의 작업 row와 배치 항목 조회는 그대로
+        JobStatus job = service.getJobStatus("job-a");
+        assertEquals("PROCESSING", job.getStatus());
+        assertEquals(2, service.getBatchItems("batch-1").size());
+    }
+
+    @Test
+    public void missingJobIsNull() {
+        assertNull(service.getJobStatus("nope"));
+    }
+
+    private static final class JobTable implements DynamoDbClient {
+        private final Map<String, Map<String, AttributeValue>> items = new HashMap<>();
+
+        @Override
+        public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+            for (List<WriteRequest> writes : request.requestItems().values()) {
+                for (WriteRequest write : writes) {
+                    Map<String, AttributeValue> item = write.putRequest().item();
+                    items.put(item.get("job_id").s(), new HashMap<>(item));
+                }
+            }
+            return BatchWriteItemResponse.builder().build();
+        }
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest request) {
+            Map<String, AttributeValue> item = items.get(request.key().get("job_id").s());
+            return item == null ? GetItemResponse.builder().build() : GetItemResponse.builder().item(item).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
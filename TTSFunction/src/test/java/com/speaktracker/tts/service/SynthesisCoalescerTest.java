@@ -0,0 +1,170 @@
+package com.speaktracker.tts.service;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SynthesisCoalescerTest {
+
+    private static final String S3_KEY = "audio/v2/Joanna/abc.mp3";
+
+    private final MarkerTable table = new MarkerTable();
+    private final SynthesisCoalescer coalescer = new SynthesisCoalescer(table, "index");
+
+    @Test
+    public void firstClaimOwnsAndLaterClaimsAttach() {
+        SynthesisCoalescer.Claim owner = coalescer.claim(S3_KEY, waiter("a"));
+        SynthesisCoalescer.Claim second = coalescer.claim(S3_KEY, new SynthesisCoalescer.Waiter("b", "session-1", 3));
+        SynthesisCoalescer.Claim third = coalescer.claim(S3_KEY, waiter("c"));
+
+        assertTrue(owner.isOwner());
+        assertFalse(second.isOwner());
+        assertFalse(third.isOwner());
+
+        List<SynthesisCoalescer.Waiter> waiters = coalescer.release(owner);
+        assertEquals(Set.of("b", "c"), jobIds(waiters));
+        SynthesisCoalescer.Waiter b = waiters.stream().filter(w -> w.getJobId().equals("b")).findFirst().get();
+        assertEquals("session-1", b.getSessionId());
+        assertEquals(Integer.valueOf(3), b.getSentenceIndex());
+
+        // 마커가 지워졌으므로 다음 요청은 다시 owner
+        assertTrue(coalescer.claim(S3_KEY, waiter("d")).isOwner());
+    }
+
+    @Test
+    public void waiterReleaseIsNoop() {
+        coalescer.claim(S3_KEY, waiter("a"));
+        SynthesisCoalescer.Claim attached = coalescer.claim(S3_KEY, waiter("b"));
+
+        assertTrue(coalescer.release(attached).isEmpty());
+        assertTrue(table.items.containsKey("inflight#" + S3_KEY));
+    }
+
+    @Test
+    public void redeliveredOwnerReclaimsAndKeepsWaiters() {
+        // 첫 시도 실패: release 하지 않고 마커를 남김
+        coalescer.claim(S3_KEY, waiter("a"));
+        coalescer.claim(S3_KEY, waiter("b"));
+
+        SynthesisCoalescer.Claim retry = coalescer.claim(S3_KEY, waiter("a"));
+        assertTrue(retry.isOwner());
+        coalescer.claim(S3_KEY, waiter("c"));
+
+        assertEquals(Set.of("b", "c"), jobIds(coalescer.release(retry)));
+    }
+
+    @Test
+    public void expiredMarkerIsTakenOverWithItsWaiters() {
+        SynthesisCoalescer.Claim stale = coalescer.claim(S3_KEY, waiter("a"));
+        coalescer.claim(S3_KEY, waiter("b"));
+        table.expire("inflight#" + S3_KEY);
+
+        SynthesisCoalescer.Claim takeover = coalescer.claim(S3_KEY, waiter("c"));
+        assertTrue(takeover.isOwner());
+
+        // 늦게 끝난 이전 owner는 남의 마커를 지우지 못한다
+        assertTrue(coalescer.release(stale).isEmpty());
+        assertEquals(Set.of("b"), jobIds(coalescer.release(takeover)));
+    }
+
+    @Test
+    public void withoutTableEveryClaimOwns() {
+        SynthesisCoalescer noTable = new SynthesisCoalescer(table, " ");
+
+        SynthesisCoalescer.Claim claim = noTable.claim(S3_KEY, waiter("a"));
+        assertTrue(claim.isOwner());
+        assertTrue(noTable.claim(S3_KEY, waiter("b")).isOwner());
+        assertTrue(noTable.release(claim).isEmpty());
+        assertTrue(table.items.isEmpty());
+    }
+
+    private static SynthesisCoalescer.Waiter waiter(String jobId) {
+        return new SynthesisCoalescer.Waiter(jobId, null, null);
+    }
+
+    private static Set<String> jobIds(List<SynthesisCoalescer.Waiter> waiters) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (SynthesisCoalescer.Waiter w : waiters) {
+            ids.add(w.getJobId());
+        }
+        return ids;
+    }
+
+    /**
+     * 마커 테이블 in-memory 대역 (SynthesisCoalescer가 보내는 세 가지 요청의 조건만 흉내)
+     */
+    private static final class MarkerTable implements DynamoDbClient {
+        private final Map<String, Map<String, AttributeValue>> items = new HashMap<>();
+
+        void expire(String key) {
+            items.get(key).put("expires_at", AttributeValue.builder().n("0").build());
+        }
+
+        @Override
+        public UpdateItemResponse updateItem(UpdateItemRequest request) {
+            String key = request.key().get("s3_key").s();
+            Map<String, AttributeValue> values = request.expressionAttributeValues();
+            Map<String, AttributeValue> item = items.get(key);
+            long now = Long.parseLong(values.get(":now").n());
+
+            if (request.updateExpression().startsWith("SET owner_job_id")) {
+                boolean claimable = item == null
+                    || Long.parseLong(item.get("expires_at").n()) < now
+                    || item.get("owner_job_id").s().equals(values.get(":jobId").s());
+                if (!claimable) {
+                    throw ConditionalCheckFailedException.builder().message("owned").build();
+                }
+                Map<String, AttributeValue> updated = item == null ? new HashMap<>(request.key()) : item;
+                updated.put("owner_job_id", values.get(":jobId"));
+                updated.put("expires_at", values.get(":expiresAt"));
+                updated.put("ttl", values.get(":ttl"));
+                items.put(key, updated);
+            } else {
+                if (item == null || Long.parseLong(item.get("expires_at").n()) < now) {
+                    throw ConditionalCheckFailedException.builder().message("no marker").build();
+                }
+                List<String> waiters = new ArrayList<>(item.containsKey("waiters") ? item.get("waiters").ss() : List.of());
+                waiters.addAll(values.get(":waiter").ss());
+                item.put("waiters", AttributeValue.builder().ss(waiters).build());
+            }
+            return UpdateItemResponse.builder().build();
+        }
+
+        @Override
+        public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+            String key = request.key().get("s3_key").s();
+            Map<String, AttributeValue> item = items.get(key);
+            String jobId = request.expressionAttributeValues().get(":jobId").s();
+            if (item == null || !item.get("owner_job_id").s().equals(jobId)) {
+                throw ConditionalCheckFailedException.builder().message("not owner").build();
+            }
+            items.remove(key);
+            return DeleteItemResponse.builder().attributes(item).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
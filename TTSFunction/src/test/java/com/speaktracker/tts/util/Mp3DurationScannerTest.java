@@ -0,0 +1,110 @@
+package com.speaktracker.tts.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class Mp3DurationScannerTest {
+
+    // MPEG1 Layer III, 128kbps, 44.1kHz, stereo: 417 byte / 1152 sample(26122us)
+    private static final byte[] HEADER = {(byte) 0xff, (byte) 0xfb, (byte) 0x90, 0x00};
+    private static final int FRAME_LENGTH = 417;
+
+    @Test
+    public void sumsFrameDurations() throws Exception {
+        byte[] mp3 = frames(10);
+
+        assertEquals(Long.valueOf(261), new Mp3DurationScanner().scan(new ByteArrayInputStream(mp3)));
+    }
+
+    @Test
+    public void skipsId3Tag() throws Exception {
+        // 태그 안에 프레임 헤더처럼 보이는 바이트가 있어도 건너뛴다
+        byte[] tagBody = new byte[20];
+        System.arraycopy(HEADER, 0, tagBody, 4, HEADER.length);
+        byte[] id3 = {'I', 'D', '3', 4, 0, 0, 0, 0, 0, (byte) tagBody.length};
+        byte[] mp3 = concat(id3, tagBody, frames(10));
+
+        assertEquals(Long.valueOf(261), new Mp3DurationScanner().scan(new ByteArrayInputStream(mp3)));
+    }
+
+    @Test
+    public void excludesXingFrame() throws Exception {
+        assertEquals(Long.valueOf(261),
+            new Mp3DurationScanner().scan(new ByteArrayInputStream(concat(infoFrame("Xing"), frames(10)))));
+        assertEquals(Long.valueOf(261),
+            new Mp3DurationScanner().scan(new ByteArrayInputStream(concat(infoFrame("Info"), frames(10)))));
+    }
+
+    @Test
+    public void framesSplitAcrossChunks() {
+        byte[] id3 = {'I', 'D', '3', 4, 0, 0, 0, 0, 0, 3};
+        byte[] mp3 = concat(id3, new byte[3], infoFrame("Xing"), frames(10));
+
+        // 헤더/태그/프레임 경계가 모두 청크 중간에서 끊기도록 작은 홀수 크기로 나눠 넣는다
+        for (int chunk : new int[]{1, 3, 7, 41, 416}) {
+            Mp3DurationScanner scanner = new Mp3DurationScanner();
+            for (int off = 0; off < mp3.length; off += chunk) {
+                scanner.update(mp3, off, Math.min(chunk, mp3.length - off));
+            }
+            assertEquals("chunk=" + chunk, Long.valueOf(261), scanner.durationMs());
+        }
+    }
+
+    @Test
+    public void ignoresTruncatedLastFrame() throws Exception {
+        byte[] full = frames(11);
+        byte[] truncated = new byte[full.length - FRAME_LENGTH / 2];
+        System.arraycopy(full, 0, truncated, 0, truncated.length);
+
+        assertEquals(Long.valueOf(261), new Mp3DurationScanner().scan(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void resyncsAfterGarbage() throws Exception {
+        byte[] mp3 = concat(frames(5), new byte[]{0x00, 0x12, (byte) 0xff}, frames(5));
+
+        assertEquals(Long.valueOf(261), new Mp3DurationScanner().scan(new ByteArrayInputStream(mp3)));
+    }
+
+    @Test
+    public void returnsNullWithoutFrames() throws Exception {
+        assertNull(new Mp3DurationScanner().scan(new ByteArrayInputStream(new byte[100])));
+        assertNull(new Mp3DurationScanner().durationMs());
+    }
+
+    private static byte[] frame() {
+        byte[] frame = new byte[FRAME_LENGTH];
+        System.arraycopy(HEADER, 0, frame, 0, HEADER.length);
+        return frame;
+    }
+
+    private static byte[] infoFrame(String tag) {
+        byte[] frame = frame();
+        // MPEG1 stereo: 헤더 4 + side info 32 뒤
+        for (int i = 0; i < 4; i++) {
+            frame[36 + i] = (byte) tag.charAt(i);
+        }
+        return frame;
+    }
+
+    private static byte[] frames(int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            out.writeBytes(frame());
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
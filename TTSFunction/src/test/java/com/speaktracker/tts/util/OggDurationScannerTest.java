@@ -0,0 +1,105 @@
+package com.speaktracker.tts.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OggDurationScannerTest {
+
+    private static final int SAMPLE_RATE = 24000;
+
+    @Test
+    public void usesLastCompletedGranule() throws Exception {
+        // 헤더 페이지(granule 0) → 0.5초 → 1초
+        byte[] ogg = concat(page(0, 30), page(12_000, 300), page(24_000, 520));
+
+        assertEquals(Long.valueOf(1000), new OggDurationScanner(SAMPLE_RATE).scan(new ByteArrayInputStream(ogg)));
+    }
+
+    @Test
+    public void pageWithoutPacketEndKeepsPreviousGranule() throws Exception {
+        // granule -1: 이 페이지에서 끝나는 패킷 없음
+        byte[] ogg = concat(page(12_000, 300), page(-1, 600));
+
+        assertEquals(Long.valueOf(500), new OggDurationScanner(SAMPLE_RATE).scan(new ByteArrayInputStream(ogg)));
+    }
+
+    @Test
+    public void pagesSplitAcrossChunks() {
+        byte[] ogg = concat(page(0, 30), page(-1, 0), page(12_000, 765), page(24_000, 255));
+
+        // 헤더(27) / 세그먼트 테이블 / 본문 경계가 모두 청크 중간에서 끊기도록
+        for (int chunk : new int[]{1, 2, 7, 26, 27, 28, 255, 256}) {
+            OggDurationScanner scanner = new OggDurationScanner(SAMPLE_RATE);
+            for (int off = 0; off < ogg.length; off += chunk) {
+                scanner.update(ogg, off, Math.min(chunk, ogg.length - off));
+            }
+            assertEquals("chunk=" + chunk, Long.valueOf(1000), scanner.durationMs());
+        }
+    }
+
+    @Test
+    public void ignoresTruncatedLastPage() throws Exception {
+        byte[] full = concat(page(12_000, 300), page(24_000, 520));
+        byte[] truncated = new byte[full.length - 10];
+        System.arraycopy(full, 0, truncated, 0, truncated.length);
+
+        assertEquals(Long.valueOf(500),
+            new OggDurationScanner(SAMPLE_RATE).scan(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void resyncsAfterGarbage() throws Exception {
+        byte[] ogg = concat(page(12_000, 300), new byte[]{'O', 'g', 'g', 0, 1, 2, 3}, page(24_000, 100));
+
+        assertEquals(Long.valueOf(1000), new OggDurationScanner(SAMPLE_RATE).scan(new ByteArrayInputStream(ogg)));
+    }
+
+    @Test
+    public void noPagesIsUnknown() throws Exception {
+        assertNull(new OggDurationScanner(SAMPLE_RATE).scan(new ByteArrayInputStream(new byte[100])));
+    }
+
+    /**
+     * Ogg 페이지 (본문은 255바이트 세그먼트 + 나머지, CRC는 검사하지 않으므로 0)
+     */
+    private static byte[] page(long granule, int bodyLength) {
+        int segments = (bodyLength + 254) / 255;
+        byte[] page = new byte[27 + segments + bodyLength];
+        page[0] = 'O';
+        page[1] = 'g';
+        page[2] = 'g';
+        page[3] = 'S';
+        for (int i = 0; i < 8; i++) {
+            page[6 + i] = (byte) (granule >>> (8 * i));
+        }
+        page[26] = (byte) segments;
+        int remaining = bodyLength;
+        for (int i = 0; i < segments; i++) {
+            int lace = Math.min(255, remaining);
+            page[27 + i] = (byte) lace;
+            remaining -= lace;
+        }
+        // 본문에 "OggS"가 섞여 있어도 건너뛰어야 함
+        if (bodyLength >= 4) {
+            int body = 27 + segments;
+            page[body] = 'O';
+            page[body + 1] = 'g';
+            page[body + 2] = 'g';
+            page[body + 3] = 'S';
+        }
+        return page;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
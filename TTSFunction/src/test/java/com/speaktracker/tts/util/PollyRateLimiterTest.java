@@ -0,0 +1,68 @@
+package com.speaktracker.tts.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class PollyRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(10_000);
+
+    @Test
+    public void spacesCallsByOneOverRate() {
+        PollyRateLimiter limiter = new PollyRateLimiter(4, 0.5, 0.5, now::get);
+
+        // 4 TPS → 250ms 간격으로 예약
+        assertEquals(0, limiter.reserve());
+        assertEquals(250, limiter.reserve());
+        assertEquals(500, limiter.reserve());
+
+        // 시간이 지나 예약이 밀려 있지 않으면 바로 호출
+        now.addAndGet(2_000);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void tryAcquireSkipsSlotBeyondMaxWait() {
+        PollyRateLimiter limiter = new PollyRateLimiter(2, 0.5, 0.5, now::get);
+        assertEquals(0, limiter.reserve(100));
+
+        // 다음 슬롯은 500ms 뒤 → 100ms 예산이면 예약하지 않음
+        assertEquals(-1, limiter.reserve(100));
+        assertEquals(500, limiter.reserve(1_000));
+    }
+
+    @Test
+    public void halvesRateOnThrottleDownToFloor() {
+        PollyRateLimiter limiter = new PollyRateLimiter(4, 0.5, 0.5, now::get);
+
+        limiter.onThrottle();
+        assertEquals(2.0, limiter.getRate(), 1e-9);
+        assertEquals(0, limiter.reserve());
+        assertEquals(500, limiter.reserve());
+
+        limiter.onThrottle();
+        limiter.onThrottle();
+        limiter.onThrottle();
+        assertEquals(0.5, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    public void recoversAdditivelyUpToCeiling() {
+        PollyRateLimiter limiter = new PollyRateLimiter(4, 0.5, 0.5, now::get);
+        limiter.onThrottle();
+
+        // 성공마다 +1/rate: 2 → 2.5 → 2.9
+        limiter.onSuccess();
+        assertEquals(2.5, limiter.getRate(), 1e-9);
+        limiter.onSuccess();
+        assertEquals(2.9, limiter.getRate(), 1e-9);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(4.0, limiter.getRate(), 1e-9);
+    }
+}
@@ -0,0 +1,74 @@
+package com.speaktracker.common.tts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CloudWatch Embedded Metric Format(EMF) 로그 출력 유틸 (SentencesFunction / TTSFunction 공용)
+ * - stdout에 한 줄 JSON을 남기면 CloudWatch Logs가 메트릭으로 추출한다. (별도 SDK/권한 불필요)
+ * - 네임스페이스별 인스턴스(SENTENCES, TTS), 디멘션은 Function 하나
+ * - 메트릭 기록 실패는 비즈니스 로직에 영향을 주지 않도록 삼킨다.
+ */
+public final class MetricsLogger {
+
+    public static final MetricsLogger SENTENCES = new MetricsLogger("SpeakTracker/Sentences");
+    // TTS 캐시 CacheHit / CacheMiss / LegacyAliasHit 비율로 키 정규화 효과를 본다.
+    public static final MetricsLogger TTS = new MetricsLogger("SpeakTracker/TTS");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String namespace;
+
+    private MetricsLogger(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public void putMetric(String functionName, String metricName, double value, String unit) {
+        putMetrics(functionName, Map.of(metricName, value), unit);
+    }
+
+    public void putCount(String functionName, String metricName) {
+        putMetric(functionName, metricName, 1, "Count");
+    }
+
+    /**
+     * 같은 단위의 여러 메트릭을 한 줄로 기록
+     */
+    public void putMetrics(String functionName, Map<String, ? extends Number> values, String unit) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        try {
+            System.out.println(toJson(functionName, values, unit));
+        } catch (Exception ignore) {
+            // noop
+        }
+    }
+
+    String toJson(String functionName, Map<String, ? extends Number> values, String unit) throws Exception {
+        List<Map<String, String>> metricDefs = new ArrayList<>();
+        for (String name : values.keySet()) {
+            metricDefs.add(Map.of("Name", name, "Unit", unit));
+        }
+
+        Map<String, Object> directive = new LinkedHashMap<>();
+        directive.put("Namespace", namespace);
+        directive.put("Dimensions", List.of(List.of("Function")));
+        directive.put("Metrics", metricDefs);
+
+        Map<String, Object> aws = new LinkedHashMap<>();
+        aws.put("Timestamp", System.currentTimeMillis());
+        aws.put("CloudWatchMetrics", List.of(directive));
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("_aws", aws);
+        root.put("Function", functionName);
+        root.putAll(values);
+
+        return OBJECT_MAPPER.writeValueAsString(root);
+    }
+}
@@ -0,0 +1,137 @@
+package com.speaktracker.common.tts;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * S3 presigned URL 컨테이너 캐시 (같은 객체를 요청마다 다시 서명하지 않도록)
+ * - 시간을 만료 구간(PRESIGN_BUCKET_SECONDS, 기본 유효시간의 1/4) 단위로 나누고,
+ *   구간 안에서 서명한 URL은 모두 "구간 끝 + 유효시간"에 만료되도록 서명 기간을 맞춘다.
+ * - 같은 구간 동안은 같은 URL을 재사용 → 브라우저/CDN 캐시 적중, 받는 쪽 잔여 유효시간은 항상 설정값 이상
+ * - 크기는 PRESIGN_CACHE_SIZE(기본 5000) LRU
+ * - 적중/미스는 모아 두었다가 publishMetrics() 호출 시 한 번에 기록
+ */
+public final class PresignedUrlCache {
+
+    /**
+     * 실제 서명 함수 (S3Presigner 호출)
+     */
+    @FunctionalInterface
+    public interface Signer {
+        String presign(String s3Key, int expirationSeconds);
+    }
+
+    private final String metricFunction;
+    private final int expirationSeconds;
+    private final long bucketMs;
+    private final Signer signer;
+    private final LongSupplier clockMs;
+    private final Map<String, PresignedUrl> cache;
+
+    private long hits;
+    private long misses;
+
+    public PresignedUrlCache(String metricFunction, int expirationSeconds, Signer signer) {
+        this(metricFunction, expirationSeconds,
+            parseIntEnv("PRESIGN_BUCKET_SECONDS", Math.max(60, expirationSeconds / 4)),
+            parseIntEnv("PRESIGN_CACHE_SIZE", 5000),
+            signer, System::currentTimeMillis);
+    }
+
+    PresignedUrlCache(String metricFunction, int expirationSeconds, int bucketSeconds, int capacity,
+                      Signer signer, LongSupplier clockMs) {
+        this.metricFunction = metricFunction;
+        this.expirationSeconds = expirationSeconds;
+        this.bucketMs = bucketSeconds * 1000L;
+        this.signer = signer;
+        this.clockMs = clockMs;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PresignedUrl> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public PresignedUrl get(String s3Key) {
+        long now = clockMs.getAsLong();
+        long bucketEnd = (now / bucketMs + 1) * bucketMs;
+        long expiresAt = bucketEnd + expirationSeconds * 1000L;
+
+        synchronized (this) {
+            PresignedUrl cached = cache.get(s3Key);
+            if (cached != null && cached.expiresAt == expiresAt) {
+                hits++;
+                return cached.withRemaining(now);
+            }
+            misses++;
+        }
+
+        // 서명은 락 밖에서 (동시에 같은 키가 들어오면 둘 다 서명하고 나중 것이 남는다)
+        int signatureSeconds = (int) ((expiresAt - now + 999) / 1000);
+        PresignedUrl signed = new PresignedUrl(signer.presign(s3Key, signatureSeconds), expiresAt, signatureSeconds);
+        synchronized (this) {
+            cache.put(s3Key, signed);
+        }
+        return signed;
+    }
+
+    /**
+     * 지난 기록 이후 적중/미스 수를 메트릭으로 기록 (요청 처리 끝에 호출)
+     */
+    public void publishMetrics() {
+        long h;
+        long m;
+        synchronized (this) {
+            h = hits;
+            m = misses;
+            hits = 0;
+            misses = 0;
+        }
+        if (h > 0) {
+            MetricsLogger.TTS.putMetric(metricFunction, "PresignCacheHit", h, "Count");
+        }
+        if (m > 0) {
+            MetricsLogger.TTS.putMetric(metricFunction, "PresignCacheMiss", m, "Count");
+        }
+    }
+
+    private static int parseIntEnv(String key, int defaultValue) {
+        try {
+            String raw = System.getenv(key);
+            if (raw == null || raw.isBlank()) return defaultValue;
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : defaultValue;
+        } catch (Exception ignore) {
+            return defaultValue;
+        }
+    }
+
+    public static final class PresignedUrl {
+        private final String url;
+        private final long expiresAt;
+        private final int expiresInSeconds;
+
+        private PresignedUrl(String url, long expiresAt, int expiresInSeconds) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+            this.expiresInSeconds = expiresInSeconds;
+        }
+
+        private PresignedUrl withRemaining(long now) {
+            return new PresignedUrl(url, expiresAt, (int) ((expiresAt - now) / 1000));
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * 이 URL의 남은 유효시간(초)
+         */
+        public int getExpiresInSeconds() {
+            return expiresInSeconds;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.speaktracker.common.tts;
+
+import java.util.Locale;
+
+/**
+ * TTS 출력 프로필 (Polly 출력 포맷 + 샘플레이트)
+ * - mp3: 기존 기본값 (키/객체 그대로)
+ * - mp3-low / ogg-low: 16kHz로 전송량 축소 (모바일, Save-Data)
+ * - ogg: Ogg Vorbis 24kHz (같은 음질에서 mp3보다 작음)
+ * - pcm: 16bit LE mono 16kHz raw (브라우저 파형/발음 분석용)
+ *   audio/L16은 big endian이라 쓸 수 없어 application/octet-stream으로 내보내고 인코딩은 getEncoding()으로 알린다.
+ * - 프로필마다 S3 키 네임스페이스가 다르다. (TtsKeys.s3Key)
+ */
+public enum TtsAudioProfile {
+    MP3("mp3", "mp3", null, 24000, "mp3", "audio/mpeg", null),
+    MP3_LOW("mp3-low", "mp3", "16000", 16000, "mp3", "audio/mpeg", null),
+    OGG("ogg", "ogg_vorbis", "24000", 24000, "ogg", "audio/ogg", null),
+    OGG_LOW("ogg-low", "ogg_vorbis", "16000", 16000, "ogg", "audio/ogg", null),
+    PCM("pcm", "pcm", "16000", 16000, "pcm", "application/octet-stream", "s16le;rate=16000;channels=1");
+
+    private final String id;
+    private final String outputFormat;
+    private final String sampleRate;
+    private final int sampleRateHz;
+    private final String extension;
+    private final String contentType;
+    private final String encoding;
+
+    TtsAudioProfile(String id, String outputFormat, String sampleRate, int sampleRateHz,
+                    String extension, String contentType, String encoding) {
+        this.id = id;
+        this.outputFormat = outputFormat;
+        this.sampleRate = sampleRate;
+        this.sampleRateHz = sampleRateHz;
+        this.extension = extension;
+        this.contentType = contentType;
+        this.encoding = encoding;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Polly OutputFormat 값
+     */
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Polly SampleRate 값 (null이면 엔진 기본값)
+     */
+    public String getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 컨테이너 없는 raw 포맷의 샘플 인코딩 (pcm: s16le;rate=16000;channels=1), 그 외 null
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * 같은 포맷의 저용량 프로필 (없으면 자기 자신)
+     */
+    public TtsAudioProfile lowVariant() {
+        switch (this) {
+            case MP3:
+                return MP3_LOW;
+            case OGG:
+                return OGG_LOW;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * 프로필 id로 조회 (없으면 mp3)
+     */
+    public static TtsAudioProfile fromId(String id) {
+        if (id == null || id.isBlank()) {
+            return MP3;
+        }
+        String normalized = id.trim().toLowerCase(Locale.ROOT);
+        for (TtsAudioProfile profile : values()) {
+            if (profile.id.equals(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported audio format: " + id);
+    }
+
+    /**
+     * Accept 헤더에서 가장 선호하는 오디오 타입으로 프로필 선택 (q값 우선, 같으면 먼저 나온 것)
+     * - audio/ogg → ogg, audio/mpeg·audio/mp3 → mp3, audio/pcm → pcm, 그 외/없음 → mp3
+     * - audio/l16(big endian)은 Polly pcm(little endian)과 달라 협상하지 않는다.
+     */
+    public static TtsAudioProfile negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MP3;
+        }
+        TtsAudioProfile best = MP3;
+        double bestQ = 0;
+        for (String part : accept.split(",")) {
+            String[] params = part.split(";");
+            TtsAudioProfile profile = fromMediaType(params[0].trim().toLowerCase(Locale.ROOT));
+            if (profile == null) {
+                continue;
+            }
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException ignore) {
+                        q = 0;
+                    }
+                }
+            }
+            if (q > bestQ) {
+                best = profile;
+                bestQ = q;
+            }
+        }
+        return best;
+    }
+
+    private static TtsAudioProfile fromMediaType(String mediaType) {
+        switch (mediaType) {
+            case "audio/ogg":
+                return OGG;
+            case "audio/mpeg":
+            case "audio/mp3":
+                return MP3;
+            case "audio/pcm":
+                return PCM;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.speaktracker.common.tts;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * TTS 캐시 키 (content-addressed, 버전 포함)
+ * - v2: audio/v2/{voiceId}/{sha256("v2|voiceId|정규화 텍스트")}.mp3
+ *   mp3 외 프로필: audio/v2/{profile}/{voiceId}/{hash}.{ext}
+ * - legacy(v1): audio/{voiceId}/{sha256(trim+lowercase 텍스트|voiceId)}.mp3
+ *   v2 미스 시 TTS 쪽에서 legacy 객체를 v2 키로 복사해 재사용한다.
+ * - 정규화 규칙을 바꾸면 KEY_VERSION을 올린다. (이전 객체와 섞이지 않도록)
+ */
+public final class TtsKeys {
+
+    public static final String KEY_VERSION = "v2";
+
+    private TtsKeys() {}
+
+    public static String hash(String text, String voiceId) {
+        return sha256(KEY_VERSION + "|" + voiceId + "|" + TtsTextNormalizer.normalize(text));
+    }
+
+    public static String s3Key(String text, String voiceId) {
+        return s3Key(text, voiceId, TtsAudioProfile.MP3);
+    }
+
+    public static String s3Key(String text, String voiceId, TtsAudioProfile profile) {
+        if (profile == TtsAudioProfile.MP3) {
+            return String.format("audio/%s/%s/%s.mp3", KEY_VERSION, voiceId, hash(text, voiceId));
+        }
+        return String.format("audio/%s/%s/%s/%s.%s",
+            KEY_VERSION, profile.getId(), voiceId, hash(text, voiceId), profile.getExtension());
+    }
+
+    public static String legacyS3Key(String text, String voiceId) {
+        String legacyHash = sha256((text == null ? "" : text).trim().toLowerCase(Locale.ROOT) + "|" + voiceId);
+        return String.format("audio/%s/%s.mp3", voiceId, legacyHash);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+}
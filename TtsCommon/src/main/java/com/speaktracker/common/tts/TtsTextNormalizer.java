@@ -0,0 +1,82 @@
+package com.speaktracker.common.tts;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * TTS 입력 텍스트 정규화 (캐시 키와 Polly 입력에 같은 결과를 사용)
+ * - Unicode NFC, 제어/서식 문자(zero-width, BOM 등) 제거
+ * - 공백류(NBSP 등) → 공백 1개, 둥근 따옴표 → ' / ", 대시 변형 → —
+ * - 문장 끝 구두점: 억양이 달라지는 ? / ! / … 은 유지, 평서문 마침표는 제거 ("a table." == "a table")
+ * - 제어 문자가 없으므로 SSML로 감싸도 escape 외 추가 처리가 필요 없다.
+ */
+public final class TtsTextNormalizer {
+
+    private static final Pattern SPACES = Pattern.compile(" {2,}");
+    private static final Pattern SPACE_BEFORE_PUNCT = Pattern.compile(" +([,.!?;:…])");
+    private static final Pattern ELLIPSIS = Pattern.compile("\\.{3,}");
+    private static final Pattern TRAILING_PUNCT = Pattern.compile("[.!?]+$");
+
+    private TtsTextNormalizer() {}
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String nfc = Normalizer.normalize(text, Normalizer.Form.NFC);
+
+        StringBuilder sb = new StringBuilder(nfc.length());
+        nfc.codePoints().forEach(cp -> {
+            int type = Character.getType(cp);
+            if (cp == '\t' || cp == '\n' || cp == '\r' || Character.isSpaceChar(cp)) {
+                sb.append(' ');
+            } else if (type == Character.CONTROL || type == Character.FORMAT) {
+                // 제거
+            } else {
+                sb.appendCodePoint(foldChar(cp));
+            }
+        });
+
+        String s = SPACES.matcher(sb.toString().trim()).replaceAll(" ");
+        s = SPACE_BEFORE_PUNCT.matcher(s).replaceAll("$1");
+        s = ELLIPSIS.matcher(s).replaceAll("…");
+        // 마침표만 있는 입력은 그대로 둔다 (Polly에 빈 텍스트를 보내지 않도록)
+        String folded = foldTrailingPunctuation(s);
+        return folded.isEmpty() ? s : folded;
+    }
+
+    private static int foldChar(int cp) {
+        switch (cp) {
+            case '‘': case '’': case '‚': case '‛': case '′': case '´': case '`':
+                return '\'';
+            case '“': case '”': case '„': case '‟': case '″': case '«': case '»':
+                return '"';
+            case '‐': case '‑':
+                return '-';
+            case '–': case '―':
+                return '—';
+            default:
+                return cp;
+        }
+    }
+
+    /**
+     * 끝 구두점 연속("?!", "!!!", "..")을 억양 기준 한 글자로 정리
+     * - ? 가 있으면 의문 억양, 없고 ! 가 있으면 감탄, 마침표뿐이면 평서문이라 제거
+     */
+    private static String foldTrailingPunctuation(String s) {
+        var m = TRAILING_PUNCT.matcher(s);
+        if (!m.find()) {
+            return s;
+        }
+        String run = m.group();
+        String head = s.substring(0, m.start()).stripTrailing();
+        if (run.indexOf('?') >= 0) {
+            return head + "?";
+        }
+        if (run.indexOf('!') >= 0) {
+            return head + "!";
+        }
+        return head;
+    }
+}
@@ -0,0 +1,42 @@
+package com.speaktracker.common.tts;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsLoggerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void writesEmfWithModuleNamespace() throws Exception {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("InputTokens", 1200L);
+        values.put("OutputTokens", 80L);
+
+        JsonNode root = objectMapper.readTree(MetricsLogger.SENTENCES.toJson("ClaudeApi", values, "Count"));
+        JsonNode directive = root.path("_aws").path("CloudWatchMetrics").get(0);
+
+        assertEquals("SpeakTracker/Sentences", directive.path("Namespace").asText());
+        assertEquals("Function", directive.path("Dimensions").get(0).get(0).asText());
+        assertEquals("InputTokens", directive.path("Metrics").get(0).path("Name").asText());
+        assertEquals("Count", directive.path("Metrics").get(1).path("Unit").asText());
+        assertEquals("ClaudeApi", root.path("Function").asText());
+        assertEquals(1200, root.path("InputTokens").asLong());
+        assertEquals(80, root.path("OutputTokens").asLong());
+    }
+
+    @Test
+    public void ttsUsesItsOwnNamespace() throws Exception {
+        JsonNode root = objectMapper.readTree(MetricsLogger.TTS.toJson("TTSWorker", Map.of("CacheHit", 1), "Count"));
+
+        assertEquals("SpeakTracker/TTS",
+            root.path("_aws").path("CloudWatchMetrics").get(0).path("Namespace").asText());
+        assertEquals(1, root.path("CacheHit").asInt());
+    }
+}
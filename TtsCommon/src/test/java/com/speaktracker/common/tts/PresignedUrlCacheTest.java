@@ -0,0 +1,88 @@
+package com.speaktracker.common.tts;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PresignedUrlCacheTest {
+
+    private static final int EXPIRATION_SECONDS = 3600;
+    private static final int BUCKET_SECONDS = 900;
+
+    // 구간(900초) 시작 시각
+    private final AtomicLong now = new AtomicLong(1_000L * BUCKET_SECONDS * 1000);
+    private final List<Integer> signedSeconds = new ArrayList<>();
+
+    private final PresignedUrlCache.Signer signer = (key, seconds) -> {
+        signedSeconds.add(seconds);
+        return "https://bucket/" + key + "?sig=" + signedSeconds.size();
+    };
+
+    private PresignedUrlCache cache(int capacity) {
+        return new PresignedUrlCache("Test", EXPIRATION_SECONDS, BUCKET_SECONDS, capacity, signer, now::get);
+    }
+
+    @Test
+    public void reusesUrlWithinBucket() {
+        PresignedUrlCache cache = cache(10);
+
+        String first = cache.get("a.mp3").getUrl();
+        now.addAndGet(BUCKET_SECONDS * 1000L - 1);
+        String second = cache.get("a.mp3").getUrl();
+
+        assertEquals(first, second);
+        assertEquals(1, signedSeconds.size());
+    }
+
+    @Test
+    public void resignsAfterBucketRollover() {
+        PresignedUrlCache cache = cache(10);
+
+        String first = cache.get("a.mp3").getUrl();
+        now.addAndGet(BUCKET_SECONDS * 1000L);
+        String second = cache.get("a.mp3").getUrl();
+
+        assertNotEquals(first, second);
+        assertEquals(2, signedSeconds.size());
+    }
+
+    @Test
+    public void expiresInNeverBelowConfiguredLifetime() {
+        PresignedUrlCache cache = cache(10);
+        long start = now.get();
+
+        // 구간 처음/중간/끝 직전, 새로 서명한 경우와 재사용한 경우 모두
+        for (long offsetMs : new long[]{0, 1, 450_000, 899_000, 899_999, 900_000, 1_799_999}) {
+            now.set(start + offsetMs);
+            int expiresIn = cache.get("a.mp3").getExpiresInSeconds();
+            assertTrue("offset=" + offsetMs + " expiresIn=" + expiresIn, expiresIn >= EXPIRATION_SECONDS);
+            assertTrue("offset=" + offsetMs + " expiresIn=" + expiresIn,
+                expiresIn <= EXPIRATION_SECONDS + BUCKET_SECONDS);
+        }
+        for (int seconds : signedSeconds) {
+            assertTrue(seconds >= EXPIRATION_SECONDS && seconds <= EXPIRATION_SECONDS + BUCKET_SECONDS);
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        PresignedUrlCache cache = cache(2);
+
+        cache.get("a.mp3");
+        cache.get("b.mp3");
+        cache.get("a.mp3");   // a를 최근 사용으로
+        cache.get("c.mp3");   // b 축출
+        assertEquals(3, signedSeconds.size());
+
+        cache.get("a.mp3");
+        assertEquals(3, signedSeconds.size());
+        cache.get("b.mp3");
+        assertEquals(4, signedSeconds.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.speaktracker.common.tts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TtsAudioProfileTest {
+
+    @Test
+    public void missingAcceptDefaultsToMp3() {
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate(null));
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate(" "));
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("*/*"));
+    }
+
+    @Test
+    public void picksHighestQValue() {
+        assertEquals(TtsAudioProfile.OGG, TtsAudioProfile.negotiate("audio/mpeg;q=0.5, audio/ogg;q=0.9"));
+        // q 생략은 1.0
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("audio/ogg;q=0.5, audio/mpeg"));
+        assertEquals(TtsAudioProfile.PCM, TtsAudioProfile.negotiate("audio/ogg; q=0.2, audio/pcm; q=0.8"));
+    }
+
+    @Test
+    public void tieKeepsFirstListed() {
+        assertEquals(TtsAudioProfile.OGG, TtsAudioProfile.negotiate("audio/ogg, audio/mpeg"));
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("audio/mp3;q=0.7, audio/ogg;q=0.7"));
+    }
+
+    @Test
+    public void zeroOrInvalidQIsNotAcceptable() {
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("audio/ogg;q=0"));
+        assertEquals(TtsAudioProfile.PCM, TtsAudioProfile.negotiate("audio/ogg;q=0, audio/pcm;q=0.1"));
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("audio/ogg;q=abc, audio/mpeg;q=0.2"));
+    }
+
+    @Test
+    public void ignoresUnknownAndBigEndianPcmTypes() {
+        assertEquals(TtsAudioProfile.PCM, TtsAudioProfile.negotiate("text/html, audio/pcm;q=0.3"));
+        assertEquals(TtsAudioProfile.OGG, TtsAudioProfile.negotiate("AUDIO/OGG"));
+        // Polly pcm은 little endian이라 audio/L16 요청에는 내주지 않는다
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.negotiate("audio/L16;rate=16000"));
+    }
+
+    @Test
+    public void saveDataUsesLowVariant() {
+        assertEquals(TtsAudioProfile.MP3_LOW, TtsAudioProfile.MP3.lowVariant());
+        assertEquals(TtsAudioProfile.OGG_LOW, TtsAudioProfile.OGG.lowVariant());
+        assertEquals(TtsAudioProfile.OGG_LOW, TtsAudioProfile.negotiate("audio/ogg").lowVariant());
+        // 이미 저용량이거나 저용량 버전이 없는 포맷은 그대로
+        assertEquals(TtsAudioProfile.MP3_LOW, TtsAudioProfile.MP3_LOW.lowVariant());
+        assertEquals(TtsAudioProfile.OGG_LOW, TtsAudioProfile.OGG_LOW.lowVariant());
+        assertEquals(TtsAudioProfile.PCM, TtsAudioProfile.PCM.lowVariant());
+    }
+
+    @Test
+    public void pcmIsServedAsOctetStreamWithEncoding() {
+        assertEquals("application/octet-stream", TtsAudioProfile.PCM.getContentType());
+        assertEquals("s16le;rate=16000;channels=1", TtsAudioProfile.PCM.getEncoding());
+        assertNull(TtsAudioProfile.MP3.getEncoding());
+    }
+
+    @Test
+    public void fromIdIsCaseInsensitive() {
+        assertEquals(TtsAudioProfile.MP3, TtsAudioProfile.fromId(null));
+        assertEquals(TtsAudioProfile.OGG_LOW, TtsAudioProfile.fromId(" OGG-LOW "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromIdRejectsUnknownFormat() {
+        TtsAudioProfile.fromId("wav");
+    }
+}
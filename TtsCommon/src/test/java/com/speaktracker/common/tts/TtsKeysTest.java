@@ -0,0 +1,46 @@
+package com.speaktracker.common.tts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TtsKeysTest {
+
+    @Test
+    public void v2KeyIsStable() {
+        // 이 값이 바뀌면 기존 S3 캐시가 전부 미스가 된다 (정규화 규칙 변경 시 KEY_VERSION을 올릴 것)
+        assertEquals("audio/v2/Joanna/aacf386a04e9cb97ae57f98ef9956815460d62ffb855b2e4470cc0fa5a6a5ea4.mp3",
+            TtsKeys.s3Key("It's a table.", "Joanna"));
+    }
+
+    @Test
+    public void equivalentTextsShareKey() {
+        String key = TtsKeys.s3Key("It's a table", "Joanna");
+
+        assertEquals(key, TtsKeys.s3Key("  It’s   a table. ", "Joanna"));
+        assertEquals(key, TtsKeys.s3Key("It's a table..", "Joanna"));
+        assertNotEquals(key, TtsKeys.s3Key("It's a table?", "Joanna"));
+        assertNotEquals(key, TtsKeys.s3Key("It's a table", "Matthew"));
+    }
+
+    @Test
+    public void legacyKeyKeepsOldScheme() {
+        // v1: trim + lowercase만 적용, 버전 접두사 없음
+        assertEquals("audio/Joanna/93fb7d29ea0c322df952949986e6b7408955dfa85a2ce960ef4b4e3eb22fdf0e.mp3",
+            TtsKeys.legacyS3Key(" Hello World. ", "Joanna"));
+        assertNotEquals(TtsKeys.legacyS3Key("Hello World.", "Joanna"), TtsKeys.s3Key("Hello World.", "Joanna"));
+        assertEquals(TtsKeys.legacyS3Key("", "Joanna"), TtsKeys.legacyS3Key(null, "Joanna"));
+    }
+
+    @Test
+    public void profileKeysAreNamespaced() {
+        String hash = TtsKeys.hash("Hello", "Joanna");
+
+        assertEquals("audio/v2/Joanna/" + hash + ".mp3", TtsKeys.s3Key("Hello", "Joanna", TtsAudioProfile.MP3));
+        assertEquals("audio/v2/ogg/Joanna/" + hash + ".ogg", TtsKeys.s3Key("Hello", "Joanna", TtsAudioProfile.OGG));
+        assertEquals("audio/v2/mp3-low/Joanna/" + hash + ".mp3",
+            TtsKeys.s3Key("Hello", "Joanna", TtsAudioProfile.MP3_LOW));
+        assertEquals("audio/v2/pcm/Joanna/" + hash + ".pcm", TtsKeys.s3Key("Hello", "Joanna", TtsAudioProfile.PCM));
+    }
+}
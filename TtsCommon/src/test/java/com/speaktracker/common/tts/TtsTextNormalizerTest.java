@@ -0,0 +1,43 @@
+package com.speaktracker.common.tts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TtsTextNormalizerTest {
+
+    @Test
+    public void collapsesWhitespaceAndInvisibleCharacters() {
+        assertEquals("Hello world", TtsTextNormalizer.normalize("  Hello \t world\u200b "));
+        assertEquals("Hello world", TtsTextNormalizer.normalize("\ufeffHello\u00a0\r\nworld"));
+    }
+
+    @Test
+    public void foldsQuotesAndDashes() {
+        assertEquals("It's \"fine\" — really", TtsTextNormalizer.normalize("It’s “fine” – really"));
+    }
+
+    @Test
+    public void appliesNfc() {
+        // 조합형(NFD) 한글과 완성형(NFC)이 같은 결과
+        assertEquals(TtsTextNormalizer.normalize("한국어"),
+            TtsTextNormalizer.normalize(java.text.Normalizer.normalize("한국어", java.text.Normalizer.Form.NFD)));
+    }
+
+    @Test
+    public void foldsTrailingPunctuationByIntonation() {
+        assertEquals("a table", TtsTextNormalizer.normalize("a table."));
+        assertEquals("a table", TtsTextNormalizer.normalize("a table .."));
+        assertEquals("Really?", TtsTextNormalizer.normalize("Really?!"));
+        assertEquals("Wow!", TtsTextNormalizer.normalize("Wow!!!"));
+        assertEquals("Well…", TtsTextNormalizer.normalize("Well..."));
+        assertEquals("Wait, what", TtsTextNormalizer.normalize("Wait , what."));
+    }
+
+    @Test
+    public void keepsPunctuationOnlyInputAndHandlesNull() {
+        assertEquals("…", TtsTextNormalizer.normalize("..."));
+        assertEquals(".", TtsTextNormalizer.normalize("."));
+        assertEquals("", TtsTextNormalizer.normalize(null));
+    }
+}